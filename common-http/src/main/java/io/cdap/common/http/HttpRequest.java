@@ -181,6 +181,21 @@ public class HttpRequest {
       return this;
     }
 
+    /**
+     * Sets the body of the request with a known length. Providing the length allows the request to be sent
+     * with fixed-length streaming mode, based on {@link HttpRequestConfig#getFixedLengthStreamingThreshold()}.
+     *
+     * @param body provider of the request body
+     * @param length number of bytes that the body contains
+     */
+    public Builder withBody(ContentProvider<? extends InputStream> body, long length) {
+      Preconditions.checkNotNull(body);
+      Preconditions.checkArgument(length >= 0, "Body length must not be negative: %s", length);
+      this.body = body;
+      this.bodyLength = length;
+      return this;
+    }
+
     public Builder withBody(File body) {
       Preconditions.checkNotNull(body);
       this.body = new ContentProvider() {
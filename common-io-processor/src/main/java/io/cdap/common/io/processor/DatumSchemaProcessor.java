@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io.processor;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.common.internal.io.DatumSchema;
+import io.cdap.common.internal.io.PrecomputedSchemas;
+import io.cdap.common.internal.io.Schema;
+import io.cdap.common.internal.io.UnsupportedTypeException;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that generates the {@link Schema} of classes annotated with {@link DatumSchema}.
+ * The schema json of each class is written as a class resource named by
+ * {@link PrecomputedSchemas#getResourceName(String)}, which is looked up at runtime instead of generating
+ * the schema through reflection.
+ */
+public final class DatumSchemaProcessor extends AbstractProcessor {
+
+  private ElementSchemaGenerator generator;
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    generator = new ElementSchemaGenerator(processingEnv.getElementUtils(), processingEnv.getTypeUtils());
+  }
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return ImmutableSet.of(DatumSchema.class.getName());
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (TypeElement typeElement : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(DatumSchema.class))) {
+      if (!typeElement.getTypeParameters().isEmpty()) {
+        error(typeElement, "Schema cannot be generated for generic class %s", typeElement);
+        continue;
+      }
+      try {
+        writeSchema(typeElement, generator.generate(typeElement.asType()));
+      } catch (UnsupportedTypeException e) {
+        error(typeElement, "Failed to generate schema for %s: %s", typeElement, e.getMessage());
+      } catch (IOException e) {
+        error(typeElement, "Failed to write schema for %s: %s", typeElement, e.getMessage());
+      }
+    }
+    return true;
+  }
+
+  private void writeSchema(TypeElement typeElement, Schema schema) throws IOException {
+    String className = processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+    FileObject resource = processingEnv.getFiler().createResource(
+      StandardLocation.CLASS_OUTPUT, "", PrecomputedSchemas.getResourceName(className), typeElement);
+    Writer writer = new OutputStreamWriter(resource.openOutputStream(), Charsets.UTF_8);
+    try {
+      writer.write(schema.toString());
+    } finally {
+      writer.close();
+    }
+  }
+
+  private void error(Element element, String format, Object... args) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, String.format(format, args), element);
+  }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io.processor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import io.cdap.common.internal.io.ReflectionSchemaGenerator;
+import io.cdap.common.internal.io.Schema;
+import io.cdap.common.internal.io.UnsupportedTypeException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Generates {@link Schema} from the compile time model of a type. The rules are the same as
+ * {@link ReflectionSchemaGenerator}, applied to {@link TypeMirror} instead of {@link java.lang.reflect.Type}.
+ */
+final class ElementSchemaGenerator {
+
+  /**
+   * Mapping type names into Schemas for simple data types, same as the one in
+   * {@link io.cdap.common.internal.io.AbstractSchemaGenerator}.
+   */
+  private static final Map<String, Schema> SIMPLE_SCHEMAS =
+    ImmutableMap.<String, Schema>builder()
+      .put("java.lang.Boolean", Schema.of(Schema.Type.BOOLEAN))
+      .put("java.lang.Byte", Schema.of(Schema.Type.INT))
+      .put("java.lang.Character", Schema.of(Schema.Type.INT))
+      .put("java.lang.Short", Schema.of(Schema.Type.INT))
+      .put("java.lang.Integer", Schema.of(Schema.Type.INT))
+      .put("java.lang.Long", Schema.of(Schema.Type.LONG))
+      .put("java.lang.Float", Schema.of(Schema.Type.FLOAT))
+      .put("java.lang.Double", Schema.of(Schema.Type.DOUBLE))
+
+      .put("java.lang.String", Schema.of(Schema.Type.STRING))
+      .put("java.nio.ByteBuffer", Schema.of(Schema.Type.BYTES))
+
+      .put("java.net.URI", Schema.of(Schema.Type.STRING))
+      .put("java.net.URL", Schema.of(Schema.Type.STRING))
+      .put("java.util.UUID", Schema.of(Schema.Type.BYTES))
+      .build();
+
+  private static final Map<TypeKind, Schema> PRIMITIVE_SCHEMAS =
+    ImmutableMap.<TypeKind, Schema>builder()
+      .put(TypeKind.BOOLEAN, Schema.of(Schema.Type.BOOLEAN))
+      .put(TypeKind.BYTE, Schema.of(Schema.Type.INT))
+      .put(TypeKind.CHAR, Schema.of(Schema.Type.INT))
+      .put(TypeKind.SHORT, Schema.of(Schema.Type.INT))
+      .put(TypeKind.INT, Schema.of(Schema.Type.INT))
+      .put(TypeKind.LONG, Schema.of(Schema.Type.LONG))
+      .put(TypeKind.FLOAT, Schema.of(Schema.Type.FLOAT))
+      .put(TypeKind.DOUBLE, Schema.of(Schema.Type.DOUBLE))
+      .build();
+
+  private final Elements elements;
+  private final Types types;
+  private final TypeMirror collectionType;
+  private final TypeMirror mapType;
+
+  ElementSchemaGenerator(Elements elements, Types types) {
+    this.elements = elements;
+    this.types = types;
+    this.collectionType = types.erasure(elements.getTypeElement("java.util.Collection").asType());
+    this.mapType = types.erasure(elements.getTypeElement("java.util.Map").asType());
+  }
+
+  /**
+   * Generates the {@link Schema} of the given type, with recursive types accepted.
+   */
+  Schema generate(TypeMirror type) throws UnsupportedTypeException {
+    return generate(type, ImmutableSet.<String>of());
+  }
+
+  private Schema generate(TypeMirror type, Set<String> knownRecords) throws UnsupportedTypeException {
+    Schema schema = PRIMITIVE_SCHEMAS.get(type.getKind());
+    if (schema != null) {
+      return schema;
+    }
+
+    // Java array, use ARRAY schema. Same as reflection, the component type is the raw type.
+    if (type.getKind() == TypeKind.ARRAY) {
+      TypeMirror componentType = types.erasure(((ArrayType) type).getComponentType());
+      if (componentType.getKind() == TypeKind.BYTE) {
+        return Schema.of(Schema.Type.BYTES);
+      }
+      Schema componentSchema = generate(componentType, knownRecords);
+      if (componentType.getKind().isPrimitive()) {
+        return Schema.arrayOf(componentSchema);
+      }
+      return Schema.arrayOf(Schema.unionOf(componentSchema, Schema.of(Schema.Type.NULL)));
+    }
+
+    if (type.getKind() != TypeKind.DECLARED) {
+      throw new UnsupportedTypeException("Type " + type + " is not supported. " +
+                                         "Only Class or ParameterizedType are supported.");
+    }
+
+    DeclaredType declaredType = (DeclaredType) type;
+    TypeElement typeElement = (TypeElement) declaredType.asElement();
+    schema = SIMPLE_SCHEMAS.get(typeElement.getQualifiedName().toString());
+    if (schema != null) {
+      return schema;
+    }
+
+    // Enum type, simply use all the enum constants for ENUM schema.
+    if (typeElement.getKind() == ElementKind.ENUM) {
+      ImmutableList.Builder<String> names = ImmutableList.builder();
+      for (Element element : typeElement.getEnclosedElements()) {
+        if (element.getKind() == ElementKind.ENUM_CONSTANT) {
+          names.add(element.getSimpleName().toString());
+        }
+      }
+      return Schema.enumWith(names.build());
+    }
+
+    List<? extends TypeMirror> typeArgs = declaredType.getTypeArguments();
+
+    // Any parameterized Collection class would be represented by ARRAY schema.
+    if (types.isAssignable(types.erasure(type), collectionType)) {
+      if (typeArgs.isEmpty()) {
+        throw new UnsupportedTypeException("Only supports parameterized Collection type.");
+      }
+      Schema componentSchema = generate(typeArgs.get(0), knownRecords);
+      return Schema.arrayOf(Schema.unionOf(componentSchema, Schema.of(Schema.Type.NULL)));
+    }
+
+    // Java Map, use MAP schema.
+    if (types.isAssignable(types.erasure(type), mapType)) {
+      if (typeArgs.isEmpty()) {
+        throw new UnsupportedTypeException("Only supports parameterized Map type.");
+      }
+      Schema valueSchema = generate(typeArgs.get(1), knownRecords);
+      return Schema.mapOf(generate(typeArgs.get(0), knownRecords),
+                          Schema.unionOf(valueSchema, Schema.of(Schema.Type.NULL)));
+    }
+
+    // Any Java class, class name as the record name.
+    String recordName = elements.getBinaryName(typeElement).toString();
+    if (knownRecords.contains(recordName)) {
+      // Record already seen before, simply create a reference RECORD schema by the name.
+      return Schema.recordOf(recordName);
+    }
+    return generateRecord(declaredType, typeElement, recordName, knownRecords);
+  }
+
+  private Schema generateRecord(DeclaredType type, TypeElement typeElement,
+                                String recordName, Set<String> knownRecords) throws UnsupportedTypeException {
+    Map<String, TypeMirror> recordFieldTypes =
+      typeElement.getKind().isInterface() ?
+        collectByMethods(type, typeElement, Maps.<String, TypeMirror>newTreeMap()) :
+        collectByFields(type, Maps.<String, TypeMirror>newTreeMap());
+
+    // Recursively generate field type schema.
+    Set<String> fieldKnownRecords = ImmutableSet.<String>builder().addAll(knownRecords).add(recordName).build();
+    boolean nonnull = isNonnull(typeElement);
+    ImmutableList.Builder<Schema.Field> builder = ImmutableList.builder();
+    for (Map.Entry<String, TypeMirror> fieldType : recordFieldTypes.entrySet()) {
+      Schema fieldSchema = generate(fieldType.getValue(), fieldKnownRecords);
+
+      // For non-primitive, allows "null" value, unless the class is annotated with Nonnull
+      if (!fieldType.getValue().getKind().isPrimitive() && !nonnull) {
+        fieldSchema = Schema.unionOf(fieldSchema, Schema.of(Schema.Type.NULL));
+      }
+      builder.add(Schema.Field.of(fieldType.getKey(), fieldSchema));
+    }
+
+    return Schema.recordOf(recordName, builder.build());
+  }
+
+  private Map<String, TypeMirror> collectByFields(DeclaredType type, Map<String, TypeMirror> fieldTypes) {
+    // Collect the field types from the class and all the parent classes, parent class fields override
+    DeclaredType classType = type;
+    while (classType != null) {
+      TypeElement classElement = (TypeElement) classType.asElement();
+      if (classElement.getQualifiedName().contentEquals("java.lang.Object")) {
+        // Ignore all object fields
+        break;
+      }
+      for (VariableElement field : ElementFilter.fieldsIn(classElement.getEnclosedElements())) {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.TRANSIENT) || modifiers.contains(Modifier.STATIC)) {
+          continue;
+        }
+        fieldTypes.put(field.getSimpleName().toString(), types.asMemberOf(classType, field));
+      }
+      classType = getSuperclass(classType);
+    }
+    return fieldTypes;
+  }
+
+  private Map<String, TypeMirror> collectByMethods(DeclaredType type, TypeElement typeElement,
+                                                   Map<String, TypeMirror> fieldTypes) {
+    for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(typeElement))) {
+      if (((TypeElement) method.getEnclosingElement()).getQualifiedName().contentEquals("java.lang.Object")) {
+        // Ignore all object methods
+        continue;
+      }
+      String methodName = method.getSimpleName().toString();
+      if (!(methodName.startsWith("get") || methodName.startsWith("is"))
+        || !method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)
+        || !method.getParameters().isEmpty()) {
+        // Ignore not getter methods
+        continue;
+      }
+      String fieldName = methodName.startsWith("get") ?
+                           methodName.substring("get".length()) : methodName.substring("is".length());
+      if (fieldName.isEmpty()) {
+        continue;
+      }
+      fieldName = String.format("%c%s", Character.toLowerCase(fieldName.charAt(0)), fieldName.substring(1));
+      if (fieldTypes.containsKey(fieldName)) {
+        continue;
+      }
+      fieldTypes.put(fieldName, ((ExecutableType) types.asMemberOf(type, method)).getReturnType());
+    }
+    return fieldTypes;
+  }
+
+  /**
+   * Returns the superclass of the given class type, with type arguments substituted, or {@code null} if there is none.
+   */
+  private DeclaredType getSuperclass(DeclaredType classType) {
+    for (TypeMirror superType : types.directSupertypes(classType)) {
+      if (superType.getKind() == TypeKind.DECLARED
+        && ((DeclaredType) superType).asElement().getKind().isClass()) {
+        return (DeclaredType) superType;
+      }
+    }
+    return null;
+  }
+
+  private boolean isNonnull(TypeElement typeElement) {
+    for (AnnotationMirror annotation : typeElement.getAnnotationMirrors()) {
+      TypeElement annotationElement = (TypeElement) annotation.getAnnotationType().asElement();
+      if (annotationElement.getQualifiedName().contentEquals("javax.annotation.Nonnull")) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
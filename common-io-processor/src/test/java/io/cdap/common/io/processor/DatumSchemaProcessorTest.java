@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io.processor;
+
+import io.cdap.common.internal.io.DatumSchema;
+import io.cdap.common.internal.io.PrecomputedSchemas;
+import io.cdap.common.internal.io.ReflectionSchemaGenerator;
+import io.cdap.common.internal.io.Schema;
+import io.cdap.common.internal.io.UnsupportedTypeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+/**
+ * Tests for {@link DatumSchemaProcessor}. The annotated classes in this test are processed when the test is compiled.
+ */
+public class DatumSchemaProcessorTest {
+
+  /**
+   * Generic class for testing.
+   */
+  public static class Box<T> {
+    private T value;
+    private List<T> values;
+    private String name;
+  }
+
+  /**
+   * Parent class for testing.
+   */
+  public static class Parent<T> extends Box<Long> {
+    private T parentValue;
+    private int name;
+  }
+
+  /**
+   * Record with all kinds of fields.
+   */
+  @DatumSchema
+  public static final class Record extends Parent<String> {
+    private static int count;
+
+    private int id;
+    private char ch;
+    private Integer boxed;
+    private String text;
+    private long[] longs;
+    private String[] strings;
+    private byte[] bytes;
+    private ByteBuffer buffer;
+    private URI uri;
+    private List<String> list;
+    private Set<Double> set;
+    private Map<String, List<Float>> map;
+    private TimeUnit unit;
+    private Box<Boolean> box;
+    private transient int ignored;
+  }
+
+  /**
+   * Recursive record.
+   */
+  @DatumSchema
+  public static final class Tree {
+    private String name;
+    private List<Tree> children;
+  }
+
+  /**
+   * Same as {@link Tree} without the annotation.
+   */
+  public static final class Tree2 {
+    private String name;
+    private List<Tree2> children;
+  }
+
+  /**
+   * Non-null record.
+   */
+  @Nonnull
+  @DatumSchema
+  public static final class NonNullRecord {
+    private String name;
+    private Box<String> box;
+  }
+
+  /**
+   * Interface with getters.
+   */
+  @DatumSchema
+  public interface Getters extends Comparable<Getters> {
+    String getName();
+    boolean isActive();
+    List<Integer> getValues();
+    void setName(String name);
+    String toName(int i);
+  }
+
+  @Test
+  public void testSchemas() throws UnsupportedTypeException {
+    for (Class<?> cls : new Class<?>[] { Record.class, NonNullRecord.class, Getters.class }) {
+      Schema schema = PrecomputedSchemas.get(cls);
+      Assert.assertNotNull(schema);
+      Assert.assertEquals(new ReflectionSchemaGenerator().generate(cls, false).toString(), schema.toString());
+      Assert.assertSame(schema, new ReflectionSchemaGenerator().generate(cls));
+    }
+  }
+
+  @Test
+  public void testRecursive() throws UnsupportedTypeException {
+    Schema schema = PrecomputedSchemas.get(Tree.class);
+    Assert.assertNotNull(schema);
+    Assert.assertEquals(Tree.class.getName(), schema.getRecordName());
+    Assert.assertEquals(new ReflectionSchemaGenerator().generate(Tree2.class), schema);
+    Assert.assertSame(schema, new ReflectionSchemaGenerator().generate(Tree.class));
+  }
+
+  @Test
+  public void testNotAnnotated() {
+    Assert.assertNull(PrecomputedSchemas.get(Tree2.class));
+  }
+}
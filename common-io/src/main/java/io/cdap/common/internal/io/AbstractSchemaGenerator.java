@@ -80,6 +80,13 @@ public abstract class AbstractSchemaGenerator implements SchemaGenerator {
 
   @Override
   public final Schema generate(Type type, boolean acceptRecursiveTypes) throws UnsupportedTypeException {
+    // Use the schema generated at compile time if there is one
+    if (acceptRecursiveTypes && type instanceof Class) {
+      Schema schema = PrecomputedSchemas.get((Class<?>) type);
+      if (schema != null) {
+        return schema;
+      }
+    }
     Set<String> knownRecords = ImmutableSet.of();
     return doGenerate(TypeToken.of(type), knownRecords, acceptRecursiveTypes);
   }
@@ -0,0 +1,259 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Booleans;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import io.cdap.common.Bytes;
+import io.cdap.common.io.ByteArrayDecoder;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link Comparator} that compares two datums encoded by {@link io.cdap.common.io.BinaryEncoder} directly on the
+ * encoded bytes, without decoding them into objects. Both byte ranges are walked in parallel according to the
+ * {@link Schema}, and the comparison stops as soon as a difference is found.
+ * <p>
+ * The ordering is defined as follows:
+ * <ul>
+ *   <li>{@code null} values are always equal</li>
+ *   <li>{@code boolean}, {@code int}, {@code long}, {@code float} and {@code double} are compared by value</li>
+ *   <li>{@code enum} values are compared by their position in the enum schema</li>
+ *   <li>{@code bytes} and {@code string} values are compared lexicographically on the unsigned bytes,
+ *       which for strings is the same as comparing unicode code points</li>
+ *   <li>{@code array} values are compared element by element, with a shorter array ordered first
+ *       if it is a prefix of the other one</li>
+ *   <li>{@code record} values are compared field by field, in the order of the fields in the schema</li>
+ *   <li>{@code union} values are compared by the branch index first, then by the value</li>
+ *   <li>{@code map} values cannot be compared, unless they are in a field that is {@link Order#IGNORE ignored}</li>
+ * </ul>
+ * </p>
+ * <p>
+ * For a {@link Schema.Type#RECORD RECORD} schema, an {@link Order} can be given to each of the top level fields
+ * to change the sort order of it or to exclude it from the comparison.
+ * </p>
+ */
+public final class BinaryDatumComparator implements Comparator<byte[]> {
+
+  /**
+   * Sort order of a record field.
+   */
+  public enum Order {
+    ASCENDING,
+    DESCENDING,
+    IGNORE
+  }
+
+  private final Schema schema;
+  private final Order[] fieldOrders;
+
+  /**
+   * Creates a comparator that compares all values in ascending order.
+   *
+   * @param schema {@link Schema} of the encoded datum
+   */
+  public BinaryDatumComparator(Schema schema) {
+    this(schema, ImmutableMap.<String, Order>of());
+  }
+
+  /**
+   * Creates a comparator with the sort order of top level record fields defined by the given map.
+   * Fields that are not in the map are compared in ascending order.
+   *
+   * @param schema {@link Schema} of the encoded datum
+   * @param fieldOrders map from record field name to the sort {@link Order} of the field
+   * @throws IllegalArgumentException if the schema cannot be compared, or if fields orders are given
+   *                                  but the schema is not a record or the field doesn't exist.
+   */
+  public BinaryDatumComparator(Schema schema, Map<String, Order> fieldOrders) {
+    this.schema = schema;
+
+    if (schema.getType() == Schema.Type.RECORD) {
+      List<Schema.Field> fields = schema.getFields();
+      this.fieldOrders = new Order[fields.size()];
+      for (int i = 0; i < fields.size(); i++) {
+        Order order = fieldOrders.get(fields.get(i).getName());
+        this.fieldOrders[i] = order == null ? Order.ASCENDING : order;
+      }
+      for (String fieldName : fieldOrders.keySet()) {
+        Preconditions.checkArgument(schema.getField(fieldName) != null,
+                                    "Field %s not exists in record %s", fieldName, schema.getRecordName());
+      }
+    } else {
+      Preconditions.checkArgument(fieldOrders.isEmpty(), "Field orders is only supported for record schema.");
+      this.fieldOrders = null;
+    }
+
+    Set<String> knownRecords = Sets.newHashSet();
+    if (this.fieldOrders == null) {
+      checkComparable(schema, knownRecords);
+    } else {
+      knownRecords.add(schema.getRecordName());
+      List<Schema.Field> fields = schema.getFields();
+      for (int i = 0; i < fields.size(); i++) {
+        if (this.fieldOrders[i] != Order.IGNORE) {
+          checkComparable(fields.get(i).getSchema(), knownRecords);
+        }
+      }
+    }
+  }
+
+  @Override
+  public int compare(byte[] left, byte[] right) {
+    return compare(left, 0, left.length, right, 0, right.length);
+  }
+
+  /**
+   * Compares two encoded datums.
+   *
+   * @param left byte array containing the left datum
+   * @param leftOffset offset of the left datum in the byte array
+   * @param leftLength number of bytes of the left datum
+   * @param right byte array containing the right datum
+   * @param rightOffset offset of the right datum in the byte array
+   * @param rightLength number of bytes of the right datum
+   * @return 0 if equal, < 0 if left is less than right, > 0 if left is greater than right.
+   * @throws IllegalArgumentException if any of the given byte range is not a valid encoded datum.
+   */
+  public int compare(byte[] left, int leftOffset, int leftLength, byte[] right, int rightOffset, int rightLength) {
+    try {
+      ByteArrayDecoder leftDecoder = new ByteArrayDecoder(left, leftOffset, leftLength);
+      ByteArrayDecoder rightDecoder = new ByteArrayDecoder(right, rightOffset, rightLength);
+      if (fieldOrders == null) {
+        return compare(leftDecoder, rightDecoder, schema);
+      }
+      return compareRecord(leftDecoder, rightDecoder, schema, fieldOrders);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to decode datum of schema " + schema, e);
+    }
+  }
+
+  private int compare(ByteArrayDecoder left, ByteArrayDecoder right, Schema schema) throws IOException {
+    switch (schema.getType()) {
+      case NULL:
+        return 0;
+      case BOOLEAN:
+        return Booleans.compare(left.readBool(), right.readBool());
+      case INT:
+      case ENUM:
+        return Ints.compare(left.readInt(), right.readInt());
+      case LONG:
+        return Longs.compare(left.readLong(), right.readLong());
+      case FLOAT:
+        return Float.compare(left.readFloat(), right.readFloat());
+      case DOUBLE:
+        return Double.compare(left.readDouble(), right.readDouble());
+      case BYTES:
+      case STRING:
+        return compareBytes(left, right);
+      case ARRAY:
+        return compareArray(left, right, schema.getComponentSchema());
+      case RECORD:
+        return compareRecord(left, right, schema, null);
+      case UNION:
+        int leftIdx = left.readInt();
+        int rightIdx = right.readInt();
+        if (leftIdx != rightIdx) {
+          return Ints.compare(leftIdx, rightIdx);
+        }
+        return compare(left, right, schema.getUnionSchema(leftIdx));
+      default:
+        throw new IllegalArgumentException("Comparison is not supported for schema " + schema);
+    }
+  }
+
+  private int compareBytes(ByteArrayDecoder left, ByteArrayDecoder right) throws IOException {
+    int leftLength = left.readLength();
+    int rightLength = right.readLength();
+    int result = Bytes.compareTo(left.getBuffer(), left.getPosition(), leftLength,
+                                 right.getBuffer(), right.getPosition(), rightLength);
+    left.skipRaw(leftLength);
+    right.skipRaw(rightLength);
+    return result;
+  }
+
+  private int compareArray(ByteArrayDecoder left, ByteArrayDecoder right, Schema componentSchema) throws IOException {
+    int leftCount = left.readInt();
+    int rightCount = right.readInt();
+    while (leftCount != 0 && rightCount != 0) {
+      int result = compare(left, right, componentSchema);
+      if (result != 0) {
+        return result;
+      }
+      if (--leftCount == 0) {
+        leftCount = left.readInt();
+      }
+      if (--rightCount == 0) {
+        rightCount = right.readInt();
+      }
+    }
+    // At least one array reached the end. The one that still has elements is greater.
+    return Ints.compare(leftCount == 0 ? 0 : 1, rightCount == 0 ? 0 : 1);
+  }
+
+  private int compareRecord(ByteArrayDecoder left, ByteArrayDecoder right,
+                            Schema recordSchema, Order[] orders) throws IOException {
+    List<Schema.Field> fields = recordSchema.getFields();
+    for (int i = 0; i < fields.size(); i++) {
+      Schema fieldSchema = fields.get(i).getSchema();
+      Order order = orders == null ? Order.ASCENDING : orders[i];
+      if (order == Order.IGNORE) {
+        Decoders.skip(left, fieldSchema);
+        Decoders.skip(right, fieldSchema);
+        continue;
+      }
+      int result = compare(left, right, fieldSchema);
+      if (result != 0) {
+        return order == Order.DESCENDING ? -result : result;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Checks if values of the given schema can be compared.
+   */
+  private void checkComparable(Schema schema, Set<String> knownRecords) {
+    switch (schema.getType()) {
+      case MAP:
+        throw new IllegalArgumentException("Comparison of map is not supported: " + schema);
+      case ARRAY:
+        checkComparable(schema.getComponentSchema(), knownRecords);
+        break;
+      case RECORD:
+        if (knownRecords.add(schema.getRecordName())) {
+          for (Schema.Field field : schema.getFields()) {
+            checkComparable(field.getSchema(), knownRecords);
+          }
+        }
+        break;
+      case UNION:
+        for (Schema unionSchema : schema.getUnionSchemas()) {
+          checkComparable(unionSchema, knownRecords);
+        }
+        break;
+    }
+  }
+}
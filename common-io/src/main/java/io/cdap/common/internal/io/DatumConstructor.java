@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the constructor to be used by {@link ReflectionDatumReader} to create instances of a record class.
+ * The decoded field values are passed to the constructor instead of being set to the fields, which allows
+ * reading into immutable classes.
+ * <p>
+ * Each constructor parameter maps to the record field with the name given by {@link #value()}, in the
+ * same order as the parameters. If no name is given, the parameter names are used, which requires the class
+ * to be compiled with the {@code -parameters} option.
+ * </p>
+ * <p>
+ * Java record classes don't need this annotation, as the canonical constructor is used.
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.CONSTRUCTOR)
+public @interface DatumConstructor {
+
+  /**
+   * Returns the record field names of the constructor parameters, in the same order as the parameters.
+   */
+  String[] value() default { };
+}
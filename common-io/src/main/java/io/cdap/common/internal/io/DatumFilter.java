@@ -0,0 +1,510 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.BoundType;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+import com.google.common.primitives.Longs;
+import io.cdap.common.Bytes;
+import io.cdap.common.io.ByteArrayDecoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A filter that evaluates predicates on records encoded by {@link io.cdap.common.io.BinaryEncoder} directly on
+ * the encoded bytes, without decoding them into objects. Only the fields referenced by the predicates are read,
+ * all other fields are skipped, and evaluation stops as soon as one predicate fails.
+ * <p>
+ * Predicates are added through the {@link Builder} on field paths, which are field names separated by {@code .}
+ * for nested records. Fields can be nullable, i.e. a union of a schema and {@code null}. A field in a nested record
+ * that is {@code null} is treated as {@code null}. All predicates must be satisfied for a record to match.
+ * Except {@link Builder#isNull(String)}, no predicate matches a {@code null} value.
+ * </p>
+ * <p>
+ * Values are compared as follows:
+ * <ul>
+ *   <li>{@code int} and {@code long} as long, with literal given as an integral {@link Number}</li>
+ *   <li>{@code float} and {@code double} as double, with literal given as a {@link Number}</li>
+ *   <li>{@code boolean} with {@code false} ordered before {@code true}</li>
+ *   <li>{@code string} and {@code bytes} lexicographically on the unsigned bytes, with literal given as
+ *       {@link CharSequence} for string and {@code byte[]} or {@link ByteBuffer} for bytes</li>
+ *   <li>{@code enum} by the position in the enum schema, with literal given as {@link Enum} or {@link String}</li>
+ * </ul>
+ * </p>
+ */
+@NotThreadSafe
+public final class DatumFilter {
+
+  private final Schema schema;
+  private final RecordNode root;
+
+  /**
+   * Creates a {@link Builder} for building a filter on records of the given schema.
+   *
+   * @param schema the record {@link Schema} of the encoded data
+   * @return a new {@link Builder}
+   */
+  public static Builder builder(Schema schema) {
+    return new Builder(schema);
+  }
+
+  private DatumFilter(Schema schema, RecordNode root) {
+    this.schema = schema;
+    this.root = root;
+  }
+
+  /**
+   * @return the record {@link Schema} that this filter operates on.
+   */
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Evaluates the filter on the record at the current position of the decoder. The whole record is consumed
+   * regardless of the result.
+   *
+   * @param decoder the {@link ByteArrayDecoder} to read from
+   * @return {@code true} if the record satisfies all the predicates
+   * @throws IOException if failed to read from the decoder
+   */
+  public boolean matches(ByteArrayDecoder decoder) throws IOException {
+    return root.evaluate(decoder, schema);
+  }
+
+  /**
+   * Evaluates the filter on the record at the current position of the decoder and decodes the record with the
+   * given {@link DatumReader} only if it matches. The whole record is consumed regardless of the result.
+   *
+   * @param decoder the {@link ByteArrayDecoder} to read from
+   * @param reader the {@link DatumReader} for decoding a matching record
+   * @param <T> type of the decoded record
+   * @return the decoded record or {@code null} if the record doesn't match
+   * @throws IOException if failed to read from the decoder
+   */
+  @Nullable
+  public <T> T read(ByteArrayDecoder decoder, DatumReader<T> reader) throws IOException {
+    int start = decoder.getPosition();
+    if (!matches(decoder)) {
+      return null;
+    }
+    return reader.read(decoder.setPosition(start), schema);
+  }
+
+  /**
+   * Builder for {@link DatumFilter}.
+   */
+  public static final class Builder {
+
+    private final Schema schema;
+    private final ListMultimap<String, Condition> conditions;
+
+    private Builder(Schema schema) {
+      Preconditions.checkArgument(schema.getType() == Schema.Type.RECORD, "Schema must be a record: %s", schema);
+      this.schema = schema;
+      this.conditions = LinkedListMultimap.create();
+    }
+
+    /**
+     * Adds a predicate that the field value is equal to the given value.
+     */
+    public Builder equalTo(String path, Object value) {
+      return in(path, ImmutableList.of(value));
+    }
+
+    /**
+     * Adds a predicate that the field value is equal to one of the given values.
+     */
+    public Builder in(String path, Iterable<?> values) {
+      Preconditions.checkArgument(!Iterables.isEmpty(values), "Values cannot be empty for field %s", path);
+      FieldLiterals fieldLiterals = getLiterals(path);
+      final Object[] literals = new Object[Iterables.size(values)];
+      int i = 0;
+      for (Object value : values) {
+        literals[i++] = fieldLiterals.toLiteral(value);
+      }
+      conditions.put(path, new Condition() {
+        @Override
+        boolean test(LeafNode value) {
+          for (Object literal : literals) {
+            if (value.compareTo(literal) == 0) {
+              return true;
+            }
+          }
+          return false;
+        }
+      });
+      return this;
+    }
+
+    /**
+     * Adds a predicate that the field value is in the given {@link Range}.
+     */
+    public Builder range(String path, Range<?> range) {
+      FieldLiterals literals = getLiterals(path);
+      final Object lower = range.hasLowerBound() ? literals.toLiteral(range.lowerEndpoint()) : null;
+      final boolean lowerInclusive = range.hasLowerBound() && range.lowerBoundType() == BoundType.CLOSED;
+      final Object upper = range.hasUpperBound() ? literals.toLiteral(range.upperEndpoint()) : null;
+      final boolean upperInclusive = range.hasUpperBound() && range.upperBoundType() == BoundType.CLOSED;
+
+      conditions.put(path, new Condition() {
+        @Override
+        boolean test(LeafNode value) {
+          if (lower != null) {
+            int cmp = value.compareTo(lower);
+            if (cmp < 0 || (cmp == 0 && !lowerInclusive)) {
+              return false;
+            }
+          }
+          if (upper != null) {
+            int cmp = value.compareTo(upper);
+            if (cmp > 0 || (cmp == 0 && !upperInclusive)) {
+              return false;
+            }
+          }
+          return true;
+        }
+      });
+      return this;
+    }
+
+    /**
+     * Adds a predicate that the field value is {@code null}.
+     */
+    public Builder isNull(String path) {
+      getLiterals(path);
+      conditions.put(path, new Condition() {
+        @Override
+        boolean test(LeafNode value) {
+          return false;
+        }
+
+        @Override
+        boolean testNull() {
+          return true;
+        }
+      });
+      return this;
+    }
+
+    /**
+     * Adds a predicate that the field value is not {@code null}.
+     */
+    public Builder isNotNull(String path) {
+      getLiterals(path);
+      conditions.put(path, new Condition() {
+        @Override
+        boolean test(LeafNode value) {
+          return true;
+        }
+      });
+      return this;
+    }
+
+    /**
+     * Creates a {@link DatumFilter} with the predicates added to this builder.
+     */
+    public DatumFilter build() {
+      RecordNode root = new RecordNode(schema);
+      for (Map.Entry<String, Collection<Condition>> entry : conditions.asMap().entrySet()) {
+        RecordNode node = root;
+        List<String> names = ImmutableList.copyOf(Splitter.on('.').split(entry.getKey()));
+        for (String name : names.subList(0, names.size() - 1)) {
+          node = (RecordNode) node.getChild(name);
+        }
+        ((LeafNode) node.getChild(names.get(names.size() - 1))).conditions.addAll(entry.getValue());
+      }
+      return new DatumFilter(schema, root);
+    }
+
+    /**
+     * Validates the given field path and returns the {@link FieldLiterals} for the field.
+     */
+    private FieldLiterals getLiterals(String path) {
+      Schema recordSchema = schema;
+      Schema valueSchema = null;
+      for (String name : Splitter.on('.').split(path)) {
+        Preconditions.checkArgument(recordSchema != null, "Field path %s is not referring to a record field", path);
+        Schema.Field field = recordSchema.getField(name);
+        Preconditions.checkArgument(field != null, "Field %s in %s not exists in record %s",
+                                    name, path, recordSchema.getRecordName());
+        valueSchema = getValueSchema(field.getSchema());
+        recordSchema = valueSchema.getType() == Schema.Type.RECORD ? valueSchema : null;
+      }
+      Preconditions.checkArgument(valueSchema.getType().isSimpleType() || valueSchema.getType() == Schema.Type.ENUM,
+                                  "Predicate is only supported on simple or enum type, but field %s is %s",
+                                  path, valueSchema);
+      return new FieldLiterals(valueSchema);
+    }
+  }
+
+  /**
+   * Returns the non-null schema of a field schema, which can be a union of a schema and {@code null}.
+   */
+  private static Schema getValueSchema(Schema schema) {
+    if (schema.getType() != Schema.Type.UNION) {
+      return schema;
+    }
+    Schema valueSchema = null;
+    for (Schema unionSchema : schema.getUnionSchemas()) {
+      if (unionSchema.getType() == Schema.Type.NULL) {
+        continue;
+      }
+      Preconditions.checkArgument(valueSchema == null, "Only union of a schema and null is supported: %s", schema);
+      valueSchema = unionSchema;
+    }
+    Preconditions.checkArgument(valueSchema != null, "Union of null only is not supported: %s", schema);
+    return valueSchema;
+  }
+
+  /**
+   * Converts predicate values into literals that can be compared with the encoded values of a field.
+   */
+  private static final class FieldLiterals {
+
+    private final Schema schema;
+
+    FieldLiterals(Schema schema) {
+      this.schema = schema;
+    }
+
+    Object toLiteral(Object value) {
+      Preconditions.checkArgument(value != null, "Predicate value cannot be null, use isNull instead.");
+      switch (schema.getType()) {
+        case BOOLEAN:
+          Preconditions.checkArgument(value instanceof Boolean, "Expected boolean value, got %s", value);
+          return (Boolean) value ? 1L : 0L;
+        case INT:
+        case LONG:
+          if (value instanceof Character) {
+            return (long) (Character) value;
+          }
+          Preconditions.checkArgument(value instanceof Integer || value instanceof Long
+                                        || value instanceof Short || value instanceof Byte,
+                                      "Expected integral value, got %s", value);
+          return ((Number) value).longValue();
+        case FLOAT:
+          Preconditions.checkArgument(value instanceof Number, "Expected numeric value, got %s", value);
+          return (double) ((Number) value).floatValue();
+        case DOUBLE:
+          Preconditions.checkArgument(value instanceof Number, "Expected numeric value, got %s", value);
+          return ((Number) value).doubleValue();
+        case STRING:
+          Preconditions.checkArgument(value instanceof CharSequence, "Expected string value, got %s", value);
+          return value.toString().getBytes(Charsets.UTF_8);
+        case BYTES:
+          if (value instanceof ByteBuffer) {
+            return Bytes.getBytes((ByteBuffer) value);
+          }
+          Preconditions.checkArgument(value instanceof byte[], "Expected bytes value, got %s", value);
+          return value;
+        case ENUM:
+          String name = value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+          int idx = schema.getEnumIndex(name);
+          Preconditions.checkArgument(idx >= 0, "Value %s is not in enum %s", name, schema);
+          return (long) idx;
+      }
+      throw new IllegalArgumentException("Predicate is not supported for schema " + schema);
+    }
+  }
+
+  /**
+   * A predicate on a field value.
+   */
+  private abstract static class Condition {
+
+    /**
+     * Tests the non-null value stored in the given node.
+     */
+    abstract boolean test(LeafNode value);
+
+    /**
+     * Tests a {@code null} value.
+     */
+    boolean testNull() {
+      return false;
+    }
+  }
+
+  /**
+   * A node in the tree of fields that have predicates.
+   */
+  private abstract static class Node {
+
+    /**
+     * Evaluates the non-null value of the given schema at the current decoder position. The value is consumed.
+     */
+    abstract boolean evaluate(ByteArrayDecoder decoder, Schema schema) throws IOException;
+
+    /**
+     * Evaluates when the value is {@code null}.
+     */
+    abstract boolean evaluateNull();
+  }
+
+  /**
+   * Node for a record, which has child nodes for the fields that have predicates.
+   */
+  private static final class RecordNode extends Node {
+
+    private final Schema schema;
+    private final Node[] children;
+
+    RecordNode(Schema schema) {
+      this.schema = schema;
+      this.children = new Node[schema.getFields().size()];
+    }
+
+    Node getChild(String name) {
+      int i = schema.getFieldIndex(name);
+      if (i < 0) {
+        // Shouldn't happen as the path is validated when adding predicates
+        throw new IllegalArgumentException("Field " + name + " not exists in record " + schema.getRecordName());
+      }
+      if (children[i] == null) {
+        Schema valueSchema = getValueSchema(schema.getFields().get(i).getSchema());
+        children[i] = valueSchema.getType() == Schema.Type.RECORD ? new RecordNode(valueSchema) : new LeafNode();
+      }
+      return children[i];
+    }
+
+    @Override
+    boolean evaluate(ByteArrayDecoder decoder, Schema schema) throws IOException {
+      List<Schema.Field> fields = schema.getFields();
+      boolean result = true;
+      for (int i = 0; i < children.length; i++) {
+        Schema fieldSchema = fields.get(i).getSchema();
+        Node child = children[i];
+        if (!result || child == null) {
+          Decoders.skip(decoder, fieldSchema);
+          continue;
+        }
+
+        Schema valueSchema = fieldSchema;
+        if (fieldSchema.getType() == Schema.Type.UNION) {
+          valueSchema = fieldSchema.getUnionSchema(decoder.readInt());
+        }
+        result = valueSchema.getType() == Schema.Type.NULL ? child.evaluateNull() : child.evaluate(decoder, valueSchema);
+      }
+      return result;
+    }
+
+    @Override
+    boolean evaluateNull() {
+      for (Node child : children) {
+        if (child != null && !child.evaluateNull()) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Node for a field with simple type. The value being evaluated is stored in this node, hence no object is
+   * created when evaluating.
+   */
+  private static final class LeafNode extends Node {
+
+    private final List<Condition> conditions = Lists.newArrayList();
+    private Schema.Type type;
+    private long longValue;
+    private double doubleValue;
+    private byte[] buffer;
+    private int offset;
+    private int length;
+
+    @Override
+    boolean evaluate(ByteArrayDecoder decoder, Schema schema) throws IOException {
+      type = schema.getType();
+      switch (type) {
+        case BOOLEAN:
+          longValue = decoder.readBool() ? 1L : 0L;
+          break;
+        case INT:
+        case ENUM:
+          longValue = decoder.readInt();
+          break;
+        case LONG:
+          longValue = decoder.readLong();
+          break;
+        case FLOAT:
+          doubleValue = decoder.readFloat();
+          break;
+        case DOUBLE:
+          doubleValue = decoder.readDouble();
+          break;
+        case STRING:
+        case BYTES:
+          length = decoder.readLength();
+          buffer = decoder.getBuffer();
+          offset = decoder.getPosition();
+          decoder.skipRaw(length);
+          break;
+        default:
+          throw new IOException("Unsupported schema type for predicate " + type);
+      }
+      for (Condition condition : conditions) {
+        if (!condition.test(this)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    boolean evaluateNull() {
+      for (Condition condition : conditions) {
+        if (!condition.testNull()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Compares the current value with a literal created by {@link FieldLiterals#toLiteral(Object)}.
+     */
+    int compareTo(Object literal) {
+      switch (type) {
+        case FLOAT:
+        case DOUBLE:
+          return Double.compare(doubleValue, (Double) literal);
+        case STRING:
+        case BYTES:
+          byte[] bytes = (byte[]) literal;
+          return Bytes.compareTo(buffer, offset, length, bytes, 0, bytes.length);
+        default:
+          return Longs.compare(longValue, (Long) literal);
+      }
+    }
+  }
+}
@@ -0,0 +1,452 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+import io.cdap.common.ContentProvider;
+import io.cdap.common.io.ByteArrayDecoder;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * A publisher of datums decoded from a stream of length-delimited encoded datums, with backpressure.
+ * Each datum in the stream is prefixed with its encoded length as a variable length integer, which is the same as
+ * writing the encoded datum with {@link io.cdap.common.io.Encoder#writeBytes(byte[])}.
+ * <p>
+ * The {@link Subscriber} and {@link Subscription} interfaces follow the same contract as the ones in
+ * {@code java.util.concurrent.Flow} and Reactive Streams, hence adapting to those is straightforward.
+ * </p>
+ * <p>
+ * For each subscription, the encoded datums are read in a task submitted to the I/O executor, which reads ahead up
+ * to a configured number of datums. Datums are decoded and delivered to the subscriber only when requested, either
+ * in the decode executor if one is provided, or in the thread that either requested or read the datum otherwise.
+ * Reading stops when the read ahead buffer is full, and datums larger than the configured maximum size are rejected,
+ * hence memory usage is bounded.
+ * </p>
+ *
+ * @param <T> type of the decoded datum
+ */
+public final class DatumPublisher<T> {
+
+  /**
+   * Receiver of datums from a {@link DatumPublisher}.
+   *
+   * @param <T> type of the datum
+   */
+  public interface Subscriber<T> {
+
+    /**
+     * Called once before any other method, with the {@link Subscription} for requesting datums.
+     */
+    void onSubscribe(Subscription subscription);
+
+    /**
+     * Called with the next datum, up to the number requested.
+     */
+    void onNext(T item);
+
+    /**
+     * Called when there is a failure. No further method will be called.
+     */
+    void onError(Throwable throwable);
+
+    /**
+     * Called when all datums are delivered. No further method will be called.
+     */
+    void onComplete();
+  }
+
+  /**
+   * Controls the flow of datums to a {@link Subscriber}.
+   */
+  public interface Subscription {
+
+    /**
+     * Requests the given number of additional datums. A non-positive number results in
+     * an {@link IllegalArgumentException} delivered to {@link Subscriber#onError(Throwable)}.
+     */
+    void request(long n);
+
+    /**
+     * Stops delivering datums and releases resources.
+     */
+    void cancel();
+  }
+
+  private final Schema schema;
+  private final DatumReader<T> reader;
+  private final ContentProvider<? extends InputStream> input;
+  private final Executor executor;
+  private final Executor decodeExecutor;
+  private final int readAhead;
+  private final int maxDatumSize;
+
+  /**
+   * Creates a {@link Builder} for building a {@link DatumPublisher}.
+   *
+   * @param schema {@link Schema} of the encoded datums
+   * @param reader the {@link DatumReader} for decoding datums
+   * @param <T> type of the decoded datum
+   * @return a new {@link Builder}
+   */
+  public static <T> Builder<T> builder(Schema schema, DatumReader<T> reader) {
+    return new Builder<T>(schema, reader);
+  }
+
+  private DatumPublisher(Schema schema, DatumReader<T> reader, ContentProvider<? extends InputStream> input,
+                         Executor executor, @Nullable Executor decodeExecutor, int readAhead, int maxDatumSize) {
+    this.schema = schema;
+    this.reader = reader;
+    this.input = input;
+    this.executor = executor;
+    this.decodeExecutor = decodeExecutor;
+    this.readAhead = readAhead;
+    this.maxDatumSize = maxDatumSize;
+  }
+
+  /**
+   * Subscribes to this publisher. Each subscription reads from a new input of the {@link ContentProvider}.
+   * For publisher created from {@link InputStream} or {@link ReadableByteChannel}, only the first subscription
+   * can read, and subsequent ones will fail.
+   */
+  public void subscribe(Subscriber<? super T> subscriber) {
+    final DatumSubscription subscription = new DatumSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        subscription.readAll();
+      }
+    });
+  }
+
+  /**
+   * Builder for {@link DatumPublisher}.
+   *
+   * @param <T> type of the decoded datum
+   */
+  public static final class Builder<T> {
+
+    private final Schema schema;
+    private final DatumReader<T> reader;
+    private Executor executor;
+    private Executor decodeExecutor;
+    private int readAhead = 16;
+    private int maxDatumSize = 64 * 1024 * 1024;
+
+    private Builder(Schema schema, DatumReader<T> reader) {
+      this.schema = schema;
+      this.reader = reader;
+    }
+
+    /**
+     * Sets the {@link Executor} for reading the input. By default, a new thread is created for each subscription.
+     */
+    public Builder<T> setExecutor(Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Sets the {@link Executor} for decoding datums and calling the {@link Subscriber}. By default, datums are
+     * decoded and delivered in either the reading thread or the thread that calls {@link Subscription#request(long)}.
+     */
+    public Builder<T> setDecodeExecutor(@Nullable Executor decodeExecutor) {
+      this.decodeExecutor = decodeExecutor;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of encoded datums to be read ahead of the requests. Default is {@code 16}.
+     */
+    public Builder<T> setReadAhead(int readAhead) {
+      Preconditions.checkArgument(readAhead > 0, "Read ahead must be positive: %s", readAhead);
+      this.readAhead = readAhead;
+      return this;
+    }
+
+    /**
+     * Sets the maximum size in bytes of an encoded datum. A larger datum length in the input is treated as corrupted
+     * input and fails the subscription. Default is {@code 64MB}.
+     */
+    public Builder<T> setMaxDatumSize(int maxDatumSize) {
+      Preconditions.checkArgument(maxDatumSize > 0, "Max datum size must be positive: %s", maxDatumSize);
+      this.maxDatumSize = maxDatumSize;
+      return this;
+    }
+
+    /**
+     * Builds a {@link DatumPublisher} that reads from new inputs provided by the given {@link ContentProvider}.
+     */
+    public DatumPublisher<T> build(ContentProvider<? extends InputStream> input) {
+      Executor executor = this.executor;
+      if (executor == null) {
+        executor = new Executor() {
+          @Override
+          public void execute(Runnable command) {
+            Thread thread = new Thread(command, "datum-publisher");
+            thread.setDaemon(true);
+            thread.start();
+          }
+        };
+      }
+      return new DatumPublisher<T>(schema, reader, input, executor, decodeExecutor, readAhead, maxDatumSize);
+    }
+
+    /**
+     * Builds a {@link DatumPublisher} that reads from the given {@link InputStream}.
+     */
+    public DatumPublisher<T> build(final InputStream input) {
+      final AtomicBoolean consumed = new AtomicBoolean();
+      return build(new ContentProvider<InputStream>() {
+        @Override
+        public InputStream getInput() throws IOException {
+          if (!consumed.compareAndSet(false, true)) {
+            throw new IOException("Input stream is already consumed by another subscription");
+          }
+          return input;
+        }
+      });
+    }
+
+    /**
+     * Builds a {@link DatumPublisher} that reads from the given {@link ReadableByteChannel}.
+     */
+    public DatumPublisher<T> build(ReadableByteChannel channel) {
+      return build(Channels.newInputStream(channel));
+    }
+  }
+
+  /**
+   * The {@link Subscription} for one {@link Subscriber}. The input is read into a bounded queue, which is drained
+   * by at most one thread at a time for decoding and delivering to the subscriber.
+   */
+  private final class DatumSubscription implements Subscription {
+
+    private final Subscriber<? super T> subscriber;
+    private final BlockingQueue<byte[]> queue;
+    private final AtomicLong requested;
+    private final AtomicInteger pendingDrains;
+    private final ByteArrayDecoder decoder;
+    private final Runnable drainTask;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private volatile Throwable failure;
+    private volatile Throwable requestFailure;
+    private volatile InputStream inputStream;
+
+    DatumSubscription(Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+      this.queue = new ArrayBlockingQueue<byte[]>(readAhead);
+      this.requested = new AtomicLong();
+      this.pendingDrains = new AtomicInteger();
+      this.decoder = new ByteArrayDecoder(new byte[0]);
+      this.drainTask = new Runnable() {
+        @Override
+        public void run() {
+          drain();
+        }
+      };
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        requestFailure = new IllegalArgumentException("Number of requested datums must be positive: " + n);
+      } else {
+        long current;
+        long next;
+        do {
+          current = requested.get();
+          next = current + n < 0 ? Long.MAX_VALUE : current + n;
+        } while (!requested.compareAndSet(current, next));
+      }
+      scheduleDrain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      closeInput();
+      queue.clear();
+    }
+
+    /**
+     * Reads encoded datums from the input until the end of the input or the subscription is cancelled.
+     */
+    void readAll() {
+      try {
+        InputStream is = input.getInput();
+        inputStream = is instanceof BufferedInputStream ? is : new BufferedInputStream(is);
+        if (cancelled) {
+          closeInput();
+          return;
+        }
+        int length = readLength(inputStream, maxDatumSize);
+        while (length >= 0 && !cancelled) {
+          byte[] bytes = new byte[length];
+          ByteStreams.readFully(inputStream, bytes);
+          queue.put(bytes);
+          scheduleDrain();
+          length = readLength(inputStream, maxDatumSize);
+        }
+      } catch (Throwable t) {
+        if (!cancelled) {
+          failure = t;
+        }
+      } finally {
+        closeInput();
+        done = true;
+        scheduleDrain();
+      }
+    }
+
+    private void scheduleDrain() {
+      if (pendingDrains.getAndIncrement() != 0) {
+        return;
+      }
+      if (decodeExecutor == null) {
+        drain();
+      } else {
+        decodeExecutor.execute(drainTask);
+      }
+    }
+
+    /**
+     * Decodes and delivers datums up to the number requested. Only one thread can be in this method at a time,
+     * which is guaranteed by the {@link #pendingDrains} counter.
+     */
+    private void drain() {
+      int missed = 1;
+      do {
+        long limit = requested.get();
+        long emitted = 0;
+        while (true) {
+          if (cancelled) {
+            queue.clear();
+            return;
+          }
+          if (requestFailure != null) {
+            terminate(requestFailure);
+            return;
+          }
+          boolean finished = done;
+          if (emitted == limit) {
+            if (finished && queue.isEmpty()) {
+              terminate(failure);
+              return;
+            }
+            break;
+          }
+          byte[] bytes = queue.poll();
+          if (bytes == null) {
+            if (finished) {
+              terminate(failure);
+              return;
+            }
+            break;
+          }
+
+          T datum;
+          try {
+            datum = reader.read(decoder.reset(bytes, 0, bytes.length), schema);
+          } catch (Throwable t) {
+            terminate(t);
+            return;
+          }
+          try {
+            subscriber.onNext(datum);
+          } catch (Throwable t) {
+            // The subscriber violated the contract by throwing, hence consider the subscription as cancelled
+            terminate(t);
+            return;
+          }
+          emitted++;
+        }
+
+        if (emitted > 0 && limit != Long.MAX_VALUE) {
+          requested.addAndGet(-emitted);
+        }
+        missed = pendingDrains.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void terminate(@Nullable Throwable t) {
+      cancel();
+      if (t == null) {
+        subscriber.onComplete();
+      } else {
+        subscriber.onError(t);
+      }
+    }
+
+    private void closeInput() {
+      InputStream is = inputStream;
+      if (is != null) {
+        Closeables.closeQuietly(is);
+      }
+    }
+  }
+
+  /**
+   * Reads the length prefix of the next datum.
+   *
+   * @param is the input to read from
+   * @param maxLength the maximum length allowed
+   * @return the length or {@code -1} if reached the end of the input
+   * @throws IOException if failed to read or the length is invalid
+   */
+  private static int readLength(InputStream is, int maxLength) throws IOException {
+    int b = is.read();
+    if (b < 0) {
+      return -1;
+    }
+    int val = 0;
+    int shift = 0;
+    while (b > 0x7f) {
+      val ^= (b & 0x7f) << shift;
+      shift += 7;
+      if (shift > 28) {
+        throw new IOException("Invalid datum length encoding");
+      }
+      b = is.read();
+      if (b < 0) {
+        throw new EOFException("Unexpected end of input when reading datum length");
+      }
+    }
+    val ^= b << shift;
+    int length = (val >>> 1) ^ -(val & 1);
+    if (length < 0 || length > maxLength) {
+      throw new IOException("Invalid datum length " + length + ", maximum is " + maxLength);
+    }
+    return length;
+  }
+}
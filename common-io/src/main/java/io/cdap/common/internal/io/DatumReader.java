@@ -18,6 +18,7 @@ package io.cdap.common.internal.io;
 import io.cdap.common.io.Decoder;
 
 import java.io.IOException;
+import javax.annotation.Nullable;
 
 /**
  * Represents reader for decoding object.
@@ -27,4 +28,19 @@ import java.io.IOException;
 public interface DatumReader<T> {
 
   T read(Decoder decoder, Schema sourceSchema) throws IOException;
+
+  /**
+   * Reads an object from the given {@link Decoder}, reusing the given instance when possible. Implementations
+   * can fill the given object in place instead of creating a new one. The default implementation ignores the
+   * reuse object and is the same as calling {@link #read(Decoder, Schema)}.
+   *
+   * @param decoder the {@link Decoder} to read from
+   * @param sourceSchema the {@link Schema} that the data was encoded with
+   * @param reuse an object to be reused, or {@code null} to always create a new object
+   * @return the object read, which may or may not be the same instance as {@code reuse}
+   * @throws IOException if failed to read
+   */
+  default T read(Decoder decoder, Schema sourceSchema, @Nullable T reuse) throws IOException {
+    return read(decoder, sourceSchema);
+  }
 }
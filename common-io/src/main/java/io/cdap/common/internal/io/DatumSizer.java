@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import io.cdap.common.io.CountingEncoder;
+
+import java.io.IOException;
+
+/**
+ * Computes the exact number of bytes of a datum encoded by {@link io.cdap.common.io.BinaryEncoder}, without
+ * actually encoding it. It drives the given {@link DatumWriter}, which can either be a
+ * {@link ReflectionDatumWriter} or one created by {@link ASMDatumWriterFactory}, with a {@link CountingEncoder}.
+ * <p>
+ * The size can be used to allocate the output buffer exactly once, or to send the encoded datum with
+ * a known content length.
+ * </p>
+ *
+ * @param <T> Type of the datum
+ */
+public final class DatumSizer<T> {
+
+  private final DatumWriter<T> writer;
+
+  public DatumSizer(DatumWriter<T> writer) {
+    this.writer = writer;
+  }
+
+  /**
+   * Returns the encoded size of the given datum.
+   *
+   * @param datum the datum to compute the size for
+   * @return number of bytes of the encoded datum
+   * @throws IOException if the datum cannot be encoded by the writer
+   */
+  public long sizeOf(T datum) throws IOException {
+    CountingEncoder encoder = new CountingEncoder();
+    writer.encode(datum, encoder);
+    return encoder.getCount();
+  }
+}
@@ -0,0 +1,488 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import io.cdap.common.io.ByteArrayDecoder;
+import io.cdap.common.io.Encoder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Converts datum encoded with a source {@link Schema} into the encoding of a compatible target schema, directly
+ * from bytes to bytes without materializing the datum into objects. The resolution rules are the same as
+ * {@link GenericDatumReader} and {@link ReflectionDatumReader}:
+ * <ul>
+ *   <li>record fields are matched by name and written in the target field order. Source fields not in the
+ *       target are skipped. Target fields not in the source must be nullable and are written as {@code null}</li>
+ *   <li>numeric values are widened and simple values are converted to string as needed</li>
+ *   <li>enum values are remapped by name and union branches are remapped to the matching target branch</li>
+ *   <li>{@code bytes} and {@code string} values are copied verbatim from the source bytes</li>
+ * </ul>
+ * <p>
+ * The conversion plan for the pair of schemas is computed once when the transcoder is created, hence a single
+ * instance should be reused for all datum of the same schemas. Instances are thread safe.
+ * </p>
+ */
+@ThreadSafe
+public final class DatumTranscoder {
+
+  private final Schema sourceSchema;
+  private final Schema targetSchema;
+  private final Plan plan;
+
+  /**
+   * Creates a transcoder from the given source schema to the given target schema.
+   *
+   * @param sourceSchema {@link Schema} of the encoded datum
+   * @param targetSchema {@link Schema} to encode the datum with
+   * @throws IllegalArgumentException if the source schema is not compatible with the target schema, or if a
+   *                                  target record field is not in the source and is not nullable.
+   */
+  public DatumTranscoder(Schema sourceSchema, Schema targetSchema) {
+    Preconditions.checkArgument(sourceSchema.isCompatible(targetSchema),
+                                "Schema %s is not compatible with %s", sourceSchema, targetSchema);
+    this.sourceSchema = sourceSchema;
+    this.targetSchema = targetSchema;
+    this.plan = createPlan(sourceSchema, targetSchema, HashBasedTable.<Schema, Schema, RecordPlan>create());
+  }
+
+  public Schema getSourceSchema() {
+    return sourceSchema;
+  }
+
+  public Schema getTargetSchema() {
+    return targetSchema;
+  }
+
+  /**
+   * Reads a datum of the source schema from the decoder and writes it with the target schema to the encoder.
+   *
+   * @param decoder the {@link ByteArrayDecoder} to read from
+   * @param encoder the {@link Encoder} to write to
+   * @throws IOException if failed to decode or encode, or if a value cannot be resolved to the target schema,
+   *                     such as an enum value or a union branch that doesn't exist in the target.
+   */
+  public void transcode(ByteArrayDecoder decoder, Encoder encoder) throws IOException {
+    plan.transcode(decoder, encoder);
+  }
+
+  private static Plan createPlan(Schema source, Schema target, Table<Schema, Schema, RecordPlan> recordPlans) {
+    if (source.getType() == Schema.Type.UNION) {
+      List<Schema> branches = source.getUnionSchemas();
+      Plan[] plans = new Plan[branches.size()];
+      for (int i = 0; i < plans.length; i++) {
+        // A branch that cannot be resolved only fails if a value of it is encountered
+        if (isResolvable(branches.get(i), target)) {
+          plans[i] = createPlan(branches.get(i), target, recordPlans);
+        }
+      }
+      return new SourceUnionPlan(source, target, plans);
+    }
+    if (target.getType() == Schema.Type.UNION) {
+      int branch = getUnionBranch(source, target);
+      return new TargetUnionPlan(branch, createPlan(source, target.getUnionSchema(branch), recordPlans));
+    }
+
+    switch (source.getType()) {
+      case ENUM:
+        return new EnumPlan(source, EnumTables.createIndexTable(source, target));
+      case ARRAY:
+        return new ArrayPlan(createPlan(source.getComponentSchema(), target.getComponentSchema(), recordPlans));
+      case MAP: {
+        Map.Entry<Schema, Schema> sourceMap = source.getMapSchema();
+        Map.Entry<Schema, Schema> targetMap = target.getMapSchema();
+        return new MapPlan(createPlan(sourceMap.getKey(), targetMap.getKey(), recordPlans),
+                           createPlan(sourceMap.getValue(), targetMap.getValue(), recordPlans));
+      }
+      case RECORD: {
+        RecordPlan recordPlan = recordPlans.get(source, target);
+        if (recordPlan == null) {
+          // Register before resolving the fields to support recursive records
+          recordPlan = new RecordPlan(source);
+          recordPlans.put(source, target, recordPlan);
+          recordPlan.init(source, target, recordPlans);
+        }
+        return recordPlan;
+      }
+      default:
+        return new SimplePlan(source.getType(), target.getType());
+    }
+  }
+
+  /**
+   * Checks if a value of the given non-union source schema can be written with the target schema. For a target union,
+   * the source is checked against each of the target union schemas, the same as {@link #getUnionBranch}.
+   */
+  private static boolean isResolvable(Schema source, Schema target) {
+    if (target.getType() != Schema.Type.UNION) {
+      return source.isCompatible(target);
+    }
+    for (Schema branch : target.getUnionSchemas()) {
+      if (source.isCompatible(branch)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the index of the branch in the target union schema for writing value of the given source schema.
+   * A branch with the same schema is preferred over a compatible one.
+   */
+  private static int getUnionBranch(Schema source, Schema target) {
+    List<Schema> branches = target.getUnionSchemas();
+    for (int i = 0; i < branches.size(); i++) {
+      if (source.equals(branches.get(i))) {
+        return i;
+      }
+    }
+    for (int i = 0; i < branches.size(); i++) {
+      if (source.isCompatible(branches.get(i))) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException(String.format("No matching schema to resolve %s to %s", source, target));
+  }
+
+  /**
+   * Conversion of a value from a source schema to a target schema.
+   */
+  private abstract static class Plan {
+    abstract void transcode(ByteArrayDecoder decoder, Encoder encoder) throws IOException;
+  }
+
+  /**
+   * Plan for simple types, with numeric widening and conversion to string.
+   */
+  private static final class SimplePlan extends Plan {
+    private final Schema.Type sourceType;
+    private final Schema.Type targetType;
+
+    SimplePlan(Schema.Type sourceType, Schema.Type targetType) {
+      this.sourceType = sourceType;
+      this.targetType = targetType;
+    }
+
+    @Override
+    void transcode(ByteArrayDecoder decoder, Encoder encoder) throws IOException {
+      switch (sourceType) {
+        case NULL:
+          encoder.writeNull();
+          break;
+        case BOOLEAN:
+          boolean b = decoder.readBool();
+          if (targetType == Schema.Type.STRING) {
+            encoder.writeString(String.valueOf(b));
+          } else {
+            encoder.writeBool(b);
+          }
+          break;
+        case INT:
+          writeNumber(decoder.readInt(), encoder);
+          break;
+        case LONG:
+          writeNumber(decoder.readLong(), encoder);
+          break;
+        case FLOAT:
+          writeNumber(decoder.readFloat(), encoder);
+          break;
+        case DOUBLE:
+          writeNumber(decoder.readDouble(), encoder);
+          break;
+        case BYTES:
+        case STRING:
+          // Both are encoded as length followed by the raw bytes, hence can be copied without decoding
+          int len = decoder.readLength();
+          encoder.writeBytes(decoder.getBuffer(), decoder.getPosition(), len);
+          decoder.skipRaw(len);
+          break;
+      }
+    }
+
+    private void writeNumber(int value, Encoder encoder) throws IOException {
+      if (targetType == Schema.Type.INT) {
+        encoder.writeInt(value);
+      } else {
+        writeNumber((long) value, encoder);
+      }
+    }
+
+    private void writeNumber(long value, Encoder encoder) throws IOException {
+      switch (targetType) {
+        case LONG:
+          encoder.writeLong(value);
+          break;
+        case FLOAT:
+          encoder.writeFloat(value);
+          break;
+        case DOUBLE:
+          encoder.writeDouble(value);
+          break;
+        default:
+          // Write the value as the source type in string form
+          encoder.writeString(sourceType == Schema.Type.INT ? String.valueOf((int) value) : String.valueOf(value));
+      }
+    }
+
+    private void writeNumber(float value, Encoder encoder) throws IOException {
+      switch (targetType) {
+        case FLOAT:
+          encoder.writeFloat(value);
+          break;
+        case DOUBLE:
+          encoder.writeDouble(value);
+          break;
+        default:
+          encoder.writeString(String.valueOf(value));
+      }
+    }
+
+    private void writeNumber(double value, Encoder encoder) throws IOException {
+      if (targetType == Schema.Type.DOUBLE) {
+        encoder.writeDouble(value);
+      } else {
+        encoder.writeString(String.valueOf(value));
+      }
+    }
+  }
+
+  /**
+   * Plan for enum, which maps the source enum index to the target enum index.
+   */
+  private static final class EnumPlan extends Plan {
+    private final Schema sourceSchema;
+    private final int[] indexes;
+
+    EnumPlan(Schema sourceSchema, int[] indexes) {
+      this.sourceSchema = sourceSchema;
+      this.indexes = indexes;
+    }
+
+    @Override
+    void transcode(ByteArrayDecoder decoder, Encoder encoder) throws IOException {
+      int idx = decoder.readInt();
+      if (idx < 0 || idx >= indexes.length) {
+        throw new IOException(String.format("Enum index %d out of range for %s.", idx, sourceSchema));
+      }
+      int targetIdx = indexes[idx];
+      if (targetIdx < 0) {
+        throw new IOException(String.format("Enum value '%s' missing in target.", sourceSchema.getEnumValue(idx)));
+      }
+      encoder.writeInt(targetIdx);
+    }
+  }
+
+  /**
+   * Plan for array. The array is written with the same blocks as it is read.
+   */
+  private static final class ArrayPlan extends Plan {
+    private final Plan componentPlan;
+
+    ArrayPlan(Plan componentPlan) {
+      this.componentPlan = componentPlan;
+    }
+
+    @Override
+    void transcode(ByteArrayDecoder decoder, Encoder encoder) throws IOException {
+      int len = decoder.readInt();
+      while (len != 0) {
+        encoder.writeInt(len);
+        for (int i = 0; i < len; i++) {
+          componentPlan.transcode(decoder, encoder);
+        }
+        len = decoder.readInt();
+      }
+      encoder.writeInt(0);
+    }
+  }
+
+  /**
+   * Plan for map. The map is written with the same blocks as it is read.
+   */
+  private static final class MapPlan extends Plan {
+    private final Plan keyPlan;
+    private final Plan valuePlan;
+
+    MapPlan(Plan keyPlan, Plan valuePlan) {
+      this.keyPlan = keyPlan;
+      this.valuePlan = valuePlan;
+    }
+
+    @Override
+    void transcode(ByteArrayDecoder decoder, Encoder encoder) throws IOException {
+      int len = decoder.readInt();
+      while (len != 0) {
+        encoder.writeInt(len);
+        for (int i = 0; i < len; i++) {
+          keyPlan.transcode(decoder, encoder);
+          valuePlan.transcode(decoder, encoder);
+        }
+        len = decoder.readInt();
+      }
+      encoder.writeInt(0);
+    }
+  }
+
+  /**
+   * Plan for record. Fields are written in the target field order. If the common fields are in the same order in
+   * both schemas, the source is read in a single pass. Otherwise, the start positions of the source fields are
+   * located first, and the fields are read out of order from those positions.
+   */
+  private static final class RecordPlan extends Plan {
+    private final Schema[] sourceFieldSchemas;
+    // Source field position of each target field, or -1 if the field is not in the source
+    private int[] sourcePositions;
+    // Plan for each target field that is in the source
+    private Plan[] fieldPlans;
+    // Index of the null branch of each target field that is not in the source
+    private int[] nullBranches;
+    private boolean ordered;
+
+    RecordPlan(Schema source) {
+      List<Schema.Field> fields = source.getFields();
+      this.sourceFieldSchemas = new Schema[fields.size()];
+      for (int i = 0; i < sourceFieldSchemas.length; i++) {
+        sourceFieldSchemas[i] = fields.get(i).getSchema();
+      }
+    }
+
+    void init(Schema source, Schema target, Table<Schema, Schema, RecordPlan> recordPlans) {
+      List<Schema.Field> targetFields = target.getFields();
+      int[] positions = target.getFieldMapping(source);
+      Plan[] plans = new Plan[positions.length];
+      int[] branches = new int[positions.length];
+      boolean inOrder = true;
+      int last = -1;
+
+      for (int i = 0; i < positions.length; i++) {
+        Schema.Field field = targetFields.get(i);
+        int position = positions[i];
+        if (position < 0) {
+          branches[i] = field.getSchema().getType() == Schema.Type.UNION
+            ? UnionBranchResolver.findNullBranch(field.getSchema()) : -1;
+          Preconditions.checkArgument(branches[i] >= 0,
+                                      "Field %s in record %s is not in the source and is not nullable.",
+                                      field.getName(), target.getRecordName());
+          continue;
+        }
+        plans[i] = createPlan(sourceFieldSchemas[position], field.getSchema(), recordPlans);
+        inOrder = inOrder && position > last;
+        last = position;
+      }
+
+      this.sourcePositions = positions;
+      this.fieldPlans = plans;
+      this.nullBranches = branches;
+      this.ordered = inOrder;
+    }
+
+    @Override
+    void transcode(ByteArrayDecoder decoder, Encoder encoder) throws IOException {
+      if (ordered) {
+        transcodeOrdered(decoder, encoder);
+        return;
+      }
+
+      int[] starts = new int[sourceFieldSchemas.length];
+      for (int i = 0; i < starts.length; i++) {
+        starts[i] = decoder.getPosition();
+        Decoders.skip(decoder, sourceFieldSchemas[i]);
+      }
+      int end = decoder.getPosition();
+
+      for (int i = 0; i < sourcePositions.length; i++) {
+        int position = sourcePositions[i];
+        if (position < 0) {
+          encoder.writeInt(nullBranches[i]).writeNull();
+        } else {
+          decoder.setPosition(starts[position]);
+          fieldPlans[i].transcode(decoder, encoder);
+        }
+      }
+      decoder.setPosition(end);
+    }
+
+    private void transcodeOrdered(ByteArrayDecoder decoder, Encoder encoder) throws IOException {
+      int next = 0;
+      for (int i = 0; i < sourcePositions.length; i++) {
+        int position = sourcePositions[i];
+        if (position < 0) {
+          encoder.writeInt(nullBranches[i]).writeNull();
+          continue;
+        }
+        for (; next < position; next++) {
+          Decoders.skip(decoder, sourceFieldSchemas[next]);
+        }
+        fieldPlans[i].transcode(decoder, encoder);
+        next++;
+      }
+      for (; next < sourceFieldSchemas.length; next++) {
+        Decoders.skip(decoder, sourceFieldSchemas[next]);
+      }
+    }
+  }
+
+  /**
+   * Plan for a source union, which resolves each of the source branches separately.
+   */
+  private static final class SourceUnionPlan extends Plan {
+    private final Schema sourceSchema;
+    private final Schema targetSchema;
+    private final Plan[] branchPlans;
+
+    SourceUnionPlan(Schema sourceSchema, Schema targetSchema, Plan[] branchPlans) {
+      this.sourceSchema = sourceSchema;
+      this.targetSchema = targetSchema;
+      this.branchPlans = branchPlans;
+    }
+
+    @Override
+    void transcode(ByteArrayDecoder decoder, Encoder encoder) throws IOException {
+      int idx = decoder.readInt();
+      Plan branchPlan = idx >= 0 && idx < branchPlans.length ? branchPlans[idx] : null;
+      if (branchPlan == null) {
+        throw new IOException(String.format("Fails to resolve branch %d of %s to %s", idx, sourceSchema, targetSchema));
+      }
+      branchPlan.transcode(decoder, encoder);
+    }
+  }
+
+  /**
+   * Plan for writing a non-union source value to a branch of the target union.
+   */
+  private static final class TargetUnionPlan extends Plan {
+    private final int branch;
+    private final Plan branchPlan;
+
+    TargetUnionPlan(int branch, Plan branchPlan) {
+      this.branch = branch;
+      this.branchPlan = branchPlan;
+    }
+
+    @Override
+    void transcode(ByteArrayDecoder decoder, Encoder encoder) throws IOException {
+      encoder.writeInt(branch);
+      branchPlan.transcode(decoder, encoder);
+    }
+  }
+}
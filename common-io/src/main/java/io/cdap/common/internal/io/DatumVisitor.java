@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Visitor for walking through an encoded datum with {@link DatumWalker}, without decoding it into objects.
+ * Callbacks are called in the same order as the values appear in the encoded data. Methods that start a
+ * compound value can return {@code false} to have the value skipped, in which case no callback will be called for
+ * the value, including the matching end callback.
+ * <p>
+ * All methods have a default implementation that does nothing and visits everything, hence implementations only
+ * need to override the callbacks they are interested in.
+ * </p>
+ */
+public interface DatumVisitor {
+
+  /**
+   * Called when starting a record.
+   *
+   * @param schema the record {@link Schema}
+   * @return {@code true} to visit the record fields, {@code false} to skip the record
+   */
+  default boolean startRecord(Schema schema) {
+    return true;
+  }
+
+  /**
+   * Called before visiting a record field value.
+   *
+   * @param field the record field
+   * @param position position of the field in the record schema
+   * @return {@code true} to visit the field value, {@code false} to skip it
+   */
+  default boolean visitField(Schema.Field field, int position) {
+    return true;
+  }
+
+  /**
+   * Called when all fields of a record are visited.
+   *
+   * @param schema the record {@link Schema}
+   */
+  default void endRecord(Schema schema) {
+    // No-op
+  }
+
+  /**
+   * Called when starting an array.
+   *
+   * @param schema the array {@link Schema}
+   * @return {@code true} to visit the array elements, {@code false} to skip the array
+   */
+  default boolean startArray(Schema schema) {
+    return true;
+  }
+
+  /**
+   * Called when all elements of an array are visited.
+   *
+   * @param schema the array {@link Schema}
+   */
+  default void endArray(Schema schema) {
+    // No-op
+  }
+
+  /**
+   * Called when starting a map. For each entry of the map, the key is visited followed by the value.
+   *
+   * @param schema the map {@link Schema}
+   * @return {@code true} to visit the map entries, {@code false} to skip the map
+   */
+  default boolean startMap(Schema schema) {
+    return true;
+  }
+
+  /**
+   * Called when all entries of a map are visited.
+   *
+   * @param schema the map {@link Schema}
+   */
+  default void endMap(Schema schema) {
+    // No-op
+  }
+
+  /**
+   * Called before visiting the value of a union.
+   *
+   * @param schema the union {@link Schema}
+   * @param index index of the union branch of the value
+   */
+  default void visitUnionBranch(Schema schema, int index) {
+    // No-op
+  }
+
+  default void visitNull() {
+    // No-op
+  }
+
+  default void visitBoolean(boolean value) {
+    // No-op
+  }
+
+  default void visitInt(int value) {
+    // No-op
+  }
+
+  default void visitLong(long value) {
+    // No-op
+  }
+
+  default void visitFloat(float value) {
+    // No-op
+  }
+
+  default void visitDouble(double value) {
+    // No-op
+  }
+
+  /**
+   * Called for a string value.
+   *
+   * @param utf8 the UTF-8 encoded string. It is only valid during this call,
+   *             as it can be a view on the buffer being decoded.
+   */
+  default void visitString(ByteBuffer utf8) {
+    // No-op
+  }
+
+  /**
+   * Called for a bytes value.
+   *
+   * @param bytes the bytes value. It is only valid during this call, as it can be a view on the buffer being decoded.
+   */
+  default void visitBytes(ByteBuffer bytes) {
+    // No-op
+  }
+
+  /**
+   * Called for an enum value.
+   *
+   * @param schema the enum {@link Schema}
+   * @param index the index of the value in the enum schema
+   */
+  default void visitEnum(Schema schema, int index) {
+    // No-op
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import io.cdap.common.io.Decoder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Walks through an encoded datum according to its {@link Schema} and fires callbacks to a {@link DatumVisitor}.
+ * Values that the visitor chooses not to visit are skipped with {@link Decoders#skip(Decoder, Schema)}.
+ * <p>
+ * When used with {@link io.cdap.common.io.ByteArrayDecoder}, string and bytes values are passed as views on the
+ * underlying array, hence no copy of the data is made.
+ * </p>
+ */
+public final class DatumWalker {
+
+  /**
+   * Walks through one datum of the given schema from the decoder.
+   *
+   * @param decoder the {@link Decoder} to read from
+   * @param schema {@link Schema} of the encoded datum
+   * @param visitor the {@link DatumVisitor} to receive callbacks
+   * @throws IOException if failed to read from the decoder
+   */
+  public static void walk(Decoder decoder, Schema schema, DatumVisitor visitor) throws IOException {
+    switch (schema.getType()) {
+      case NULL:
+        decoder.readNull();
+        visitor.visitNull();
+        break;
+      case BOOLEAN:
+        visitor.visitBoolean(decoder.readBool());
+        break;
+      case INT:
+        visitor.visitInt(decoder.readInt());
+        break;
+      case LONG:
+        visitor.visitLong(decoder.readLong());
+        break;
+      case FLOAT:
+        visitor.visitFloat(decoder.readFloat());
+        break;
+      case DOUBLE:
+        visitor.visitDouble(decoder.readDouble());
+        break;
+      case BYTES:
+        visitor.visitBytes(decoder.readBytes());
+        break;
+      case STRING:
+        // String is encoded the same way as bytes
+        visitor.visitString(decoder.readBytes());
+        break;
+      case ENUM:
+        visitor.visitEnum(schema, decoder.readInt());
+        break;
+      case ARRAY:
+        walkArray(decoder, schema, visitor);
+        break;
+      case MAP:
+        walkMap(decoder, schema, visitor);
+        break;
+      case RECORD:
+        walkRecord(decoder, schema, visitor);
+        break;
+      case UNION:
+        int idx = decoder.readInt();
+        visitor.visitUnionBranch(schema, idx);
+        walk(decoder, schema.getUnionSchema(idx), visitor);
+        break;
+    }
+  }
+
+  private static void walkArray(Decoder decoder, Schema schema, DatumVisitor visitor) throws IOException {
+    if (!visitor.startArray(schema)) {
+      Decoders.skip(decoder, schema);
+      return;
+    }
+    Schema componentSchema = schema.getComponentSchema();
+    int len = decoder.readInt();
+    while (len != 0) {
+      for (int i = 0; i < len; i++) {
+        walk(decoder, componentSchema, visitor);
+      }
+      len = decoder.readInt();
+    }
+    visitor.endArray(schema);
+  }
+
+  private static void walkMap(Decoder decoder, Schema schema, DatumVisitor visitor) throws IOException {
+    if (!visitor.startMap(schema)) {
+      Decoders.skip(decoder, schema);
+      return;
+    }
+    Map.Entry<Schema, Schema> mapSchema = schema.getMapSchema();
+    int len = decoder.readInt();
+    while (len != 0) {
+      for (int i = 0; i < len; i++) {
+        walk(decoder, mapSchema.getKey(), visitor);
+        walk(decoder, mapSchema.getValue(), visitor);
+      }
+      len = decoder.readInt();
+    }
+    visitor.endMap(schema);
+  }
+
+  private static void walkRecord(Decoder decoder, Schema schema, DatumVisitor visitor) throws IOException {
+    if (!visitor.startRecord(schema)) {
+      Decoders.skip(decoder, schema);
+      return;
+    }
+    List<Schema.Field> fields = schema.getFields();
+    for (int i = 0; i < fields.size(); i++) {
+      Schema.Field field = fields.get(i);
+      if (visitor.visitField(field, i)) {
+        walk(decoder, field.getSchema(), visitor);
+      } else {
+        Decoders.skip(decoder, field.getSchema());
+      }
+    }
+    visitor.endRecord(schema);
+  }
+
+  private DatumWalker() {
+  }
+}
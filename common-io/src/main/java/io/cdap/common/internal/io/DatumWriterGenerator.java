@@ -16,9 +16,11 @@
 
 package io.cdap.common.internal.io;
 
+import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
@@ -40,6 +42,7 @@ import org.objectweb.asm.commons.GeneratorAdapter;
 import org.objectweb.asm.commons.Method;
 
 import java.io.IOException;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
@@ -58,11 +61,11 @@ import javax.annotation.concurrent.NotThreadSafe;
  * {@code
  *
  *  public final class generatedClassName implements DatumWriter<OutputType> {
- *    private static final String SCHEMA_HASH = "schema_hash_as_hex_string";
+ *    private static final long SCHEMA_FINGERPRINT = schema_fingerprint_as_long;
  *    private final Schema schema;
  *
  *    public generatedClassName(Schema schema) {
- *      if (!SCHEMA_HASH.equals(schema.getSchemaHash().toString())) {
+ *      if (SCHEMA_FINGERPRINT != schema.getFingerprint()) {
  *        throw new IllegalArgumentException("Schema not match.");
  *      }
  *      this.schema = schema;
@@ -87,11 +90,11 @@ import javax.annotation.concurrent.NotThreadSafe;
  * {@code
  *
  *   public final class intArrayDatumWriter07D4F780E3528DB8C539EE5C21FDDEAE implements DatumWriter<int[]> {
- *     private static final String SCHEMA_HASH = "07D4F780E3528DB8C539EE5C21FDDEAE";
+ *     private static final long SCHEMA_FINGERPRINT = -5325772474348508301L;
  *     private final Schema schema;
  *
  *     public intArrayDatumWriter07D4F780E3528DB8C539EE5C21FDDEAE(Schema paramSchema) {
- *       if (!SCHEMA_HASH.equals(paramSchema.getSchemaHash().toString())) {
+ *       if (SCHEMA_FINGERPRINT != paramSchema.getFingerprint()) {
  *         throw new IllegalArgumentException("Schema not match.");
  *       }
  *       this.schema = paramSchema;
@@ -129,8 +132,16 @@ import javax.annotation.concurrent.NotThreadSafe;
 @NotThreadSafe
 final class DatumWriterGenerator {
 
+  // Primitive class used for writing each of the numeric schema types
+  private static final Map<Schema.Type, Class<?>> NUMERIC_CLASSES = ImmutableMap.<Schema.Type, Class<?>>of(
+    Schema.Type.INT, int.class,
+    Schema.Type.LONG, long.class,
+    Schema.Type.FLOAT, float.class,
+    Schema.Type.DOUBLE, double.class);
+
   private final Map<String, Method> encodeMethods = Maps.newHashMap();
   private final Multimap<TypeToken<?>, String> fieldAccessorRequests = HashMultimap.create();
+  private final Map<String, int[]> enumTables = Maps.newLinkedHashMap();
   private ClassWriter classWriter;
   private Type classType;
   private List<Class<?>> preservedClasses;
@@ -155,9 +166,9 @@ final class DatumWriterGenerator {
                       Type.getInternalName(Object.class),
                       new String[]{Type.getInternalName(interfaceType.getRawType())});
 
-    // Static schema hash field, for verification
-    classWriter.visitField(Opcodes.ACC_PRIVATE + Opcodes.ACC_STATIC + Opcodes.ACC_FINAL, "SCHEMA_HASH",
-                           Type.getDescriptor(String.class), null, schema.getSchemaHash().toString()).visitEnd();
+    // Static schema fingerprint field, for verification
+    classWriter.visitField(Opcodes.ACC_PRIVATE + Opcodes.ACC_STATIC + Opcodes.ACC_FINAL, "SCHEMA_FINGERPRINT",
+                           Type.getDescriptor(long.class), null, schema.getFingerprint()).visitEnd();
 
     // Schema field
     classWriter.visitField(Opcodes.ACC_PRIVATE + Opcodes.ACC_FINAL, "schema",
@@ -189,16 +200,14 @@ final class DatumWriterGenerator {
     mg.loadThis();
     mg.invokeConstructor(Type.getType(Object.class), getMethod(void.class, "<init>"));
 
-    // if (!SCHEMA_HASH.equals(schema.getSchemaHash().toString())) { throw IllegalArgumentException }
-    mg.getStatic(classType, "SCHEMA_HASH", Type.getType(String.class));
+    // if (SCHEMA_FINGERPRINT != schema.getFingerprint()) { throw IllegalArgumentException }
+    mg.getStatic(classType, "SCHEMA_FINGERPRINT", Type.LONG_TYPE);
     mg.loadArg(0);
-    mg.invokeVirtual(Type.getType(Schema.class), getMethod(SchemaHash.class, "getSchemaHash"));
-    mg.invokeVirtual(Type.getType(SchemaHash.class), getMethod(String.class, "toString"));
-    mg.invokeVirtual(Type.getType(String.class), getMethod(boolean.class, "equals", Object.class));
-    Label hashEquals = mg.newLabel();
-    mg.ifZCmp(GeneratorAdapter.NE, hashEquals);
+    mg.invokeVirtual(Type.getType(Schema.class), getMethod(long.class, "getFingerprint"));
+    Label fingerprintEquals = mg.newLabel();
+    mg.ifCmp(Type.LONG_TYPE, GeneratorAdapter.EQ, fingerprintEquals);
     mg.throwException(Type.getType(IllegalArgumentException.class), "Schema not match.");
-    mg.mark(hashEquals);
+    mg.mark(fingerprintEquals);
 
     // this.schema = schema;
     mg.loadThis();
@@ -225,6 +234,24 @@ final class DatumWriterGenerator {
       mg.putField(classType, fieldAccessorName, Type.getType(FieldAccessor.class));
     }
 
+    // For each enum table, store the table content in field.
+    for (Map.Entry<String, int[]> entry : enumTables.entrySet()) {
+      classWriter.visitField(Opcodes.ACC_PRIVATE + Opcodes.ACC_FINAL, entry.getKey(),
+                             Type.getDescriptor(int[].class), null, null);
+      // this.enumTable = new int[] { ... };
+      int[] table = entry.getValue();
+      mg.loadThis();
+      mg.push(table.length);
+      mg.newArray(Type.INT_TYPE);
+      for (int i = 0; i < table.length; i++) {
+        mg.dup();
+        mg.push(i);
+        mg.push(table[i]);
+        mg.arrayStore(Type.INT_TYPE);
+      }
+      mg.putField(classType, entry.getKey(), Type.getType(int[].class));
+    }
+
     mg.returnValue();
     mg.endMethod();
   }
@@ -339,7 +366,7 @@ final class DatumWriterGenerator {
         encodeSimple(mg, outputType, schema, encodeMethod, value, encoder);
         break;
       case ENUM:
-        encodeEnum(mg, outputType, value, encoder, schemaLocal);
+        encodeEnum(mg, outputType, schema, value, encoder);
         break;
       case ARRAY:
         if (Collection.class.isAssignableFrom(outputType.getRawType())) {
@@ -440,29 +467,63 @@ final class DatumWriterGenerator {
 
       encodeType = TypeToken.of(ByteBuffer.class);
     }
+    Class<?> schemaClass = NUMERIC_CLASSES.get(schema.getType());
+    if (schemaClass != null && encodeType.getRawType().isPrimitive() && !schemaClass.equals(encodeType.getRawType())) {
+      // Widen the value to the schema type, e.g. an int value written with a LONG union branch.
+      mg.cast(Type.getType(encodeType.getRawType()), Type.getType(schemaClass));
+      encodeType = TypeToken.of(schemaClass);
+    }
     mg.invokeInterface(Type.getType(Encoder.class), getMethod(Encoder.class, encodeMethod, encodeType.getRawType()));
     mg.pop();
   }
 
   /**
-   * Generates method body for encoding enum value.
+   * Generates method body for encoding enum value. The schema index of each enum constant is computed at
+   * generation time and stored in a {@code int[]} field indexed by {@link Enum#ordinal()}.
+   *
+   * <pre>
+   * {@code
+   *
+   * int idx = this.enumTable[value.ordinal()];
+   * if (idx < 0) {
+   *   throw new IOException(...);
+   * }
+   * encoder.writeInt(idx);
+   * }
+   * </pre>
    * @param mg Method body generator
-   * @param outputType
-   * @param value
-   * @param encoder
-   * @param schemaLocal
+   * @param outputType Type information of the enum
+   * @param schema Schema of the enum
+   * @param value Argument index of the value to encode
+   * @param encoder Method argument index of the encoder
    */
-  private void encodeEnum(GeneratorAdapter mg, TypeToken<?> outputType,
-                          int value, int encoder, int schemaLocal) {
+  private void encodeEnum(GeneratorAdapter mg, TypeToken<?> outputType, Schema schema, int value, int encoder) {
 
     // Enum type might be defined by the user, hence need to preserve class loading of it
-    preservedClasses.add(outputType.getRawType());
-    // encoder.writeInt(this.schema.getEnumIndex(value.name()));
-    mg.loadArg(encoder);
-    mg.loadArg(schemaLocal);
+    Class<?> enumClass = outputType.getRawType();
+    preservedClasses.add(enumClass);
+
+    String tableName = getEnumTableName(outputType, schema);
+    enumTables.put(tableName, EnumTables.createWriteTable(schema, enumClass));
+
+    // int idx = this.enumTable[value.ordinal()];
+    mg.loadThis();
+    mg.getField(classType, tableName, Type.getType(int[].class));
     mg.loadArg(value);
-    mg.invokeVirtual(Type.getType(outputType.getRawType()), getMethod(String.class, "name"));
-    mg.invokeVirtual(Type.getType(Schema.class), getMethod(int.class, "getEnumIndex", String.class));
+    mg.invokeVirtual(Type.getType(Enum.class), getMethod(int.class, "ordinal"));
+    mg.arrayLoad(Type.INT_TYPE);
+    int idx = mg.newLocal(Type.INT_TYPE);
+    mg.storeLocal(idx);
+
+    Label validLabel = mg.newLabel();
+    mg.loadLocal(idx);
+    mg.ifZCmp(GeneratorAdapter.GE, validLabel);
+    mg.throwException(Type.getType(IOException.class), "Invalid enum value.");
+    mg.mark(validLabel);
+
+    // encoder.writeInt(idx);
+    mg.loadArg(encoder);
+    mg.loadLocal(idx);
     mg.invokeInterface(Type.getType(Encoder.class), getMethod(Encoder.class, "writeInt", int.class));
     mg.pop();
   }
@@ -800,8 +861,28 @@ final class DatumWriterGenerator {
   }
 
   /**
-   * Generates method body for encoding union schema. Union schema is used for representing object references that
-   * could be {@code null}.
+   * Generates method body for encoding union schema. The branch to write is selected based on the class of the
+   * value, using the same rules as {@link UnionBranchResolver}. The logic is like this:
+   *
+   * <pre>
+   * {@code
+   *
+   * if (value == null) {
+   *   encoder.writeInt(nullBranch);      // Or throw IOException if there is no null branch
+   * } else if (value instanceof Class1) {
+   *   encoder.writeInt(branch1);
+   *   encodeClass1((Class1) value, encoder, schema.getUnionSchema(branch1), seenRefs);
+   * } else if (value instanceof Class2) {
+   *   ...
+   * } else {
+   *   throw new IOException(...);
+   * }
+   * }
+   * </pre>
+   *
+   * If the output type is the only candidate class that can match a non-null branch,
+   * the {@code instanceof} checks are omitted.
+   *
    * @param mg
    * @param outputType
    * @param schema
@@ -812,30 +893,129 @@ final class DatumWriterGenerator {
    */
   private void encodeUnion(GeneratorAdapter mg, TypeToken<?> outputType, Schema schema,
                            int value, int encoder, int schemaLocal, int seenRefs) {
-    Label nullLabel = mg.newLabel();
+    Label notNullLabel = mg.newLabel();
     Label endLabel = mg.newLabel();
+
     mg.loadArg(value);
+    mg.ifNonNull(notNullLabel);
+    int nullBranch = UnionBranchResolver.findNullBranch(schema);
+    if (nullBranch < 0) {
+      mg.throwException(Type.getType(IOException.class), "Null value is not allowed by union schema.");
+    } else {
+      encodeInt(mg, nullBranch, encoder);
+      mg.goTo(endLabel);
+    }
 
-    mg.ifNull(nullLabel);
-    // Not null, write out 0 and then encode the value
-    encodeInt(mg, 0, encoder);
+    mg.mark(notNullLabel);
+    List<Class<?>> candidates = getUnionCandidates(outputType, schema);
+    Class<?> rawType = outputType.getRawType();
+    if (candidates.size() == 1 && candidates.get(0).equals(rawType)) {
+      encodeUnionBranch(mg, outputType, schema, UnionBranchResolver.findBranch(schema, rawType),
+                        value, encoder, schemaLocal, seenRefs);
+    } else {
+      for (Class<?> candidate : candidates) {
+        Label nextLabel = mg.newLabel();
+        mg.loadArg(value);
+        if (isPublic(candidate)) {
+          mg.instanceOf(Type.getType(candidate));
+        } else {
+          // Not accessible from the generated class, hence match by class name
+          mg.invokeVirtual(Type.getType(Object.class), getMethod(Class.class, "getClass"));
+          mg.invokeVirtual(Type.getType(Class.class), getMethod(String.class, "getName"));
+          mg.push(candidate.getName());
+          mg.invokeVirtual(Type.getType(String.class), getMethod(boolean.class, "equals", Object.class));
+        }
+        mg.ifZCmp(GeneratorAdapter.EQ, nextLabel);
+
+        TypeToken<?> candidateType = candidate.equals(rawType) ? outputType : TypeToken.of(candidate);
+        encodeUnionBranch(mg, candidateType, schema, UnionBranchResolver.findBranch(schema, candidate),
+                          value, encoder, schemaLocal, seenRefs);
+        mg.goTo(endLabel);
+        mg.mark(nextLabel);
+      }
+      mg.throwException(Type.getType(IOException.class), "No branch in union schema matches the value type.");
+    }
+    mg.mark(endLabel);
+  }
 
+  /**
+   * Generates code to write the union branch index, followed by the value encoded with the branch schema.
+   */
+  private void encodeUnionBranch(GeneratorAdapter mg, TypeToken<?> outputType, Schema schema, int branch,
+                                 int value, int encoder, int schemaLocal, int seenRefs) {
+    encodeInt(mg, branch, encoder);
+
+    Schema branchSchema = schema.getUnionSchema(branch);
     mg.loadThis();
     mg.loadArg(value);
-    doCast(mg, outputType, schema.getUnionSchema(0));
+    doCast(mg, outputType, branchSchema);
     mg.loadArg(encoder);
     mg.loadArg(schemaLocal);
-    mg.push(0);
+    mg.push(branch);
     mg.invokeVirtual(Type.getType(Schema.class), getMethod(Schema.class, "getUnionSchema", int.class));
     mg.loadArg(seenRefs);
-    mg.invokeVirtual(classType, getEncodeMethod(outputType, schema.getUnionSchema(0)));
+    mg.invokeVirtual(classType, getEncodeMethod(outputType, branchSchema));
+  }
 
-    mg.goTo(endLabel);
+  /**
+   * Returns the list of classes that can be dispatched to a non-null branch of the given union schema
+   * for values of the given output type. Classes are ordered such that sub-classes come before their super classes.
+   */
+  private List<Class<?>> getUnionCandidates(TypeToken<?> outputType, Schema schema) {
+    Class<?> rawType = outputType.getRawType();
+    Set<Class<?>> classes = Sets.newLinkedHashSet();
+    if (!Object.class.equals(rawType)) {
+      classes.add(rawType);
+    }
 
-    mg.mark(nullLabel);
-    // Null, write out 1
-    encodeInt(mg, 1, encoder);
-    mg.mark(endLabel);
+    ClassLoader classLoader = Objects.firstNonNull(rawType.getClassLoader(),
+                                                   DatumWriterGenerator.class.getClassLoader());
+    for (Schema unionSchema : schema.getUnionSchemas()) {
+      if (unionSchema.getType() == Schema.Type.RECORD) {
+        try {
+          Class<?> recordClass = Class.forName(unionSchema.getRecordName(), false, classLoader);
+          // Generic record class can only be encoded if it is the output type, which carries the type arguments
+          if (recordClass.getTypeParameters().length == 0) {
+            classes.add(recordClass);
+          }
+        } catch (ClassNotFoundException e) {
+          // The record doesn't correspond to a class. It can only be matched by the output type.
+        }
+      } else {
+        classes.addAll(UnionBranchResolver.getSimpleClasses(unionSchema.getType()));
+        classes.addAll(UnionBranchResolver.getWideningClasses(unionSchema.getType()));
+      }
+    }
+
+    List<Class<?>> candidates = Lists.newArrayList();
+    for (Class<?> cls : classes) {
+      if (!rawType.isAssignableFrom(cls) || UnionBranchResolver.findBranch(schema, cls) < 0) {
+        continue;
+      }
+      // Insert the class before any of its super classes
+      int idx = 0;
+      while (idx < candidates.size() && !candidates.get(idx).isAssignableFrom(cls)) {
+        idx++;
+      }
+      candidates.add(idx, cls);
+      if (cls.getClassLoader() != null) {
+        // Class might be defined by the user, hence need to preserve class loading of it
+        preservedClasses.add(cls);
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * Returns {@code true} if the given class and all its enclosing classes are public.
+   */
+  private boolean isPublic(Class<?> cls) {
+    for (Class<?> c = cls; c != null; c = c.getEnclosingClass()) {
+      if (!Modifier.isPublic(c.getModifiers())) {
+        return false;
+      }
+    }
+    return true;
   }
 
   private <T> TypeToken<DatumWriter<T>> getInterfaceType(TypeToken<T> type) {
@@ -953,6 +1133,16 @@ final class DatumWriterGenerator {
     }
   }
 
+  /**
+   * Generates the name of the class field for storing the enum table for the given enum type and schema.
+   * @param enumType Type of the enum.
+   * @param schema Schema of the enum.
+   * @return name of the class field.
+   */
+  private String getEnumTableName(TypeToken<?> enumType, Schema schema) {
+    return String.format("enumTable$%s%s", normalizeTypeName(enumType), schema.getSchemaHash());
+  }
+
   /**
    * Generates the name of the class field for storing {@link FieldAccessor} for the given record field.
    * @param recordType Type of the record.
@@ -0,0 +1,186 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import io.cdap.common.io.Decoder;
+import io.cdap.common.io.Encoder;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Static utility methods for working with {@link Decoder} based on {@link Schema}.
+ */
+public final class Decoders {
+
+  /**
+   * Skips a value of the given schema from the decoder without materializing it.
+   *
+   * @param decoder the {@link Decoder} to read from
+   * @param schema {@link Schema} of the value to skip
+   * @throws IOException if failed to read from the decoder
+   */
+  public static void skip(Decoder decoder, Schema schema) throws IOException {
+    switch (schema.getType()) {
+      case NULL:
+        break;
+      case BOOLEAN:
+        decoder.readBool();
+        break;
+      case INT:
+        decoder.readInt();
+        break;
+      case LONG:
+        decoder.readLong();
+        break;
+      case FLOAT:
+        decoder.skipFloat();
+        break;
+      case DOUBLE:
+        decoder.skipDouble();
+        break;
+      case BYTES:
+        decoder.skipBytes();
+        break;
+      case STRING:
+        decoder.skipString();
+        break;
+      case ENUM:
+        decoder.readInt();
+        break;
+      case ARRAY:
+        skipArray(decoder, schema.getComponentSchema());
+        break;
+      case MAP:
+        skipMap(decoder, schema.getMapSchema());
+        break;
+      case RECORD:
+        skipRecord(decoder, schema);
+        break;
+      case UNION:
+        skip(decoder, schema.getUnionSchema(decoder.readInt()));
+        break;
+    }
+  }
+
+  /**
+   * Copies a value of the given schema from the decoder to the encoder. Array and map values are written
+   * with the same blocks as they are read.
+   *
+   * @param decoder the {@link Decoder} to read from
+   * @param schema {@link Schema} of the value to copy
+   * @param encoder the {@link Encoder} to write to
+   * @throws IOException if failed to read from the decoder or write to the encoder
+   */
+  public static void copy(Decoder decoder, Schema schema, Encoder encoder) throws IOException {
+    switch (schema.getType()) {
+      case NULL:
+        encoder.writeNull();
+        break;
+      case BOOLEAN:
+        encoder.writeBool(decoder.readBool());
+        break;
+      case INT:
+      case ENUM:
+        encoder.writeInt(decoder.readInt());
+        break;
+      case LONG:
+        encoder.writeLong(decoder.readLong());
+        break;
+      case FLOAT:
+        encoder.writeFloat(decoder.readFloat());
+        break;
+      case DOUBLE:
+        encoder.writeDouble(decoder.readDouble());
+        break;
+      case BYTES:
+        encoder.writeBytes(decoder.readBytes());
+        break;
+      case STRING:
+        encoder.writeString(decoder.readString());
+        break;
+      case ARRAY: {
+        Schema componentSchema = schema.getComponentSchema();
+        int len = decoder.readInt();
+        while (len != 0) {
+          encoder.writeInt(len);
+          for (int i = 0; i < len; i++) {
+            copy(decoder, componentSchema, encoder);
+          }
+          len = decoder.readInt();
+        }
+        encoder.writeInt(0);
+        break;
+      }
+      case MAP: {
+        Map.Entry<Schema, Schema> mapSchema = schema.getMapSchema();
+        int len = decoder.readInt();
+        while (len != 0) {
+          encoder.writeInt(len);
+          for (int i = 0; i < len; i++) {
+            copy(decoder, mapSchema.getKey(), encoder);
+            copy(decoder, mapSchema.getValue(), encoder);
+          }
+          len = decoder.readInt();
+        }
+        encoder.writeInt(0);
+        break;
+      }
+      case RECORD:
+        for (Schema.Field field : schema.getFields()) {
+          copy(decoder, field.getSchema(), encoder);
+        }
+        break;
+      case UNION: {
+        int idx = decoder.readInt();
+        encoder.writeInt(idx);
+        copy(decoder, schema.getUnionSchema(idx), encoder);
+        break;
+      }
+    }
+  }
+
+  private static void skipArray(Decoder decoder, Schema componentSchema) throws IOException {
+    int len = decoder.readInt();
+    while (len != 0) {
+      for (int i = 0; i < len; i++) {
+        skip(decoder, componentSchema);
+      }
+      len = decoder.readInt();
+    }
+  }
+
+  private static void skipMap(Decoder decoder, Map.Entry<Schema, Schema> mapSchema) throws IOException {
+    int len = decoder.readInt();
+    while (len != 0) {
+      for (int i = 0; i < len; i++) {
+        skip(decoder, mapSchema.getKey());
+        skip(decoder, mapSchema.getValue());
+      }
+      len = decoder.readInt();
+    }
+  }
+
+  private static void skipRecord(Decoder decoder, Schema recordSchema) throws IOException {
+    for (Schema.Field field : recordSchema.getFields()) {
+      skip(decoder, field.getSchema());
+    }
+  }
+
+  private Decoders() {
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.base.Preconditions;
+
+import java.lang.reflect.Array;
+
+/**
+ * Static methods for creating lookup tables between {@link Enum} constants and the indexes of
+ * {@link Schema.Type#ENUM ENUM} schema values, so that reading or writing an enum value is a single array access.
+ * Enum constants are matched to schema values by {@link Enum#name()}.
+ */
+final class EnumTables {
+
+  /**
+   * Creates a table for reading enum values, indexed by the enum index in the source schema.
+   * An entry is {@code null} if the source value doesn't exist in the target schema or in the enum class.
+   *
+   * @param sourceSchema the schema the enum value was written with
+   * @param targetSchema the schema to read the enum value as
+   * @param enumClass the enum class to read the value into
+   * @return an array of the given enum class type
+   */
+  static Enum<?>[] createReadTable(Schema sourceSchema, Schema targetSchema, Class<?> enumClass) {
+    Preconditions.checkArgument(enumClass.isEnum(), "Class %s is not an enum.", enumClass);
+    Object[] constants = enumClass.getEnumConstants();
+    Enum<?>[] table = (Enum<?>[]) Array.newInstance(enumClass, sourceSchema.getEnumValues().size());
+
+    int idx = 0;
+    for (String value : sourceSchema.getEnumValues()) {
+      if (targetSchema.getEnumIndex(value) >= 0) {
+        for (Object constant : constants) {
+          if (((Enum<?>) constant).name().equals(value)) {
+            table[idx] = (Enum<?>) constant;
+            break;
+          }
+        }
+      }
+      idx++;
+    }
+    return table;
+  }
+
+  /**
+   * Creates a table for writing enum values, indexed by {@link Enum#ordinal()}.
+   * An entry is {@code -1} if the enum constant doesn't exist in the schema.
+   *
+   * @param schema the enum schema for writing
+   * @param enumClass the enum class to write values from
+   * @return an array containing the schema index for each of the enum constants
+   */
+  static int[] createWriteTable(Schema schema, Class<?> enumClass) {
+    Preconditions.checkArgument(enumClass.isEnum(), "Class %s is not an enum.", enumClass);
+    Object[] constants = enumClass.getEnumConstants();
+    int[] table = new int[constants.length];
+    for (Object constant : constants) {
+      Enum<?> enumConstant = (Enum<?>) constant;
+      table[enumConstant.ordinal()] = schema.getEnumIndex(enumConstant.name());
+    }
+    return table;
+  }
+
+  /**
+   * Creates a table for converting enum indexes between two schemas, indexed by the enum index in the source schema.
+   * An entry is {@code -1} if the source value doesn't exist in the target schema.
+   *
+   * @param sourceSchema the schema the enum value was written with
+   * @param targetSchema the schema to convert the enum index to
+   * @return an array containing the target schema index for each of the source schema values
+   */
+  static int[] createIndexTable(Schema sourceSchema, Schema targetSchema) {
+    int[] table = new int[sourceSchema.getEnumValues().size()];
+    int idx = 0;
+    for (String value : sourceSchema.getEnumValues()) {
+      table[idx++] = targetSchema.getEnumIndex(value);
+    }
+    return table;
+  }
+
+  private EnumTables() {
+  }
+}
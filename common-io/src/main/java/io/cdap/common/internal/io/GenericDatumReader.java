@@ -0,0 +1,292 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Table;
+import io.cdap.common.io.Decoder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A {@link DatumReader} that reads records into {@link GenericRecord} of a target schema, without any class generation
+ * or reflection. Data encoded with a different source schema is projected into the target schema with the same rules
+ * as {@link ReflectionDatumReader}: fields are matched by name, source fields not in the target are skipped, target
+ * fields not in the source are left as {@code null}, and numeric values are widened as needed.
+ */
+@NotThreadSafe
+public final class GenericDatumReader implements DatumReader<GenericRecord> {
+
+  private final Schema schema;
+  private final Table<Schema, Schema, RecordMapping> recordMappings;
+  private final Table<Schema, Schema, Schema> unionBranches;
+
+  /**
+   * Creates a reader that reads records of the given schema.
+   *
+   * @param schema the target record {@link Schema}
+   */
+  public GenericDatumReader(Schema schema) {
+    Preconditions.checkArgument(schema.getType() == Schema.Type.RECORD && schema.getFields() != null,
+                                "Schema must be a record with fields: %s", schema);
+    this.schema = schema;
+    this.recordMappings = HashBasedTable.create();
+    this.unionBranches = HashBasedTable.create();
+  }
+
+  @Override
+  public GenericRecord read(Decoder decoder, Schema sourceSchema) throws IOException {
+    return read(decoder, sourceSchema, null);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The given record and nested records in it are filled in place if they have the same schema as the target.
+   */
+  @Override
+  public GenericRecord read(Decoder decoder, Schema sourceSchema, @Nullable GenericRecord reuse) throws IOException {
+    return (GenericRecord) read(decoder, sourceSchema, schema, reuse);
+  }
+
+  @Nullable
+  private Object read(Decoder decoder, Schema sourceSchema, Schema targetSchema,
+                      @Nullable Object reuse) throws IOException {
+    if (sourceSchema.getType() == Schema.Type.UNION) {
+      return read(decoder, sourceSchema.getUnionSchema(decoder.readInt()), targetSchema, reuse);
+    }
+    if (targetSchema.getType() == Schema.Type.UNION) {
+      targetSchema = getUnionBranch(sourceSchema, targetSchema);
+    }
+
+    Schema.Type sourceType = sourceSchema.getType();
+    Schema.Type targetType = targetSchema.getType();
+    switch (sourceType) {
+      case NULL:
+        check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+        return decoder.readNull();
+      case BOOLEAN:
+        return promote(decoder.readBool(), sourceType, targetType);
+      case INT:
+        return promote(decoder.readInt(), sourceType, targetType);
+      case LONG:
+        return promote(decoder.readLong(), sourceType, targetType);
+      case FLOAT:
+        return promote(decoder.readFloat(), sourceType, targetType);
+      case DOUBLE:
+        return promote(decoder.readDouble(), sourceType, targetType);
+      case BYTES:
+        check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+        return decoder.readBytes();
+      case STRING:
+        check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+        return decoder.readString();
+      case ENUM: {
+        check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+        int idx = decoder.readInt();
+        String value = sourceSchema.getEnumValue(idx);
+        check(value != null, "Enum index %s out of range for %s.", idx, sourceSchema);
+        check(targetSchema.getEnumIndex(value) >= 0, "Enum value '%s' missing in target.", value);
+        return value;
+      }
+      case ARRAY:
+        check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+        return readArray(decoder, sourceSchema.getComponentSchema(), targetSchema.getComponentSchema(), reuse);
+      case MAP:
+        check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+        return readMap(decoder, sourceSchema.getMapSchema(), targetSchema.getMapSchema(), reuse);
+      case RECORD:
+        check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+        return readRecord(decoder, sourceSchema, targetSchema, reuse);
+    }
+    throw new IOException(String.format("Fails to resolve %s to %s", sourceSchema, targetSchema));
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Object> readArray(Decoder decoder, Schema sourceComponentSchema,
+                                 Schema targetComponentSchema, @Nullable Object reuse) throws IOException {
+    int len = decoder.readInt();
+    List<Object> list;
+    if (reuse instanceof ArrayList) {
+      list = (List<Object>) reuse;
+      list.clear();
+    } else {
+      list = Lists.newArrayListWithCapacity(len);
+    }
+    while (len != 0) {
+      for (int i = 0; i < len; i++) {
+        list.add(read(decoder, sourceComponentSchema, targetComponentSchema, null));
+      }
+      len = decoder.readInt();
+    }
+    return list;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<Object, Object> readMap(Decoder decoder, Map.Entry<Schema, Schema> sourceMapSchema,
+                                      Map.Entry<Schema, Schema> targetMapSchema,
+                                      @Nullable Object reuse) throws IOException {
+    int len = decoder.readInt();
+    Map<Object, Object> map;
+    if (reuse instanceof HashMap) {
+      map = (Map<Object, Object>) reuse;
+      map.clear();
+    } else {
+      map = Maps.newHashMapWithExpectedSize(len);
+    }
+    while (len != 0) {
+      for (int i = 0; i < len; i++) {
+        Object key = read(decoder, sourceMapSchema.getKey(), targetMapSchema.getKey(), null);
+        map.put(key, read(decoder, sourceMapSchema.getValue(), targetMapSchema.getValue(), null));
+      }
+      len = decoder.readInt();
+    }
+    return map;
+  }
+
+  private GenericRecord readRecord(Decoder decoder, Schema sourceSchema, Schema targetSchema,
+                                   @Nullable Object reuse) throws IOException {
+    GenericRecord record;
+    if (reuse instanceof GenericRecord && ((GenericRecord) reuse).getSchema() == targetSchema) {
+      record = (GenericRecord) reuse;
+    } else {
+      record = new GenericRecord(targetSchema);
+    }
+
+    RecordMapping mapping = recordMappings.get(sourceSchema, targetSchema);
+    if (mapping == null) {
+      mapping = new RecordMapping(sourceSchema, targetSchema);
+      recordMappings.put(sourceSchema, targetSchema, mapping);
+    }
+
+    List<Schema.Field> sourceFields = sourceSchema.getFields();
+    List<Schema.Field> targetFields = targetSchema.getFields();
+    for (int i = 0; i < mapping.targetPositions.length; i++) {
+      int position = mapping.targetPositions[i];
+      Schema fieldSchema = sourceFields.get(i).getSchema();
+      if (position < 0) {
+        Decoders.skip(decoder, fieldSchema);
+      } else {
+        record.set(position, read(decoder, fieldSchema, targetFields.get(position).getSchema(), record.get(position)));
+      }
+    }
+    for (int position : mapping.missingPositions) {
+      record.set(position, null);
+    }
+    return record;
+  }
+
+  /**
+   * Returns the branch in the target union schema for reading value of the given source schema. A branch with the
+   * same schema is preferred over a compatible one.
+   */
+  private Schema getUnionBranch(Schema sourceSchema, Schema targetSchema) throws IOException {
+    Schema branch = unionBranches.get(sourceSchema, targetSchema);
+    if (branch != null) {
+      return branch;
+    }
+    for (Schema schema : targetSchema.getUnionSchemas()) {
+      if (sourceSchema.equals(schema)) {
+        branch = schema;
+        break;
+      }
+    }
+    if (branch == null) {
+      for (Schema schema : targetSchema.getUnionSchemas()) {
+        if (sourceSchema.isCompatible(schema)) {
+          branch = schema;
+          break;
+        }
+      }
+    }
+    check(branch != null, "No matching schema to resolve %s to %s", sourceSchema, targetSchema);
+    unionBranches.put(sourceSchema, targetSchema, branch);
+    return branch;
+  }
+
+  /**
+   * Converts a simple value to the target type, with the same promotion rules as {@link Schema#isCompatible(Schema)}.
+   */
+  private Object promote(Object value, Schema.Type sourceType, Schema.Type targetType) throws IOException {
+    if (sourceType == targetType) {
+      return value;
+    }
+    switch (targetType) {
+      case LONG:
+        if (sourceType == Schema.Type.INT) {
+          return ((Number) value).longValue();
+        }
+        break;
+      case FLOAT:
+        if (sourceType == Schema.Type.INT || sourceType == Schema.Type.LONG) {
+          return ((Number) value).floatValue();
+        }
+        break;
+      case DOUBLE:
+        if (sourceType == Schema.Type.INT || sourceType == Schema.Type.LONG || sourceType == Schema.Type.FLOAT) {
+          return ((Number) value).doubleValue();
+        }
+        break;
+      case STRING:
+        return String.valueOf(value);
+    }
+    throw new IOException(String.format("Fails to resolve %s to %s", sourceType, targetType));
+  }
+
+  private void check(boolean condition, String message, Object... objs) throws IOException {
+    if (!condition) {
+      throw new IOException(String.format(message, objs));
+    }
+  }
+
+  /**
+   * Mapping of field positions from a source record schema to a target record schema.
+   */
+  private static final class RecordMapping {
+    // Target field position of each source field, or -1 if the field is not in the target
+    private final int[] targetPositions;
+    // Positions of target fields that are not in the source
+    private final int[] missingPositions;
+
+    RecordMapping(Schema sourceSchema, Schema targetSchema) {
+      this.targetPositions = sourceSchema.getFieldMapping(targetSchema);
+      int[] sourcePositions = targetSchema.getFieldMapping(sourceSchema);
+      int count = 0;
+      for (int position : sourcePositions) {
+        if (position < 0) {
+          count++;
+        }
+      }
+      this.missingPositions = new int[count];
+      count = 0;
+      for (int i = 0; i < sourcePositions.length; i++) {
+        if (sourcePositions[i] < 0) {
+          missingPositions[count++] = i;
+        }
+      }
+    }
+  }
+}
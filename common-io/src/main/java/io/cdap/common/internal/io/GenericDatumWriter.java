@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.base.Preconditions;
+import io.cdap.common.io.Encoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link DatumWriter} that writes {@link GenericRecord} of a given schema, without any class generation
+ * or reflection. Besides the value classes listed in {@link GenericRecord}, {@code byte[]} is accepted for
+ * {@code bytes} and any {@link Collection} for {@code array}.
+ */
+@ThreadSafe
+public final class GenericDatumWriter implements DatumWriter<GenericRecord> {
+
+  private final Schema schema;
+
+  /**
+   * Creates a writer that writes records with the given schema.
+   *
+   * @param schema the record {@link Schema}
+   */
+  public GenericDatumWriter(Schema schema) {
+    Preconditions.checkArgument(schema.getType() == Schema.Type.RECORD && schema.getFields() != null,
+                                "Schema must be a record with fields: %s", schema);
+    this.schema = schema;
+  }
+
+  @Override
+  public void encode(GenericRecord data, Encoder encoder) throws IOException {
+    write(data, schema, encoder);
+  }
+
+  private void write(@Nullable Object value, Schema schema, Encoder encoder) throws IOException {
+    try {
+      switch (schema.getType()) {
+        case NULL:
+          check(value == null, "Expected null value for schema %s", schema);
+          encoder.writeNull();
+          break;
+        case BOOLEAN:
+          encoder.writeBool((Boolean) value);
+          break;
+        case INT:
+          encoder.writeInt((Integer) value);
+          break;
+        case LONG:
+          encoder.writeLong((Long) value);
+          break;
+        case FLOAT:
+          encoder.writeFloat((Float) value);
+          break;
+        case DOUBLE:
+          encoder.writeDouble((Double) value);
+          break;
+        case BYTES:
+          if (value instanceof byte[]) {
+            encoder.writeBytes((byte[]) value);
+          } else {
+            encoder.writeBytes((ByteBuffer) value);
+          }
+          break;
+        case STRING:
+          encoder.writeString((String) value);
+          break;
+        case ENUM: {
+          int idx = schema.getEnumIndex((String) value);
+          check(idx >= 0, "Invalid enum value %s for schema %s", value, schema);
+          encoder.writeInt(idx);
+          break;
+        }
+        case ARRAY:
+          writeArray((Collection<?>) value, schema.getComponentSchema(), encoder);
+          break;
+        case MAP:
+          writeMap((Map<?, ?>) value, schema.getMapSchema(), encoder);
+          break;
+        case RECORD:
+          writeRecord((GenericRecord) value, schema, encoder);
+          break;
+        case UNION: {
+          int idx = getUnionBranch(schema, value);
+          check(idx >= 0, "No branch in union schema %s for value %s", schema, value);
+          encoder.writeInt(idx);
+          write(value, schema.getUnionSchema(idx), encoder);
+          break;
+        }
+      }
+    } catch (ClassCastException | NullPointerException e) {
+      throw new IOException("Invalid value " + value + " for schema " + schema, e);
+    }
+  }
+
+  private void writeArray(Collection<?> collection, Schema componentSchema, Encoder encoder) throws IOException {
+    encoder.writeInt(collection.size());
+    for (Object element : collection) {
+      write(element, componentSchema, encoder);
+    }
+    if (!collection.isEmpty()) {
+      encoder.writeInt(0);
+    }
+  }
+
+  private void writeMap(Map<?, ?> map, Map.Entry<Schema, Schema> mapSchema, Encoder encoder) throws IOException {
+    encoder.writeInt(map.size());
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      write(entry.getKey(), mapSchema.getKey(), encoder);
+      write(entry.getValue(), mapSchema.getValue(), encoder);
+    }
+    if (!map.isEmpty()) {
+      encoder.writeInt(0);
+    }
+  }
+
+  private void writeRecord(GenericRecord record, Schema schema, Encoder encoder) throws IOException {
+    // Equal schemas have the same fields in the same order
+    check(record.getSchema() == schema || record.getSchema().equals(schema),
+          "Record schema %s not match with %s", record.getSchema(), schema);
+    List<Schema.Field> fields = schema.getFields();
+    for (int i = 0; i < fields.size(); i++) {
+      write(record.get(i), fields.get(i).getSchema(), encoder);
+    }
+  }
+
+  /**
+   * Returns the index of the first branch in the union schema that the given value can be written with,
+   * or {@code -1} if there is none.
+   */
+  private int getUnionBranch(Schema unionSchema, @Nullable Object value) {
+    List<Schema> unionSchemas = unionSchema.getUnionSchemas();
+    for (int i = 0; i < unionSchemas.size(); i++) {
+      if (matches(unionSchemas.get(i), value)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private boolean matches(Schema schema, @Nullable Object value) {
+    switch (schema.getType()) {
+      case NULL:
+        return value == null;
+      case BOOLEAN:
+        return value instanceof Boolean;
+      case INT:
+        return value instanceof Integer;
+      case LONG:
+        return value instanceof Long;
+      case FLOAT:
+        return value instanceof Float;
+      case DOUBLE:
+        return value instanceof Double;
+      case BYTES:
+        return value instanceof ByteBuffer || value instanceof byte[];
+      case STRING:
+        return value instanceof String;
+      case ENUM:
+        return value instanceof String && schema.getEnumIndex((String) value) >= 0;
+      case ARRAY:
+        return value instanceof Collection;
+      case MAP:
+        return value instanceof Map;
+      case RECORD:
+        return value instanceof GenericRecord && ((GenericRecord) value).getSchema().equals(schema);
+      case UNION:
+        return getUnionBranch(schema, value) >= 0;
+    }
+    return false;
+  }
+
+  private void check(boolean condition, String message, Object... objs) throws IOException {
+    if (!condition) {
+      throw new IOException(String.format(message, objs));
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A record of a {@link Schema.Type#RECORD RECORD} schema that doesn't need a Java class. Field values are stored in
+ * an array indexed by the position of the field in the schema.
+ * <p>
+ * Field values are in generic form based on the field {@link Schema}:
+ * <ul>
+ *   <li>{@code null}, {@link Boolean}, {@link Integer}, {@link Long}, {@link Float}, {@link Double} and
+ *       {@link String} for the simple types</li>
+ *   <li>{@link ByteBuffer} for {@code bytes}</li>
+ *   <li>the {@link String} value for {@code enum}</li>
+ *   <li>{@link List} for {@code array} and {@link Map} for {@code map}</li>
+ *   <li>{@link GenericRecord} for {@code record}</li>
+ *   <li>the value of the actual branch for {@code union}</li>
+ * </ul>
+ * Values are not validated when set; an invalid value fails when the record is written by {@link GenericDatumWriter}.
+ * </p>
+ *
+ * @see GenericDatumReader
+ * @see GenericDatumWriter
+ */
+@NotThreadSafe
+public final class GenericRecord {
+
+  private final Schema schema;
+  private final Object[] values;
+
+  /**
+   * Creates a record with all field values being {@code null}.
+   *
+   * @param schema the record {@link Schema}
+   */
+  public GenericRecord(Schema schema) {
+    Preconditions.checkArgument(schema.getType() == Schema.Type.RECORD && schema.getFields() != null,
+                                "Schema must be a record with fields: %s", schema);
+    this.schema = schema;
+    this.values = new Object[schema.getFields().size()];
+  }
+
+  /**
+   * @return the record {@link Schema} of this record.
+   */
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Returns the value of the field at the given position in the record schema.
+   */
+  @Nullable
+  public Object get(int position) {
+    return values[position];
+  }
+
+  /**
+   * Returns the value of the field with the given name.
+   *
+   * @throws IllegalArgumentException if there is no such field
+   */
+  @Nullable
+  public Object get(String name) {
+    return values[getPosition(name)];
+  }
+
+  /**
+   * Sets the value of the field at the given position in the record schema.
+   *
+   * @return this record
+   */
+  public GenericRecord set(int position, @Nullable Object value) {
+    values[position] = value;
+    return this;
+  }
+
+  /**
+   * Sets the value of the field with the given name.
+   *
+   * @return this record
+   * @throws IllegalArgumentException if there is no such field
+   */
+  public GenericRecord set(String name, @Nullable Object value) {
+    values[getPosition(name)] = value;
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    GenericRecord other = (GenericRecord) o;
+    return schema.equals(other.schema) && Arrays.equals(values, other.values);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * schema.hashCode() + Arrays.hashCode(values);
+  }
+
+  @Override
+  public String toString() {
+    Objects.ToStringHelper helper = Objects.toStringHelper(schema.getRecordName());
+    List<Schema.Field> fields = schema.getFields();
+    for (int i = 0; i < values.length; i++) {
+      helper.add(fields.get(i).getName(), values[i]);
+    }
+    return helper.toString();
+  }
+
+  private int getPosition(String name) {
+    int position = schema.getFieldIndex(name);
+    if (position < 0) {
+      throw new IllegalArgumentException("Field " + name + " not exists in record " + schema.getRecordName());
+    }
+    return position;
+  }
+}
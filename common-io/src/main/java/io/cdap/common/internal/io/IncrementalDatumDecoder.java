@@ -0,0 +1,349 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import io.cdap.common.io.ByteArrayDecoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Decodes a sequence of datums from bytes that arrive incrementally in chunks of arbitrary size, without ever
+ * blocking for more data. Chunks are given with {@link #feed(ByteBuffer)}, which returns all the datums that are
+ * completed by the chunk.
+ * <p>
+ * Datum boundaries are found by a scanner that walks through the encoded bytes according to the {@link Schema}
+ * and can be suspended at any byte, hence bytes are never scanned twice. A datum that is fully contained in a chunk
+ * is decoded directly from the chunk. Only the bytes of a datum that spans multiple chunks are copied into
+ * an internal buffer.
+ * </p>
+ * <p>
+ * Since datums can be decoded directly from the chunk, {@link ByteBuffer} values produced by the
+ * {@link DatumReader} can be views on the chunk, which shouldn't be modified if those values are still in use.
+ * </p>
+ *
+ * @param <T> type of the decoded datum
+ */
+@NotThreadSafe
+public final class IncrementalDatumDecoder<T> {
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private final Schema schema;
+  private final DatumReader<T> reader;
+  private final Scanner scanner;
+  private final ByteArrayDecoder decoder;
+  private byte[] pending;
+  private int pendingSize;
+
+  /**
+   * Creates a decoder.
+   *
+   * @param schema {@link Schema} of the encoded datums
+   * @param reader the {@link DatumReader} for decoding a complete datum
+   * @throws IllegalArgumentException if the schema can have an empty encoding, which can't be delimited
+   */
+  public IncrementalDatumDecoder(Schema schema, DatumReader<T> reader) {
+    Preconditions.checkArgument(!isEmptyEncoding(schema, Sets.<String>newHashSet()),
+                                "Schema that can be encoded with zero bytes is not supported: %s", schema);
+    this.schema = schema;
+    this.reader = reader;
+    this.scanner = new Scanner(schema);
+    this.decoder = new ByteArrayDecoder(EMPTY);
+    this.pending = EMPTY;
+  }
+
+  /**
+   * Feeds a chunk of bytes to this decoder. All remaining bytes of the buffer are consumed.
+   *
+   * @param chunk the next chunk of encoded bytes
+   * @return the list of datums that are completed with the given chunk, which can be empty
+   * @throws IOException if the encoded bytes are invalid
+   */
+  public List<T> feed(ByteBuffer chunk) throws IOException {
+    byte[] buffer;
+    int position;
+    int limit;
+    if (chunk.hasArray()) {
+      buffer = chunk.array();
+      position = chunk.arrayOffset() + chunk.position();
+      limit = chunk.arrayOffset() + chunk.limit();
+    } else {
+      buffer = new byte[chunk.remaining()];
+      chunk.duplicate().get(buffer);
+      position = 0;
+      limit = buffer.length;
+    }
+    chunk.position(chunk.limit());
+
+    ImmutableList.Builder<T> result = ImmutableList.builder();
+    while (position < limit) {
+      int start = position;
+      position = scanner.scan(buffer, position, limit);
+      if (!scanner.isComplete()) {
+        appendPending(buffer, start, position - start);
+        break;
+      }
+
+      if (pendingSize == 0) {
+        result.add(reader.read(decoder.reset(buffer, start, position - start), schema));
+      } else {
+        appendPending(buffer, start, position - start);
+        result.add(reader.read(decoder.reset(pending, 0, pendingSize), schema));
+        // The decoded datum may reference the buffer, hence it can't be reused
+        pending = EMPTY;
+        pendingSize = 0;
+      }
+      scanner.reset();
+    }
+    return result.build();
+  }
+
+  /**
+   * @return {@code true} if there are bytes of a datum that is not yet completed.
+   */
+  public boolean hasPartialDatum() {
+    return pendingSize > 0;
+  }
+
+  private void appendPending(byte[] buffer, int offset, int length) {
+    if (pending.length < pendingSize + length) {
+      pending = Arrays.copyOf(pending, Math.max(pendingSize + length, pending.length * 2));
+    }
+    System.arraycopy(buffer, offset, pending, pendingSize, length);
+    pendingSize += length;
+  }
+
+  /**
+   * Returns {@code true} if values of the given schema can be encoded with zero bytes.
+   */
+  private static boolean isEmptyEncoding(Schema schema, Set<String> seenRecords) {
+    switch (schema.getType()) {
+      case NULL:
+        return true;
+      case RECORD:
+        if (!seenRecords.add(schema.getRecordName())) {
+          return false;
+        }
+        for (Schema.Field field : schema.getFields()) {
+          if (!isEmptyEncoding(field.getSchema(), seenRecords)) {
+            return false;
+          }
+        }
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Finds the end of an encoded datum by walking through the bytes according to the schema. The walk can be
+   * suspended at any byte when the end of a chunk is reached, and resumed with the next chunk.
+   */
+  private static final class Scanner {
+
+    /**
+     * The purpose of the varint being read.
+     */
+    private enum VarInt {
+      VALUE, LENGTH, UNION_INDEX, BLOCK_COUNT
+    }
+
+    private final Schema schema;
+    // Contains either Schema of the values to be scanned or Block for the array or map being scanned
+    private final Deque<Object> stack;
+    private long skip;
+    private VarInt varInt;
+    private long varIntValue;
+    private int varIntShift;
+    private Schema unionSchema;
+
+    Scanner(Schema schema) {
+      this.schema = schema;
+      this.stack = new ArrayDeque<Object>();
+      reset();
+    }
+
+    /**
+     * Resets to the start of a datum.
+     */
+    void reset() {
+      stack.clear();
+      stack.push(schema);
+      skip = 0;
+      varInt = null;
+    }
+
+    /**
+     * @return {@code true} if the end of the datum is reached.
+     */
+    boolean isComplete() {
+      return stack.isEmpty() && skip == 0 && varInt == null;
+    }
+
+    /**
+     * Scans the given range of bytes until the end of the datum or the end of the range.
+     *
+     * @return the position after the last byte scanned
+     */
+    int scan(byte[] buffer, int position, int limit) throws IOException {
+      while (true) {
+        if (skip > 0) {
+          int len = (int) Math.min(skip, limit - position);
+          position += len;
+          skip -= len;
+          if (skip > 0) {
+            return position;
+          }
+        }
+
+        if (varInt != null) {
+          boolean done = false;
+          while (!done && position < limit) {
+            int b = buffer[position++] & 0xff;
+            if (varIntShift > 63) {
+              throw new IOException("Invalid variable length integer");
+            }
+            varIntValue |= (long) (b & 0x7f) << varIntShift;
+            varIntShift += 7;
+            done = b < 0x80;
+          }
+          if (!done) {
+            return position;
+          }
+          VarInt type = varInt;
+          varInt = null;
+          onVarInt(type, (varIntValue >>> 1) ^ -(varIntValue & 1));
+          continue;
+        }
+
+        if (stack.isEmpty()) {
+          return position;
+        }
+
+        Object top = stack.peek();
+        if (top instanceof Block) {
+          Block block = (Block) top;
+          if (block.remaining == 0) {
+            startVarInt(VarInt.BLOCK_COUNT);
+          } else {
+            block.remaining--;
+            if (block.schema.getType() == Schema.Type.MAP) {
+              stack.push(block.schema.getMapSchema().getValue());
+              stack.push(block.schema.getMapSchema().getKey());
+            } else {
+              stack.push(block.schema.getComponentSchema());
+            }
+          }
+          continue;
+        }
+
+        Schema valueSchema = (Schema) stack.pop();
+        switch (valueSchema.getType()) {
+          case NULL:
+            break;
+          case BOOLEAN:
+            skip = 1;
+            break;
+          case INT:
+          case LONG:
+          case ENUM:
+            startVarInt(VarInt.VALUE);
+            break;
+          case FLOAT:
+            skip = 4;
+            break;
+          case DOUBLE:
+            skip = 8;
+            break;
+          case STRING:
+          case BYTES:
+            startVarInt(VarInt.LENGTH);
+            break;
+          case ARRAY:
+          case MAP:
+            stack.push(new Block(valueSchema));
+            break;
+          case RECORD:
+            List<Schema.Field> fields = valueSchema.getFields();
+            for (int i = fields.size() - 1; i >= 0; i--) {
+              stack.push(fields.get(i).getSchema());
+            }
+            break;
+          case UNION:
+            unionSchema = valueSchema;
+            startVarInt(VarInt.UNION_INDEX);
+            break;
+        }
+      }
+    }
+
+    private void startVarInt(VarInt type) {
+      varInt = type;
+      varIntValue = 0;
+      varIntShift = 0;
+    }
+
+    private void onVarInt(VarInt type, long value) throws IOException {
+      switch (type) {
+        case LENGTH:
+          if (value < 0) {
+            throw new IOException("Invalid length " + value);
+          }
+          skip = value;
+          break;
+        case UNION_INDEX:
+          if (value < 0 || value >= unionSchema.getUnionSchemas().size()) {
+            throw new IOException("Invalid union index " + value + " for schema " + unionSchema);
+          }
+          stack.push(unionSchema.getUnionSchema((int) value));
+          break;
+        case BLOCK_COUNT:
+          if (value < 0) {
+            throw new IOException("Invalid block count " + value);
+          }
+          if (value == 0) {
+            stack.pop();
+          } else {
+            ((Block) stack.peek()).remaining = value;
+          }
+          break;
+      }
+    }
+  }
+
+  /**
+   * State of an array or map being scanned.
+   */
+  private static final class Block {
+    private final Schema schema;
+    private long remaining;
+
+    Block(Schema schema) {
+      this.schema = schema;
+    }
+  }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.cdap.common.io.ByteArrayDecoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A read-only view of an encoded record that only decodes the fields being accessed. The start offsets of the
+ * fields are discovered by skipping over the preceding fields on first access and are remembered, hence
+ * accessing a field never decodes the values of other fields.
+ * <p>
+ * Field values are returned in generic form based on the field {@link Schema}:
+ * <ul>
+ *   <li>{@code null}, {@link Boolean}, {@link Integer}, {@link Long}, {@link Float}, {@link Double} and
+ *       {@link String} for the simple types</li>
+ *   <li>{@link ByteBuffer} for {@code bytes}, which is a read-only view on the underlying buffer</li>
+ *   <li>the {@link String} value for {@code enum}</li>
+ *   <li>{@link List} for {@code array} and {@link Map} for {@code map}</li>
+ *   <li>{@link LazyRecord} for {@code record}</li>
+ *   <li>the value of the actual branch for {@code union}</li>
+ * </ul>
+ * </p>
+ */
+@NotThreadSafe
+public final class LazyRecord {
+
+  private final Schema schema;
+  private final byte[] buffer;
+  // offsets[i] is the start offset of the i-th field, with the last element being the end of the record
+  private final int[] offsets;
+  private final ByteArrayDecoder decoder;
+  // Number of entries in the offsets array that are known
+  private int indexed;
+
+  /**
+   * Creates a view on a record encoded in the remaining bytes of the given buffer. The buffer content is not
+   * copied if it is backed by an array, hence it shouldn't be modified while this record is in use.
+   *
+   * @param schema the record {@link Schema} of the encoded data
+   * @param buffer buffer containing the encoded record
+   */
+  public LazyRecord(Schema schema, ByteBuffer buffer) {
+    this(schema, toArray(buffer), buffer.hasArray() ? buffer.arrayOffset() + buffer.position() : 0,
+         buffer.remaining());
+  }
+
+  /**
+   * Creates a view on a record encoded in the given range of a byte array. The array is not copied.
+   *
+   * @param schema the record {@link Schema} of the encoded data
+   * @param buffer byte array containing the encoded record
+   * @param offset offset in the array where the record starts
+   * @param length number of bytes of the encoded record
+   */
+  public LazyRecord(Schema schema, byte[] buffer, int offset, int length) {
+    Preconditions.checkArgument(schema.getType() == Schema.Type.RECORD, "Schema must be a record: %s", schema);
+    Preconditions.checkPositionIndexes(offset, offset + length, buffer.length);
+    this.schema = schema;
+    this.buffer = buffer;
+    this.offsets = new int[schema.getFields().size() + 1];
+    this.offsets[0] = offset;
+    this.decoder = new ByteArrayDecoder(buffer, offset, length);
+    this.indexed = 1;
+  }
+
+  /**
+   * @return the record {@link Schema} of this record.
+   */
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Returns the value of the field with the given name.
+   *
+   * @param name name of the field
+   * @return the field value in generic form
+   * @throws IllegalArgumentException if there is no such field or the encoded data is invalid
+   */
+  @Nullable
+  public Object get(String name) {
+    return get(getPosition(name));
+  }
+
+  /**
+   * Returns the value of the field at the given position in the record schema.
+   *
+   * @param position position of the field
+   * @return the field value in generic form
+   * @throws IllegalArgumentException if the encoded data is invalid
+   * @throws IndexOutOfBoundsException if the position is invalid
+   */
+  @Nullable
+  public Object get(int position) {
+    Schema fieldSchema = schema.getFields().get(position).getSchema();
+    try {
+      return decode(seek(position), fieldSchema);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to decode field at position " + position
+                                           + " of record " + schema.getRecordName(), e);
+    }
+  }
+
+  /**
+   * Returns the encoded bytes of the field with the given name, without decoding it.
+   *
+   * @param name name of the field
+   * @return a read-only {@link ByteBuffer} view on the encoded field
+   * @throws IllegalArgumentException if there is no such field or the encoded data is invalid
+   */
+  public ByteBuffer getEncoded(String name) {
+    return getEncoded(getPosition(name));
+  }
+
+  /**
+   * Returns the encoded bytes of the field at the given position in the record schema, without decoding it.
+   *
+   * @param position position of the field
+   * @return a read-only {@link ByteBuffer} view on the encoded field
+   * @throws IllegalArgumentException if the encoded data is invalid
+   * @throws IndexOutOfBoundsException if the position is invalid
+   */
+  public ByteBuffer getEncoded(int position) {
+    Preconditions.checkElementIndex(position, offsets.length - 1);
+    try {
+      index(position + 1);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Failed to decode field at position " + position
+                                           + " of record " + schema.getRecordName(), e);
+    }
+    int start = offsets[position];
+    return ByteBuffer.wrap(buffer, start, offsets[position + 1] - start).slice().asReadOnlyBuffer();
+  }
+
+  private int getPosition(String name) {
+    int position = schema.getFieldIndex(name);
+    if (position < 0) {
+      throw new IllegalArgumentException("Field " + name + " not exists in record " + schema.getRecordName());
+    }
+    return position;
+  }
+
+  /**
+   * Positions the decoder at the start of the field at the given position.
+   */
+  private ByteArrayDecoder seek(int position) throws IOException {
+    Preconditions.checkElementIndex(position, offsets.length - 1);
+    index(position);
+    return decoder.setPosition(offsets[position]);
+  }
+
+  /**
+   * Makes sure the offsets up to the given index are known, by skipping fields after the last known one.
+   */
+  private void index(int idx) throws IOException {
+    if (idx < indexed) {
+      return;
+    }
+    List<Schema.Field> fields = schema.getFields();
+    decoder.setPosition(offsets[indexed - 1]);
+    while (indexed <= idx) {
+      Decoders.skip(decoder, fields.get(indexed - 1).getSchema());
+      offsets[indexed++] = decoder.getPosition();
+    }
+  }
+
+  @Nullable
+  private Object decode(ByteArrayDecoder decoder, Schema schema) throws IOException {
+    switch (schema.getType()) {
+      case NULL:
+        return decoder.readNull();
+      case BOOLEAN:
+        return decoder.readBool();
+      case INT:
+        return decoder.readInt();
+      case LONG:
+        return decoder.readLong();
+      case FLOAT:
+        return decoder.readFloat();
+      case DOUBLE:
+        return decoder.readDouble();
+      case BYTES:
+        return decoder.readBytes().asReadOnlyBuffer();
+      case STRING:
+        return decoder.readString();
+      case ENUM:
+        return schema.getEnumValue(decoder.readInt());
+      case ARRAY: {
+        Schema componentSchema = schema.getComponentSchema();
+        int len = decoder.readInt();
+        List<Object> list = Lists.newArrayListWithCapacity(len);
+        while (len != 0) {
+          for (int i = 0; i < len; i++) {
+            list.add(decode(decoder, componentSchema));
+          }
+          len = decoder.readInt();
+        }
+        return list;
+      }
+      case MAP: {
+        Map.Entry<Schema, Schema> mapSchema = schema.getMapSchema();
+        int len = decoder.readInt();
+        Map<Object, Object> map = Maps.newLinkedHashMap();
+        while (len != 0) {
+          for (int i = 0; i < len; i++) {
+            Object key = decode(decoder, mapSchema.getKey());
+            map.put(key, decode(decoder, mapSchema.getValue()));
+          }
+          len = decoder.readInt();
+        }
+        return map;
+      }
+      case RECORD: {
+        int start = decoder.getPosition();
+        Decoders.skip(decoder, schema);
+        return new LazyRecord(schema, buffer, start, decoder.getPosition() - start);
+      }
+      case UNION:
+        return decode(decoder, schema.getUnionSchema(decoder.readInt()));
+    }
+    throw new IOException("Unsupported schema type " + schema.getType());
+  }
+
+  private static byte[] toArray(ByteBuffer buffer) {
+    if (buffer.hasArray()) {
+      return buffer.array();
+    }
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import io.cdap.common.io.BinaryEncoder;
+import io.cdap.common.io.ByteArrayDecoder;
+import io.cdap.common.io.Decoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * A {@link DatumReader} that reads a record as a {@link LazyRecord}, which decodes fields only when they are
+ * accessed. When reading from a {@link ByteArrayDecoder}, the record is skipped over and the resulting
+ * {@link LazyRecord} is a view on the decoder buffer without copying. For other {@link Decoder}, the encoded
+ * record is copied into a new buffer.
+ */
+public final class LazyRecordDatumReader implements DatumReader<LazyRecord> {
+
+  @Override
+  public LazyRecord read(Decoder decoder, Schema sourceSchema) throws IOException {
+    if (sourceSchema.getType() != Schema.Type.RECORD) {
+      throw new IOException("Only record schema is supported: " + sourceSchema);
+    }
+
+    if (decoder instanceof ByteArrayDecoder) {
+      ByteArrayDecoder arrayDecoder = (ByteArrayDecoder) decoder;
+      int start = arrayDecoder.getPosition();
+      Decoders.skip(arrayDecoder, sourceSchema);
+      return new LazyRecord(sourceSchema, arrayDecoder.getBuffer(), start, arrayDecoder.getPosition() - start);
+    }
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    Decoders.copy(decoder, sourceSchema, new BinaryEncoder(os));
+    byte[] bytes = os.toByteArray();
+    return new LazyRecord(sourceSchema, bytes, 0, bytes.length);
+  }
+}
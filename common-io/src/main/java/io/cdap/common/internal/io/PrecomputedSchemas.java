@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.io.Closeables;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import javax.annotation.Nullable;
+
+/**
+ * Provides access to the {@link Schema} of classes annotated with {@link DatumSchema}, which are generated at
+ * compile time and stored as a json class resource named by {@link #getResourceName(String)}.
+ */
+public final class PrecomputedSchemas {
+
+  private static final String RESOURCE_PREFIX = "META-INF/io.cdap.common/schemas/";
+
+  // Using ClassValue so that the loaded schemas don't prevent classes from being unloaded
+  private static final ClassValue<Optional<Schema>> SCHEMAS = new ClassValue<Optional<Schema>>() {
+    @Override
+    protected Optional<Schema> computeValue(Class<?> type) {
+      try {
+        return Optional.fromNullable(load(type));
+      } catch (IOException e) {
+        throw Throwables.propagate(e);
+      }
+    }
+  };
+
+  /**
+   * Returns the name of the class resource that contains the schema of the given class.
+   *
+   * @param className the binary name of the class
+   */
+  public static String getResourceName(String className) {
+    return RESOURCE_PREFIX + className + ".json";
+  }
+
+  /**
+   * Returns the precomputed {@link Schema} of the given class. The schema is generated with recursive types accepted.
+   *
+   * @param type the class to get schema for
+   * @return the {@link Schema} or {@code null} if the class is not annotated with {@link DatumSchema}
+   *         or the schema was not generated at compile time.
+   */
+  @Nullable
+  public static Schema get(Class<?> type) {
+    if (!type.isAnnotationPresent(DatumSchema.class)) {
+      return null;
+    }
+    return SCHEMAS.get(type).orNull();
+  }
+
+  @Nullable
+  private static Schema load(Class<?> type) throws IOException {
+    ClassLoader classLoader = type.getClassLoader();
+    if (classLoader == null) {
+      classLoader = ClassLoader.getSystemClassLoader();
+    }
+    InputStream is = classLoader.getResourceAsStream(getResourceName(type.getName()));
+    if (is == null) {
+      return null;
+    }
+    Reader reader = new InputStreamReader(is, Charsets.UTF_8);
+    try {
+      return new SchemaTypeAdapter().fromJson(reader);
+    } finally {
+      Closeables.closeQuietly(reader);
+    }
+  }
+
+  private PrecomputedSchemas() {
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.base.Defaults;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.reflect.TypeToken;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Creates instances of a record class by calling a constructor with the decoded field values.
+ * It is used for Java record classes, through the canonical constructor, and for classes that have a constructor
+ * annotated with {@link DatumConstructor}.
+ * <p>
+ * The constructor is called through a {@link MethodHandle} that takes the arguments as an {@code Object[]},
+ * hence no reflection is involved when creating an instance.
+ * </p>
+ */
+final class RecordConstructor {
+
+  private final MethodHandle handle;
+  private final Map<String, Integer> positions;
+  private final TypeToken<?>[] types;
+  private final Object[] defaults;
+
+  /**
+   * Returns a {@link RecordConstructor} for the given type, or {@code null} if the type is neither a Java record
+   * nor has a constructor annotated with {@link DatumConstructor}.
+   *
+   * @throws IllegalArgumentException if the constructor cannot be used
+   */
+  @Nullable
+  static RecordConstructor create(TypeToken<?> type) {
+    Class<?> rawType = type.getRawType();
+
+    for (Constructor<?> constructor : rawType.getDeclaredConstructors()) {
+      DatumConstructor annotation = constructor.getAnnotation(DatumConstructor.class);
+      if (annotation != null) {
+        String[] names = annotation.value().length == 0 ? getParameterNames(constructor) : annotation.value();
+        return new RecordConstructor(type, constructor, names);
+      }
+    }
+
+    String[] names = getRecordComponentNames(rawType);
+    if (names == null) {
+      return null;
+    }
+    Class<?>[] componentTypes = getRecordComponentTypes(rawType);
+    try {
+      return new RecordConstructor(type, rawType.getDeclaredConstructor(componentTypes), names);
+    } catch (NoSuchMethodException e) {
+      // Shouldn't happen, as a record class always has the canonical constructor
+      throw new IllegalArgumentException("No canonical constructor found for record " + rawType, e);
+    }
+  }
+
+  private RecordConstructor(TypeToken<?> type, Constructor<?> constructor, String[] names) {
+    java.lang.reflect.Type[] paramTypes = constructor.getGenericParameterTypes();
+    Preconditions.checkArgument(names.length == paramTypes.length,
+                                "Number of field names %s doesn't match with constructor %s",
+                                Arrays.toString(names), constructor);
+
+    ImmutableMap.Builder<String, Integer> positions = ImmutableMap.builder();
+    this.types = new TypeToken<?>[paramTypes.length];
+    this.defaults = new Object[paramTypes.length];
+    for (int i = 0; i < paramTypes.length; i++) {
+      positions.put(names[i], i);
+      types[i] = type.resolveType(paramTypes[i]);
+      // Primitive parameter cannot be null, use the default value if the field is absent
+      defaults[i] = Defaults.defaultValue(types[i].getRawType());
+    }
+    this.positions = positions.build();
+
+    try {
+      constructor.setAccessible(true);
+      this.handle = MethodHandles.lookup().unreflectConstructor(constructor)
+        .asSpreader(Object[].class, paramTypes.length)
+        .asType(MethodType.methodType(Object.class, Object[].class));
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException("Constructor is not accessible: " + constructor, e);
+    }
+  }
+
+  /**
+   * Returns the constructor parameter position for the given record field, or {@code -1} if the field
+   * is not a parameter of the constructor.
+   */
+  int getPosition(String fieldName) {
+    Integer position = positions.get(fieldName);
+    return position == null ? -1 : position;
+  }
+
+  /**
+   * Returns the type of the constructor parameter at the given position.
+   */
+  TypeToken<?> getType(int position) {
+    return types[position];
+  }
+
+  /**
+   * Returns a new array for buffering the constructor arguments, with default values filled in.
+   */
+  Object[] newArguments() {
+    return defaults.clone();
+  }
+
+  /**
+   * Sets the value of the argument at the given position. A {@code null} value for a primitive parameter, such as
+   * from a nullable field, is replaced by the default value of the primitive type.
+   */
+  void setArgument(Object[] arguments, int position, @Nullable Object value) {
+    arguments[position] = value == null ? defaults[position] : value;
+  }
+
+  /**
+   * Creates a new instance by calling the constructor with the given arguments.
+   */
+  Object newInstance(Object[] arguments) {
+    try {
+      return (Object) handle.invokeExact(arguments);
+    } catch (Throwable t) {
+      throw Throwables.propagate(t);
+    }
+  }
+
+  private static String[] getParameterNames(Constructor<?> constructor) {
+    Parameter[] parameters = constructor.getParameters();
+    String[] names = new String[parameters.length];
+    for (int i = 0; i < parameters.length; i++) {
+      Preconditions.checkArgument(parameters[i].isNamePresent(),
+                                  "Parameter names are not available for constructor %s. " +
+                                    "Either compile with -parameters or provide names in @%s.",
+                                  constructor, DatumConstructor.class.getSimpleName());
+      names[i] = parameters[i].getName();
+    }
+    return names;
+  }
+
+  /**
+   * Returns the component names if the given class is a Java record, otherwise returns {@code null}.
+   * Reflection is used since records are not available in all supported Java versions.
+   */
+  @Nullable
+  private static String[] getRecordComponentNames(Class<?> cls) {
+    Object[] components = getRecordComponents(cls);
+    if (components == null) {
+      return null;
+    }
+    String[] names = new String[components.length];
+    for (int i = 0; i < components.length; i++) {
+      names[i] = (String) invoke(components[i], "getName");
+    }
+    return names;
+  }
+
+  private static Class<?>[] getRecordComponentTypes(Class<?> cls) {
+    Object[] components = getRecordComponents(cls);
+    Class<?>[] types = new Class<?>[components.length];
+    for (int i = 0; i < components.length; i++) {
+      types[i] = (Class<?>) invoke(components[i], "getType");
+    }
+    return types;
+  }
+
+  @Nullable
+  private static Object[] getRecordComponents(Class<?> cls) {
+    try {
+      if (!(Boolean) Class.class.getMethod("isRecord").invoke(cls)) {
+        return null;
+      }
+    } catch (NoSuchMethodException e) {
+      // Java version without record support
+      return null;
+    } catch (Exception e) {
+      throw Throwables.propagate(e);
+    }
+    Object components = invoke(cls, "getRecordComponents");
+    Object[] result = new Object[Array.getLength(components)];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = Array.get(components, i);
+    }
+    return result;
+  }
+
+  private static Object invoke(Object obj, String methodName) {
+    try {
+      Method method = obj.getClass().getMethod(methodName);
+      return method.invoke(obj);
+    } catch (Exception e) {
+      throw Throwables.propagate(e);
+    }
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.reflect.TypeToken;
+import io.cdap.common.io.ByteArrayDecoder;
+import io.cdap.common.io.Decoder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * A precomputed plan for reading a record encoded with a source {@link Schema} into a target type with a target
+ * {@link Schema}. The plan has one {@link Step} per source field that is read, and consecutive source fields that
+ * are not in the target are merged into a single skip step. Field lookups by name are only done when
+ * the plan is created, hence the cost of reading a record depends on the number of fields being read.
+ */
+final class RecordProjection {
+
+  private final TypeToken<?> type;
+  private final List<Step> steps;
+  private final List<FieldAccessor> missingFields;
+
+  /**
+   * Creates a projection plan.
+   *
+   * @param sourceSchema record schema of the encoded data
+   * @param targetSchema record schema of the target type
+   * @param type the target type
+   * @param constructor the {@link RecordConstructor} for the target type or {@code null} if the record is
+   *                    created by an {@link io.cdap.common.lang.Instantiator} and have fields set individually
+   * @param fieldAccessorFactory factory for getting {@link FieldAccessor} of the target fields
+   */
+  RecordProjection(Schema sourceSchema, Schema targetSchema, TypeToken<?> type,
+                   @Nullable RecordConstructor constructor, FieldAccessorFactory fieldAccessorFactory) {
+    this.type = type;
+
+    ImmutableList.Builder<Step> steps = ImmutableList.builder();
+    List<Schema> skipSchemas = Lists.newArrayList();
+    List<Schema.Field> sourceFields = sourceSchema.getFields();
+    List<Schema.Field> targetFields = targetSchema.getFields();
+    int[] fieldMapping = sourceSchema.getFieldMapping(targetSchema);
+    for (int i = 0; i < sourceFields.size(); i++) {
+      Schema.Field sourceField = sourceFields.get(i);
+      String name = sourceField.getName();
+      Schema.Field targetField = fieldMapping[i] < 0 ? null : targetFields.get(fieldMapping[i]);
+      int position = -1;
+      if (targetField != null && constructor != null) {
+        position = constructor.getPosition(name);
+        if (position < 0) {
+          targetField = null;
+        }
+      }
+      if (targetField == null) {
+        skipSchemas.add(sourceField.getSchema());
+        continue;
+      }
+      if (!skipSchemas.isEmpty()) {
+        steps.add(new Step(skipSchemas));
+        skipSchemas.clear();
+      }
+      FieldAccessor fieldAccessor = constructor == null ? fieldAccessorFactory.getFieldAccessor(type, name) : null;
+      steps.add(new Step(sourceField.getSchema(), targetField.getSchema(), fieldAccessor, position));
+    }
+    if (!skipSchemas.isEmpty()) {
+      steps.add(new Step(skipSchemas));
+    }
+    this.steps = steps.build();
+
+    ImmutableList.Builder<FieldAccessor> missingFields = ImmutableList.builder();
+    if (constructor == null) {
+      int[] sourcePositions = targetSchema.getFieldMapping(sourceSchema);
+      for (int i = 0; i < sourcePositions.length; i++) {
+        if (sourcePositions[i] < 0) {
+          missingFields.add(fieldAccessorFactory.getFieldAccessor(type, targetFields.get(i).getName()));
+        }
+      }
+    }
+    this.missingFields = missingFields.build();
+  }
+
+  /**
+   * @return the target type that this plan is created for.
+   */
+  TypeToken<?> getType() {
+    return type;
+  }
+
+  /**
+   * @return the list of {@link Step} for reading a record.
+   */
+  List<Step> getSteps() {
+    return steps;
+  }
+
+  /**
+   * @return the {@link FieldAccessor} of each target field that is not in the source, which is empty if the record
+   *         is created through a {@link RecordConstructor}.
+   */
+  List<FieldAccessor> getMissingFields() {
+    return missingFields;
+  }
+
+  /**
+   * A step in reading a record. It either skips one or more source fields, or reads a source field into a target
+   * field.
+   */
+  static final class Step {
+
+    private final Schema[] skipSchemas;
+    private final int skipSize;
+    private final Schema sourceSchema;
+    private final Schema targetSchema;
+    private final FieldAccessor fieldAccessor;
+    private final int position;
+
+    private Step(List<Schema> skipSchemas) {
+      this.skipSchemas = skipSchemas.toArray(new Schema[skipSchemas.size()]);
+      int size = 0;
+      for (Schema schema : skipSchemas) {
+        int fixedSize = getFixedSize(schema, Sets.<String>newHashSet());
+        if (fixedSize < 0) {
+          size = -1;
+          break;
+        }
+        size += fixedSize;
+      }
+      this.skipSize = size;
+      this.sourceSchema = null;
+      this.targetSchema = null;
+      this.fieldAccessor = null;
+      this.position = -1;
+    }
+
+    private Step(Schema sourceSchema, Schema targetSchema, @Nullable FieldAccessor fieldAccessor, int position) {
+      this.skipSchemas = null;
+      this.skipSize = -1;
+      this.sourceSchema = sourceSchema;
+      this.targetSchema = targetSchema;
+      this.fieldAccessor = fieldAccessor;
+      this.position = position;
+    }
+
+    /**
+     * @return {@code true} if this step skips source fields.
+     */
+    boolean isSkip() {
+      return skipSchemas != null;
+    }
+
+    /**
+     * Skips the source fields of this step. If all the fields have fixed encoded size, the bytes are skipped
+     * at once when possible.
+     */
+    void skip(Decoder decoder) throws IOException {
+      if (skipSize >= 0 && decoder instanceof ByteArrayDecoder) {
+        ((ByteArrayDecoder) decoder).skipRaw(skipSize);
+        return;
+      }
+      for (Schema schema : skipSchemas) {
+        Decoders.skip(decoder, schema);
+      }
+    }
+
+    Schema getSourceSchema() {
+      return sourceSchema;
+    }
+
+    Schema getTargetSchema() {
+      return targetSchema;
+    }
+
+    /**
+     * @return the {@link FieldAccessor} for setting the target field, or {@code null} if the record is created
+     *         through a {@link RecordConstructor}.
+     */
+    @Nullable
+    FieldAccessor getFieldAccessor() {
+      return fieldAccessor;
+    }
+
+    /**
+     * @return the position of the target field in the {@link RecordConstructor} arguments.
+     */
+    int getPosition() {
+      return position;
+    }
+  }
+
+  /**
+   * Returns the number of bytes that a value of the given schema always has when encoded,
+   * or {@code -1} if it varies.
+   */
+  private static int getFixedSize(Schema schema, Set<String> seenRecords) {
+    switch (schema.getType()) {
+      case NULL:
+        return 0;
+      case BOOLEAN:
+        return 1;
+      case FLOAT:
+        return 4;
+      case DOUBLE:
+        return 8;
+      case RECORD: {
+        if (!seenRecords.add(schema.getRecordName())) {
+          // Recursive record can't have fixed size
+          return -1;
+        }
+        int size = 0;
+        for (Schema.Field field : schema.getFields()) {
+          int fieldSize = getFixedSize(field.getSchema(), seenRecords);
+          if (fieldSize < 0) {
+            return -1;
+          }
+          size += fieldSize;
+        }
+        seenRecords.remove(schema.getRecordName());
+        return size;
+      }
+      default:
+        return -1;
+    }
+  }
+}
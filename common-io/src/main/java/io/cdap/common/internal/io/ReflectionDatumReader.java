@@ -16,8 +16,13 @@
 
 package io.cdap.common.internal.io;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
 import com.google.common.primitives.Longs;
 import com.google.common.reflect.TypeToken;
 import io.cdap.common.io.Decoder;
@@ -31,9 +36,14 @@ import java.lang.reflect.Type;
 import java.net.URI;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import javax.annotation.Nullable;
 
 /**
  * Reflection based Datnum Reader.
@@ -42,11 +52,17 @@ import java.util.UUID;
  */
 public final class ReflectionDatumReader<T> implements DatumReader<T> {
 
+  // Maximum number of elements to preallocate based on a block count read from the data
+  private static final int MAX_PRESIZE = 1024;
+
   private final Schema schema;
   private final TypeToken<T> type;
   private final Map<Class<?>, Instantiator<?>> creators;
   private final InstantiatorFactory creatorFactory;
   private final FieldAccessorFactory fieldAccessorFactory;
+  private final Table<Schema, Schema, Enum<?>[]> enumTables;
+  private final Map<Class<?>, Optional<RecordConstructor>> recordConstructors;
+  private final Table<Schema, Schema, RecordProjection> projections;
 
   @SuppressWarnings("unchecked")
   public ReflectionDatumReader(Schema schema, TypeToken<T> type) {
@@ -55,33 +71,57 @@ public final class ReflectionDatumReader<T> implements DatumReader<T> {
     this.creatorFactory = new InstantiatorFactory(true);
     this.creators = Maps.newIdentityHashMap();
     this.fieldAccessorFactory = new ReflectionFieldAccessorFactory();
+    this.enumTables = HashBasedTable.create();
+    this.recordConstructors = Maps.newIdentityHashMap();
+    this.projections = HashBasedTable.create();
   }
 
   @SuppressWarnings("unchecked")
   @Override
   public T read(Decoder decoder, Schema sourceSchema) throws IOException {
-    return (T) read(decoder, sourceSchema, schema, type);
+    return (T) read(decoder, sourceSchema, schema, type, null);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * For a record, the given object is filled in place. Existing collections and maps in the record are cleared
+   * and refilled, and nested records are filled in place as well. A new object is only created if the existing
+   * one is {@code null}, of a different type or cannot be modified. Target fields that are not in the source
+   * are set to the values of a new instance, so that the result is the same as reading without reuse.
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public T read(Decoder decoder, Schema sourceSchema, @Nullable T reuse) throws IOException {
+    return (T) read(decoder, sourceSchema, schema, type, reuse);
   }
 
-  private Object read(Decoder decoder, Schema sourceSchema,
-                      Schema targetSchema, TypeToken<?> targetTypeToken) throws IOException {
+  private Object read(Decoder decoder, Schema sourceSchema, Schema targetSchema,
+                      TypeToken<?> targetTypeToken, @Nullable Object reuse) throws IOException {
 
     if (sourceSchema.getType() != Schema.Type.UNION && targetSchema.getType() == Schema.Type.UNION) {
-      // Try every target schemas
+      // Try every target schemas. The existing value is only reused for the first compatible schema,
+      // as a failed read may have modified it partially.
+      Object branchReuse = reuse;
       for (Schema schema : targetSchema.getUnionSchemas()) {
+        Object value = null;
+        if (branchReuse != null && sourceSchema.isCompatible(schema)) {
+          value = branchReuse;
+          branchReuse = null;
+        }
         try {
-          return doRead(decoder, sourceSchema, schema, targetTypeToken);
+          return doRead(decoder, sourceSchema, schema, targetTypeToken, value);
         } catch (IOException e) {
           // Continue;
         }
       }
       throw new IOException(String.format("No matching schema to resolve %s to %s", sourceSchema, targetSchema));
     }
-    return doRead(decoder, sourceSchema, targetSchema, targetTypeToken);
+    return doRead(decoder, sourceSchema, targetSchema, targetTypeToken, reuse);
   }
 
-  private Object doRead(Decoder decoder, Schema sourceSchema,
-                        Schema targetSchema, TypeToken<?> targetTypeToken) throws IOException {
+  private Object doRead(Decoder decoder, Schema sourceSchema, Schema targetSchema,
+                        TypeToken<?> targetTypeToken, @Nullable Object reuse) throws IOException {
 
     Schema.Type sourceType = sourceSchema.getType();
     Schema.Type targetType = targetSchema.getType();
@@ -94,24 +134,19 @@ public final class ReflectionDatumReader<T> implements DatumReader<T> {
         check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
         return readBytes(decoder, targetTypeToken);
       case ENUM:
-        String enumValue = sourceSchema.getEnumValue(decoder.readInt());
-        check(targetSchema.getEnumValues().contains(enumValue), "Enum value '%s' missing in target.", enumValue);
-        try {
-          return targetTypeToken.getRawType().getMethod("valueOf", String.class).invoke(null, enumValue);
-        } catch (Exception e) {
-          throw new IOException(e);
-        }
+        check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+        return readEnum(decoder, sourceSchema, targetSchema, targetTypeToken);
       case ARRAY:
         check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
-        return readArray(decoder, sourceSchema, targetSchema, targetTypeToken);
+        return readArray(decoder, sourceSchema, targetSchema, targetTypeToken, reuse);
       case MAP:
         check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
-        return readMap(decoder, sourceSchema, targetSchema, targetTypeToken);
+        return readMap(decoder, sourceSchema, targetSchema, targetTypeToken, reuse);
       case RECORD:
         check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
-        return readRecord(decoder, sourceSchema, targetSchema, targetTypeToken);
+        return readRecord(decoder, sourceSchema, targetSchema, targetTypeToken, reuse);
       case UNION:
-        return readUnion(decoder, sourceSchema, targetSchema, targetTypeToken);
+        return readUnion(decoder, sourceSchema, targetSchema, targetTypeToken, reuse);
     }
     // For simple type other than NULL and BYTES
     if (sourceType.isSimpleType()) {
@@ -143,79 +178,249 @@ public final class ReflectionDatumReader<T> implements DatumReader<T> {
     return buffer;
   }
 
+  private Object readEnum(Decoder decoder, Schema sourceSchema,
+                          Schema targetSchema, TypeToken<?> targetTypeToken) throws IOException {
+    Class<?> enumClass = targetTypeToken.getRawType();
+    check(enumClass.isEnum(), "Only enum type is supported for enum value.");
+
+    // The table is computed once per source schema, target schema and enum class
+    Enum<?>[] table = enumTables.get(sourceSchema, targetSchema);
+    if (table == null || table.getClass().getComponentType() != enumClass) {
+      table = EnumTables.createReadTable(sourceSchema, targetSchema, enumClass);
+      enumTables.put(sourceSchema, targetSchema, table);
+    }
+
+    int idx = decoder.readInt();
+    check(idx >= 0 && idx < table.length, "Enum index %s out of range for %s.", idx, sourceSchema);
+    if (table[idx] == null) {
+      throw new IOException(String.format("Enum value '%s' missing in target.", sourceSchema.getEnumValue(idx)));
+    }
+    return table[idx];
+  }
+
   @SuppressWarnings("unchecked")
-  private Object readArray(Decoder decoder, Schema sourceSchema,
-                           Schema targetSchema, TypeToken<?> targetTypeToken) throws IOException {
+  private Object readArray(Decoder decoder, Schema sourceSchema, Schema targetSchema,
+                           TypeToken<?> targetTypeToken, @Nullable Object reuse) throws IOException {
 
-    TypeToken<?> componentType = null;
     if (targetTypeToken.isArray()) {
-      componentType = targetTypeToken.getComponentType();
-    } else if (Collection.class.isAssignableFrom(targetTypeToken.getRawType())) {
-      Type type = targetTypeToken.getType();
-      check(type instanceof ParameterizedType, "Only parameterized type is supported for collection.");
-      componentType = TypeToken.of(((ParameterizedType) type).getActualTypeArguments()[0]);
+      return readJavaArray(decoder, sourceSchema, targetSchema, targetTypeToken, reuse);
     }
-    check(componentType != null, "Only array or collection type is support for array value.");
 
-    int len = decoder.readInt();
-    Collection<Object> collection = (Collection<Object>) create(targetTypeToken);
+    check(Collection.class.isAssignableFrom(targetTypeToken.getRawType()),
+          "Only array or collection type is support for array value.");
+    Type type = targetTypeToken.getType();
+    check(type instanceof ParameterizedType, "Only parameterized type is supported for collection.");
+    TypeToken<?> componentType = TypeToken.of(((ParameterizedType) type).getActualTypeArguments()[0]);
+
+    int len = readCount(decoder);
+    Collection<Object> collection = (Collection<Object>) reuseOrCreate(targetTypeToken, reuse, len);
     while (len != 0) {
       for (int i = 0; i < len; i++) {
         collection.add(read(decoder, sourceSchema.getComponentSchema(),
-                            targetSchema.getComponentSchema(), componentType)
+                            targetSchema.getComponentSchema(), componentType, null)
         );
       }
-      len = decoder.readInt();
+      len = readCount(decoder);
     }
+    return collection;
+  }
 
-    if (targetTypeToken.isArray()) {
-      Object array = Array.newInstance(targetTypeToken.getComponentType().getRawType(), collection.size());
-      int idx = 0;
-      for (Object obj : collection) {
-        Array.set(array, idx++, obj);
+  /**
+   * Reads an array value into a Java array. The array is allocated based on the block count, hence no copying
+   * is needed if all elements of a small array are in one block. A large block is read in chunks of growing size,
+   * so that the allocation follows the elements actually read. Primitive array is filled without boxing if the
+   * element doesn't need type conversion.
+   */
+  private Object readJavaArray(Decoder decoder, Schema sourceSchema, Schema targetSchema,
+                               TypeToken<?> targetTypeToken, @Nullable Object reuse) throws IOException {
+    TypeToken<?> componentType = targetTypeToken.getComponentType();
+    Class<?> componentClass = componentType.getRawType();
+    Schema sourceComponentSchema = sourceSchema.getComponentSchema();
+    Schema targetComponentSchema = targetSchema.getComponentSchema();
+    boolean primitive = componentClass.isPrimitive()
+      && sourceComponentSchema.getType() == targetComponentSchema.getType()
+      && isPrimitiveOf(sourceComponentSchema.getType(), componentClass);
+
+    // Elements of the existing array are reused by position
+    Object array = isInstance(targetTypeToken, reuse) ? reuse : null;
+    int capacity = array == null ? 0 : Array.getLength(array);
+    int size = 0;
+
+    int len = readCount(decoder);
+    while (len != 0) {
+      while (len > 0) {
+        // At most doubles the array, hence a corrupted block count doesn't allocate a large array upfront
+        int count = Math.min(len, Math.max(MAX_PRESIZE, size));
+        if (capacity < size + count) {
+          Object newArray = Array.newInstance(componentClass, size + count);
+          if (size > 0) {
+            System.arraycopy(array, 0, newArray, 0, size);
+          }
+          array = newArray;
+          capacity = size + count;
+        }
+        if (primitive) {
+          readPrimitives(decoder, sourceComponentSchema.getType(), array, size, count);
+        } else if (componentClass.isPrimitive()) {
+          for (int i = size; i < size + count; i++) {
+            Array.set(array, i, read(decoder, sourceComponentSchema, targetComponentSchema, componentType, null));
+          }
+        } else {
+          Object[] objects = (Object[]) array;
+          for (int i = size; i < size + count; i++) {
+            objects[i] = read(decoder, sourceComponentSchema, targetComponentSchema, componentType, objects[i]);
+          }
+        }
+        size += count;
+        len -= count;
       }
-      return array;
+      len = readCount(decoder);
     }
-    return collection;
+
+    if (array == null) {
+      return Array.newInstance(componentClass, 0);
+    }
+    if (capacity != size) {
+      Object newArray = Array.newInstance(componentClass, size);
+      System.arraycopy(array, 0, newArray, 0, size);
+      array = newArray;
+    }
+    return array;
+  }
+
+  /**
+   * Returns {@code true} if values of the given schema type can be stored in the given primitive class
+   * without conversion.
+   */
+  private boolean isPrimitiveOf(Schema.Type type, Class<?> primitiveClass) {
+    switch (type) {
+      case BOOLEAN:
+        return primitiveClass == boolean.class;
+      case INT:
+        return primitiveClass == int.class || primitiveClass == short.class
+          || primitiveClass == char.class || primitiveClass == byte.class;
+      case LONG:
+        return primitiveClass == long.class;
+      case FLOAT:
+        return primitiveClass == float.class;
+      case DOUBLE:
+        return primitiveClass == double.class;
+    }
+    return false;
+  }
+
+  /**
+   * Reads a block of primitive values of the given type directly into a primitive array.
+   */
+  private void readPrimitives(Decoder decoder, Schema.Type type,
+                              Object array, int offset, int len) throws IOException {
+    int end = offset + len;
+    switch (type) {
+      case BOOLEAN: {
+        boolean[] values = (boolean[]) array;
+        for (int i = offset; i < end; i++) {
+          values[i] = decoder.readBool();
+        }
+        return;
+      }
+      case INT:
+        if (array instanceof int[]) {
+          int[] values = (int[]) array;
+          for (int i = offset; i < end; i++) {
+            values[i] = decoder.readInt();
+          }
+        } else if (array instanceof short[]) {
+          short[] values = (short[]) array;
+          for (int i = offset; i < end; i++) {
+            values[i] = (short) decoder.readInt();
+          }
+        } else if (array instanceof char[]) {
+          char[] values = (char[]) array;
+          for (int i = offset; i < end; i++) {
+            values[i] = (char) decoder.readInt();
+          }
+        } else {
+          byte[] values = (byte[]) array;
+          for (int i = offset; i < end; i++) {
+            values[i] = (byte) decoder.readInt();
+          }
+        }
+        return;
+      case LONG: {
+        long[] values = (long[]) array;
+        for (int i = offset; i < end; i++) {
+          values[i] = decoder.readLong();
+        }
+        return;
+      }
+      case FLOAT: {
+        float[] values = (float[]) array;
+        for (int i = offset; i < end; i++) {
+          values[i] = decoder.readFloat();
+        }
+        return;
+      }
+      case DOUBLE: {
+        double[] values = (double[]) array;
+        for (int i = offset; i < end; i++) {
+          values[i] = decoder.readDouble();
+        }
+        return;
+      }
+    }
+    throw new IOException("Fail to read " + type + " into " + array.getClass().getComponentType() + " array");
   }
 
   @SuppressWarnings("unchecked")
-  private Map<Object, Object> readMap(Decoder decoder, Schema sourceSchema,
-                                      Schema targetSchema, TypeToken<?> targetTypeToken) throws IOException {
+  private Map<Object, Object> readMap(Decoder decoder, Schema sourceSchema, Schema targetSchema,
+                                      TypeToken<?> targetTypeToken, @Nullable Object reuse) throws IOException {
     check(Map.class.isAssignableFrom(targetTypeToken.getRawType()), "Only map type is supported for map data.");
     Type type = targetTypeToken.getType();
     Preconditions.checkArgument(type instanceof ParameterizedType, "Only parameterized map is supported.");
     Type[] typeArgs = ((ParameterizedType) type).getActualTypeArguments();
 
-    int len = decoder.readInt();
-    Map<Object, Object> map = (Map<Object, Object>) create(targetTypeToken);
+    int len = readCount(decoder);
+    Map<Object, Object> map = (Map<Object, Object>) reuseOrCreate(targetTypeToken, reuse, len);
     while (len != 0) {
       for (int i = 0; i < len; i++) {
         Map.Entry<Schema, Schema> sourceEntry = sourceSchema.getMapSchema();
         Map.Entry<Schema, Schema> targetEntry = targetSchema.getMapSchema();
 
-        map.put(read(decoder, sourceEntry.getKey(), targetEntry.getKey(), TypeToken.of(typeArgs[0])),
-                read(decoder, sourceEntry.getValue(), targetEntry.getValue(), TypeToken.of(typeArgs[1])));
+        map.put(read(decoder, sourceEntry.getKey(), targetEntry.getKey(), TypeToken.of(typeArgs[0]), null),
+                read(decoder, sourceEntry.getValue(), targetEntry.getValue(), TypeToken.of(typeArgs[1]), null));
       }
-      len = decoder.readInt();
+      len = readCount(decoder);
     }
 
     return map;
   }
 
-  private Object readRecord(Decoder decoder, Schema sourceSchema,
-                            Schema targetSchema, TypeToken<?> targetTypeToken) throws IOException {
+  private Object readRecord(Decoder decoder, Schema sourceSchema, Schema targetSchema,
+                            TypeToken<?> targetTypeToken, @Nullable Object reuse) throws IOException {
+    RecordConstructor constructor = getRecordConstructor(targetTypeToken);
+    if (constructor != null) {
+      return readRecord(decoder, getProjection(sourceSchema, targetSchema, targetTypeToken, constructor),
+                        constructor);
+    }
+
     try {
-      Object record = create(targetTypeToken);
-      for (Schema.Field sourceField : sourceSchema.getFields()) {
-        Schema.Field targetField = targetSchema.getField(sourceField.getName());
-        if (targetField == null) {
-          skip(decoder, sourceField.getSchema());
+      RecordProjection projection = getProjection(sourceSchema, targetSchema, targetTypeToken, null);
+      Object record = isInstance(targetTypeToken, reuse) ? reuse : create(targetTypeToken);
+      boolean reused = record == reuse;
+      for (RecordProjection.Step step : projection.getSteps()) {
+        if (step.isSkip()) {
+          step.skip(decoder);
           continue;
         }
-        FieldAccessor fieldAccessor = fieldAccessorFactory.getFieldAccessor(targetTypeToken, sourceField.getName());
-        fieldAccessor.set(record,
-                          read(decoder, sourceField.getSchema(), targetField.getSchema(), fieldAccessor.getType()));
+        readField(decoder, record, step.getFieldAccessor(), step.getSourceSchema(), step.getTargetSchema(), reused);
+      }
+      List<FieldAccessor> missingFields = projection.getMissingFields();
+      if (reused && !missingFields.isEmpty()) {
+        // Target fields that are not in the source get the values of a new instance, the same as without reuse
+        Object instance = create(targetTypeToken);
+        for (FieldAccessor fieldAccessor : missingFields) {
+          fieldAccessor.set(record, fieldAccessor.get(instance));
+        }
       }
       return record;
     } catch (Exception e) {
@@ -223,98 +428,113 @@ public final class ReflectionDatumReader<T> implements DatumReader<T> {
     }
   }
 
-  private Object readUnion(Decoder decoder, Schema sourceSchema,
-                           Schema targetSchema, TypeToken<?> targetTypeToken) throws IOException {
+  /**
+   * Reads a record by buffering the field values and passing them to the constructor of the record class.
+   * Fields that are not parameters of the constructor are skipped.
+   */
+  private Object readRecord(Decoder decoder, RecordProjection projection,
+                            RecordConstructor constructor) throws IOException {
+    Object[] arguments = constructor.newArguments();
+    for (RecordProjection.Step step : projection.getSteps()) {
+      if (step.isSkip()) {
+        step.skip(decoder);
+        continue;
+      }
+      int position = step.getPosition();
+      constructor.setArgument(arguments, position, read(decoder, step.getSourceSchema(), step.getTargetSchema(),
+                                                        constructor.getType(position), null));
+    }
+    try {
+      return constructor.newInstance(arguments);
+    } catch (Exception e) {
+      throw propagate(e);
+    }
+  }
+
+  /**
+   * Reads a record field and sets it to the record. Primitive fields are set without boxing.
+   *
+   * @param reuse {@code true} to reuse the existing field value of the record
+   */
+  private void readField(Decoder decoder, Object record, FieldAccessor fieldAccessor,
+                         Schema sourceSchema, Schema targetSchema, boolean reuse) throws IOException {
+    TypeToken<?> fieldType = fieldAccessor.getType();
+    Class<?> rawType = fieldType.getRawType();
+
+    if (rawType.isPrimitive() && sourceSchema.getType() == targetSchema.getType()) {
+      switch (sourceSchema.getType()) {
+        case BOOLEAN:
+          fieldAccessor.setBoolean(record, decoder.readBool());
+          return;
+        case INT:
+          int value = decoder.readInt();
+          if (rawType.equals(byte.class)) {
+            fieldAccessor.setByte(record, (byte) value);
+          } else if (rawType.equals(char.class)) {
+            fieldAccessor.setChar(record, (char) value);
+          } else if (rawType.equals(short.class)) {
+            fieldAccessor.setShort(record, (short) value);
+          } else {
+            fieldAccessor.setInt(record, value);
+          }
+          return;
+        case LONG:
+          fieldAccessor.setLong(record, decoder.readLong());
+          return;
+        case FLOAT:
+          fieldAccessor.setFloat(record, decoder.readFloat());
+          return;
+        case DOUBLE:
+          fieldAccessor.setDouble(record, decoder.readDouble());
+          return;
+      }
+    }
+
+    Object oldValue = reuse && !rawType.isPrimitive() ? fieldAccessor.get(record) : null;
+    Object value = read(decoder, sourceSchema, targetSchema, fieldType, oldValue);
+    if (value != oldValue) {
+      fieldAccessor.set(record, value);
+    }
+  }
+
+  private Object readUnion(Decoder decoder, Schema sourceSchema, Schema targetSchema,
+                           TypeToken<?> targetTypeToken, @Nullable Object reuse) throws IOException {
     int idx = decoder.readInt();
     Schema sourceValueSchema = sourceSchema.getUnionSchemas().get(idx);
 
 
     if (targetSchema.getType() == Schema.Type.UNION) {
+      // The existing value is only reused for the first compatible schema, as a failed read may have modified it
+      Object branchReuse = reuse;
       try {
         // A simple optimization to try resolve before resorting to linearly try the union schema.
         Schema targetValueSchema = targetSchema.getUnionSchema(idx);
         if (targetValueSchema != null && targetValueSchema.getType() == sourceValueSchema.getType()) {
-          return read(decoder, sourceValueSchema, targetValueSchema, targetTypeToken);
+          Object value = null;
+          if (branchReuse != null && sourceValueSchema.isCompatible(targetValueSchema)) {
+            value = branchReuse;
+            branchReuse = null;
+          }
+          return read(decoder, sourceValueSchema, targetValueSchema, targetTypeToken, value);
         }
       } catch (IOException e) {
         // OK to ignore it, as we'll do union schema resolution
       }
       for (Schema targetValueSchema : targetSchema.getUnionSchemas()) {
+        Object value = null;
+        if (branchReuse != null && sourceValueSchema.isCompatible(targetValueSchema)) {
+          value = branchReuse;
+          branchReuse = null;
+        }
         try {
-          return read(decoder, sourceValueSchema, targetValueSchema, targetTypeToken);
+          return read(decoder, sourceValueSchema, targetValueSchema, targetTypeToken, value);
         } catch (IOException e) {
           // It's ok to have exception here, as we'll keep trying until exhausted the target union.
         }
       }
       throw new IOException(String.format("Fail to resolve %s to %s", sourceSchema, targetSchema));
     } else {
-      return read(decoder, sourceValueSchema, targetSchema, targetTypeToken);
-    }
-  }
-
-  private void skip(Decoder decoder, Schema schema) throws IOException {
-    switch (schema.getType()) {
-      case NULL:
-        break;
-      case BOOLEAN:
-        decoder.readBool();
-        break;
-      case INT:
-        decoder.readInt();
-        break;
-      case LONG:
-        decoder.readLong();
-        break;
-      case FLOAT:
-        decoder.skipFloat();
-        break;
-      case DOUBLE:
-        decoder.skipDouble();
-        break;
-      case BYTES:
-        decoder.skipBytes();
-        break;
-      case STRING:
-        decoder.skipString();
-        break;
-      case ENUM:
-        decoder.readInt();
-        break;
-      case ARRAY:
-        skipArray(decoder, schema.getComponentSchema());
-        break;
-      case MAP:
-        skipMap(decoder, schema.getMapSchema());
-        break;
-      case RECORD:
-        skipRecord(decoder, schema);
-        break;
-      case UNION:
-        skip(decoder, schema.getUnionSchema(decoder.readInt()));
-        break;
-    }
-  }
-
-  private void skipArray(Decoder decoder, Schema componentSchema) throws IOException {
-    int len = decoder.readInt();
-    while (len != 0) {
-      skip(decoder, componentSchema);
-      len = decoder.readInt();
-    }
-  }
-
-  private void skipMap(Decoder decoder, Map.Entry<Schema, Schema> mapSchema) throws IOException {
-    int len = decoder.readInt();
-    while (len != 0) {
-      skip(decoder, mapSchema.getKey());
-      skip(decoder, mapSchema.getValue());
-      len = decoder.readInt();
-    }
-  }
-
-  private void skipRecord(Decoder decoder, Schema recordSchema) throws IOException {
-    for (Schema.Field field : recordSchema.getFields()) {
-      skip(decoder, field.getSchema());
+      return read(decoder, sourceValueSchema, targetSchema, targetTypeToken, reuse);
     }
   }
 
@@ -408,6 +628,17 @@ public final class ReflectionDatumReader<T> implements DatumReader<T> {
     }
   }
 
+  /**
+   * Reads the element count of an array or map block.
+   */
+  private int readCount(Decoder decoder) throws IOException {
+    int count = decoder.readInt();
+    if (count < 0) {
+      throw new IOException("Invalid count " + count);
+    }
+    return count;
+  }
+
   private IOException propagate(Throwable t) throws IOException {
     if (t instanceof IOException) {
       throw (IOException) t;
@@ -415,6 +646,77 @@ public final class ReflectionDatumReader<T> implements DatumReader<T> {
     throw new IOException(t);
   }
 
+  /**
+   * Returns the given collection or map object after clearing it, or a new object if it cannot be reused.
+   *
+   * @param count element count of the first block, which is only trusted up to {@link #MAX_PRESIZE}
+   */
+  private Object reuseOrCreate(TypeToken<?> type, @Nullable Object reuse, int count) {
+    int size = Math.min(count, MAX_PRESIZE);
+    if (isInstance(type, reuse)) {
+      try {
+        if (reuse instanceof Collection) {
+          ((Collection<?>) reuse).clear();
+          if (reuse instanceof ArrayList) {
+            ((ArrayList<?>) reuse).ensureCapacity(size);
+          }
+          return reuse;
+        }
+        if (reuse instanceof Map) {
+          ((Map<?, ?>) reuse).clear();
+          return reuse;
+        }
+      } catch (UnsupportedOperationException e) {
+        // Immutable object, fallback to create a new one.
+      }
+    }
+
+    // Presize for the common collection types, which are the same as the ones created by InstantiatorFactory
+    Class<?> rawType = type.getRawType();
+    if (rawType.isAssignableFrom(ArrayList.class)) {
+      return Lists.newArrayListWithCapacity(size);
+    }
+    if (rawType.isAssignableFrom(HashSet.class)) {
+      return Sets.newHashSetWithExpectedSize(size);
+    }
+    if (rawType.isAssignableFrom(HashMap.class)) {
+      return Maps.newHashMapWithExpectedSize(size);
+    }
+    return create(type);
+  }
+
+  private boolean isInstance(TypeToken<?> type, @Nullable Object obj) {
+    return obj != null && type.getRawType().isInstance(obj);
+  }
+
+  /**
+   * Returns the {@link RecordConstructor} for the given record type or {@code null} if the record
+   * should be created with an {@link Instantiator} and have fields set individually.
+   */
+  @Nullable
+  private RecordConstructor getRecordConstructor(TypeToken<?> type) {
+    Class<?> rawType = type.getRawType();
+    Optional<RecordConstructor> constructor = recordConstructors.get(rawType);
+    if (constructor == null) {
+      constructor = Optional.fromNullable(RecordConstructor.create(type));
+      recordConstructors.put(rawType, constructor);
+    }
+    return constructor.orNull();
+  }
+
+  /**
+   * Returns the {@link RecordProjection} for reading a record of the source schema into the target type.
+   */
+  private RecordProjection getProjection(Schema sourceSchema, Schema targetSchema, TypeToken<?> type,
+                                         @Nullable RecordConstructor constructor) {
+    RecordProjection projection = projections.get(sourceSchema, targetSchema);
+    if (projection == null || !projection.getType().equals(type)) {
+      projection = new RecordProjection(sourceSchema, targetSchema, type, constructor, fieldAccessorFactory);
+      projections.put(sourceSchema, targetSchema, projection);
+    }
+    return projection;
+  }
+
   private Object create(TypeToken<?> type) {
     Class<?> rawType = type.getRawType();
     Instantiator<?> creator = creators.get(rawType);
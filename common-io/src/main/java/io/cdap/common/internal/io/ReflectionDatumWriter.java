@@ -16,6 +16,7 @@
 
 package io.cdap.common.internal.io;
 
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.primitives.Longs;
@@ -29,9 +30,11 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.nio.ByteBuffer;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A {@link DatumWriter} that uses java reflection to encode data. The encoding schema it uses is
@@ -43,9 +46,15 @@ import java.util.UUID;
 public final class ReflectionDatumWriter<T> implements DatumWriter<T> {
 
   private final Schema schema;
+  // Keyed by schema identity, since the union branch resolution depends on record names
+  private final ConcurrentMap<Schema, UnionBranchResolver> unionResolvers;
+  private final Map<Schema, ConcurrentMap<Class<?>, int[]>> enumTables;
 
   public ReflectionDatumWriter(Schema schema) {
     this.schema = schema;
+    this.unionResolvers = new MapMaker().weakKeys().makeMap();
+    this.enumTables = new IdentityHashMap<Schema, ConcurrentMap<Class<?>, int[]>>();
+    prepareSchema(schema, Sets.<Schema>newIdentityHashSet());
   }
 
   public Schema getSchema() {
@@ -76,16 +85,20 @@ public final class ReflectionDatumWriter<T> implements DatumWriter<T> {
         encoder.writeBool((Boolean) object);
         break;
       case INT:
-        encoder.writeInt(((Number) object).intValue());
+        if (object instanceof Character) {
+          encoder.writeInt((Character) object);
+        } else {
+          encoder.writeInt(((Number) object).intValue());
+        }
         break;
       case LONG:
         encoder.writeLong(((Number) object).longValue());
         break;
       case FLOAT:
-        encoder.writeFloat((Float) object);
+        encoder.writeFloat(((Number) object).floatValue());
         break;
       case DOUBLE:
-        encoder.writeDouble((Double) object);
+        encoder.writeDouble(((Number) object).doubleValue());
         break;
       case STRING:
         encoder.writeString(object.toString());
@@ -94,7 +107,11 @@ public final class ReflectionDatumWriter<T> implements DatumWriter<T> {
         writeBytes(object, encoder);
         break;
       case ENUM:
-        writeEnum(object.toString(), encoder, objSchema);
+        if (object instanceof Enum) {
+          writeEnum((Enum<?>) object, encoder, objSchema);
+        } else {
+          writeEnum(object.toString(), encoder, objSchema);
+        }
         break;
       case ARRAY:
         writeArray(object, encoder, objSchema.getComponentSchema(), seenRefs);
@@ -106,13 +123,54 @@ public final class ReflectionDatumWriter<T> implements DatumWriter<T> {
         writeRecord(object, encoder, objSchema, seenRefs);
         break;
       case UNION:
-        // Assumption in schema generation that index 0 is the object type, index 1 is null.
-        if (object == null) {
-          encoder.writeInt(1);
-        } else {
+        UnionBranchResolver resolver = unionResolvers.get(objSchema);
+        if (resolver == null) {
+          UnionBranchResolver newResolver = new UnionBranchResolver(objSchema);
+          resolver = unionResolvers.putIfAbsent(objSchema, newResolver);
+          if (resolver == null) {
+            resolver = newResolver;
+          }
+        }
+        int branch = resolver.getBranch(object);
+        if (object != null) {
           seenRefs.remove(object);
-          encoder.writeInt(0);
-          write(object, encoder, objSchema.getUnionSchema(0), seenRefs);
+        }
+        encoder.writeInt(branch);
+        write(object, encoder, objSchema.getUnionSchema(branch), seenRefs);
+        break;
+    }
+  }
+
+  /**
+   * Creates the {@link UnionBranchResolver} for each union schema and the enum table cache for each enum schema
+   * that are reachable from the given schema.
+   */
+  private void prepareSchema(Schema schema, Set<Schema> visited) {
+    if (!visited.add(schema)) {
+      return;
+    }
+    switch (schema.getType()) {
+      case ENUM:
+        enumTables.put(schema, Maps.<Class<?>, int[]>newConcurrentMap());
+        break;
+      case ARRAY:
+        prepareSchema(schema.getComponentSchema(), visited);
+        break;
+      case MAP:
+        prepareSchema(schema.getMapSchema().getKey(), visited);
+        prepareSchema(schema.getMapSchema().getValue(), visited);
+        break;
+      case RECORD:
+        if (schema.getFields() != null) {
+          for (Schema.Field field : schema.getFields()) {
+            prepareSchema(field.getSchema(), visited);
+          }
+        }
+        break;
+      case UNION:
+        unionResolvers.put(schema, new UnionBranchResolver(schema));
+        for (Schema unionSchema : schema.getUnionSchemas()) {
+          prepareSchema(unionSchema, visited);
         }
         break;
     }
@@ -131,6 +189,23 @@ public final class ReflectionDatumWriter<T> implements DatumWriter<T> {
     }
   }
 
+  private void writeEnum(Enum<?> value, Encoder encoder, Schema schema) throws IOException {
+    Class<?> enumClass = value.getDeclaringClass();
+    ConcurrentMap<Class<?>, int[]> tables = enumTables.get(schema);
+    int[] table = tables == null ? null : tables.get(enumClass);
+    if (table == null) {
+      table = EnumTables.createWriteTable(schema, enumClass);
+      if (tables != null) {
+        tables.putIfAbsent(enumClass, table);
+      }
+    }
+    int idx = table[value.ordinal()];
+    if (idx < 0) {
+      throw new IOException("Invalid enum value " + value.name());
+    }
+    encoder.writeInt(idx);
+  }
+
   private void writeEnum(String value, Encoder encoder, Schema schema) throws IOException {
     int idx = schema.getEnumIndex(value);
     if (idx < 0) {
@@ -76,82 +76,146 @@ public final class ReflectionFieldAccessorFactory implements FieldAccessorFactor
 
           @Override
           public boolean getBoolean(Object object) {
-            return (Boolean) get(object);
+            try {
+              return finalField.getBoolean(object);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public byte getByte(Object object) {
-            return (Byte) get(object);
+            try {
+              return finalField.getByte(object);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public char getChar(Object object) {
-            return (Character) get(object);
+            try {
+              return finalField.getChar(object);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public short getShort(Object object) {
-            return (Short) get(object);
+            try {
+              return finalField.getShort(object);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public int getInt(Object object) {
-            return (Integer) get(object);
+            try {
+              return finalField.getInt(object);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public long getLong(Object object) {
-            return (Long) get(object);
+            try {
+              return finalField.getLong(object);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public float getFloat(Object object) {
-            return (Float) get(object);
+            try {
+              return finalField.getFloat(object);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public double getDouble(Object object) {
-            return (Double) get(object);
+            try {
+              return finalField.getDouble(object);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public void setBoolean(Object object, boolean value) {
-            set(object, value);
+            try {
+              finalField.setBoolean(object, value);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public void setByte(Object object, byte value) {
-            set(object, value);
+            try {
+              finalField.setByte(object, value);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public void setChar(Object object, char value) {
-            set(object, value);
+            try {
+              finalField.setChar(object, value);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public void setShort(Object object, short value) {
-            set(object, value);
+            try {
+              finalField.setShort(object, value);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public void setInt(Object object, int value) {
-            set(object, value);
+            try {
+              finalField.setInt(object, value);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public void setLong(Object object, long value) {
-            set(object, value);
+            try {
+              finalField.setLong(object, value);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public void setFloat(Object object, float value) {
-            set(object, value);
+            try {
+              finalField.setFloat(object, value);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
           public void setDouble(Object object, double value) {
-            set(object, value);
+            try {
+              finalField.setDouble(object, value);
+            } catch (Exception e) {
+              throw Throwables.propagate(e);
+            }
           }
 
           @Override
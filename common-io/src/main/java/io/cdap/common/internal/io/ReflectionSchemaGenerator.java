@@ -19,6 +19,7 @@ package io.cdap.common.internal.io;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
 
 import java.lang.reflect.Field;
@@ -26,6 +27,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import javax.annotation.Nonnull;
 
 /**
@@ -45,8 +47,76 @@ import javax.annotation.Nonnull;
  */
 public final class ReflectionSchemaGenerator extends AbstractSchemaGenerator {
 
+  /**
+   * Cache of record schemas generated for non-generic classes, with and without accepting recursive types.
+   * Using {@link ClassValue} so that the cache doesn't prevent classes from being unloaded.
+   */
+  private static final ClassValue<AtomicReferenceArray<Schema>> RECORD_SCHEMAS =
+    new ClassValue<AtomicReferenceArray<Schema>>() {
+      @Override
+      protected AtomicReferenceArray<Schema> computeValue(Class<?> type) {
+        return new AtomicReferenceArray<Schema>(2);
+      }
+    };
+
   @Override
   protected Schema generateRecord(TypeToken<?> typeToken, Set<String> knowRecords, boolean acceptRecursion)
+    throws UnsupportedTypeException {
+    // The generated schema only depends on the class when it is not generic
+    if (!(typeToken.getType() instanceof Class)) {
+      return createRecord(typeToken, knowRecords, acceptRecursion);
+    }
+    AtomicReferenceArray<Schema> schemas = RECORD_SCHEMAS.get(typeToken.getRawType());
+    int idx = acceptRecursion ? 1 : 0;
+    // A nested record has the same schema as the top level one, unless it refers back to any enclosing record
+    Schema schema = schemas.get(idx);
+    if (schema != null && !containsRecord(schema, knowRecords, Sets.<String>newHashSet())) {
+      return schema;
+    }
+    schema = createRecord(typeToken, knowRecords, acceptRecursion);
+    if (!containsRecord(schema, knowRecords, Sets.<String>newHashSet())) {
+      schemas.set(idx, schema);
+    }
+    return schema;
+  }
+
+  /**
+   * Returns {@code true} if the given schema contains a record of any of the given names.
+   */
+  private boolean containsRecord(Schema schema, Set<String> recordNames, Set<String> visited) {
+    if (recordNames.isEmpty()) {
+      return false;
+    }
+    switch (schema.getType()) {
+      case ARRAY:
+        return containsRecord(schema.getComponentSchema(), recordNames, visited);
+      case MAP:
+        return containsRecord(schema.getMapSchema().getKey(), recordNames, visited)
+          || containsRecord(schema.getMapSchema().getValue(), recordNames, visited);
+      case RECORD:
+        if (recordNames.contains(schema.getRecordName())) {
+          return true;
+        }
+        if (schema.getFields() != null && visited.add(schema.getRecordName())) {
+          for (Schema.Field field : schema.getFields()) {
+            if (containsRecord(field.getSchema(), recordNames, visited)) {
+              return true;
+            }
+          }
+        }
+        return false;
+      case UNION:
+        for (Schema unionSchema : schema.getUnionSchemas()) {
+          if (containsRecord(unionSchema, recordNames, visited)) {
+            return true;
+          }
+        }
+        return false;
+    }
+    return false;
+  }
+
+  private Schema createRecord(TypeToken<?> typeToken, Set<String> knowRecords, boolean acceptRecursion)
     throws UnsupportedTypeException {
     String recordName = typeToken.getRawType().getName();
     Map<String, TypeToken<?>> recordFieldTypes =
@@ -55,11 +125,10 @@ public final class ReflectionSchemaGenerator extends AbstractSchemaGenerator {
         collectByFields(typeToken, Maps.<String, TypeToken<?>>newTreeMap());
 
     // Recursively generate field type schema.
+    Set<String> fieldKnownRecords = ImmutableSet.<String>builder().addAll(knowRecords).add(recordName).build();
     ImmutableList.Builder<Schema.Field> builder = ImmutableList.builder();
     for (Map.Entry<String, TypeToken<?>> fieldType : recordFieldTypes.entrySet()) {
-      Schema fieldSchema = doGenerate(fieldType.getValue(),
-                                      ImmutableSet.<String>builder().addAll(knowRecords).add(recordName).build(),
-                                      acceptRecursion);
+      Schema fieldSchema = doGenerate(fieldType.getValue(), fieldKnownRecords, acceptRecursion);
 
       if (!fieldType.getValue().getRawType().isPrimitive()) {
         // For non-primitive, allows "null" value, unless the class is annotated with Nonnull
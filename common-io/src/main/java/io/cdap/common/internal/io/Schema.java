@@ -18,6 +18,8 @@ package io.cdap.common.internal.io;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableBiMap;
@@ -25,15 +27,20 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import com.google.common.io.CharStreams;
+import com.google.common.primitives.Longs;
 import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This class represents schema of data types.
@@ -121,7 +128,7 @@ public final class Schema {
    */
   public static Schema of(Type type) {
     Preconditions.checkArgument(type.isSimpleType(), "Type %s is not a simple type.", type);
-    return new Schema(type, null, null, null, null, null, null, null);
+    return SIMPLE_SCHEMAS.get(type);
   }
 
   /**
@@ -148,7 +155,7 @@ public final class Schema {
     Set<String> uniqueValues = ImmutableSet.copyOf(values);
     Preconditions.checkArgument(uniqueValues.size() > 0, "No enum value provided.");
     Preconditions.checkArgument(Iterables.size(values) == uniqueValues.size(), "Duplicate enum value is not allowed.");
-    return new Schema(Type.ENUM, uniqueValues, null, null, null, null, null, null);
+    return intern(new Schema(Type.ENUM, uniqueValues, null, null, null, null, null, null));
   }
 
   /**
@@ -173,7 +180,7 @@ public final class Schema {
    * @return A {@link Schema} of {@link Type#ARRAY ARRAY} type.
    */
   public static Schema arrayOf(Schema componentSchema) {
-    return new Schema(Type.ARRAY, null, componentSchema, null, null, null, null, null);
+    return intern(new Schema(Type.ARRAY, null, componentSchema, null, null, null, null, null));
   }
 
   /**
@@ -183,7 +190,7 @@ public final class Schema {
    * @return A {@link Schema} of {@link Type#MAP MAP} type.
    */
   public static Schema mapOf(Schema keySchema, Schema valueSchema) {
-    return new Schema(Type.MAP, null, null, keySchema, valueSchema, null, null, null);
+    return intern(new Schema(Type.MAP, null, null, keySchema, valueSchema, null, null, null));
   }
 
   /**
@@ -196,7 +203,7 @@ public final class Schema {
    */
   public static Schema recordOf(String name) {
     Preconditions.checkNotNull(name, "Record name cannot be null.");
-    return new Schema(Type.RECORD, null, null, null, null, name, null, null);
+    return intern(new Schema(Type.RECORD, null, null, null, null, name, null, null));
   }
 
   /**
@@ -227,7 +234,7 @@ public final class Schema {
     }
     Map<String, Field> fieldMap = fieldMapBuilder.build();
     Preconditions.checkArgument(fieldMap.size() > 0, "No record field provided for %s", name);
-    return new Schema(Type.RECORD, null, null, null, null, name, fieldMap, null);
+    return intern(new Schema(Type.RECORD, null, null, null, null, name, fieldMap, null));
   }
 
   /**
@@ -251,9 +258,23 @@ public final class Schema {
   public static Schema unionOf(Iterable<Schema> schemas) {
     List<Schema> schemaList = ImmutableList.copyOf(schemas);
     Preconditions.checkArgument(schemaList.size() > 0, "No union schema provided.");
-    return new Schema(Type.UNION, null, null, null, null, null, null, schemaList);
+    return intern(new Schema(Type.UNION, null, null, null, null, null, null, schemaList));
   }
 
+  // Canonical instances of all schemas created through the factory methods, keyed by the fingerprint.
+  // Values are weakly referenced so that schemas no longer in use can be garbage collected.
+  private static final ConcurrentMap<Long, Schema> INTERNED = new MapMaker().weakValues().makeMap();
+
+  private static final Map<Type, Schema> SIMPLE_SCHEMAS = createSimpleSchemas();
+
+  // For each source type, the target types that a value of the source type can be projected to
+  private static final Map<Type, List<Type>> COMPATIBLE_TYPES = createCompatibleTypes();
+
+  // Results of isCompatible, keyed by the source and target schemas including record names
+  private static final Cache<CompatibilityKey, Boolean> COMPATIBILITY_CACHE = CacheBuilder.newBuilder()
+    .maximumSize(10000)
+    .build();
+
   private final Type type;
 
   private final BiMap<String, Integer> enumValues;
@@ -266,13 +287,17 @@ public final class Schema {
   private final Map.Entry<Schema, Schema> mapSchema;
 
   private final String recordName;
-  private final Map<String, Field> fieldMap;
   private final List<Field> fields;
+  // Open addressing table from field name to field position, sized to have no collision if possible
+  private final String[] fieldNameTable;
+  private final int[] fieldPositionTable;
 
   private final List<Schema> unionSchemas;
+  private Map<Type, List<Schema>> unionIndex;
 
   private String schemaString;
   private SchemaHash schemaHash;
+  private volatile long fingerprint;
 
   private Schema(Type type, Set<String> enumValues, Schema componentSchema, Schema keySchema, Schema valueSchema,
                  String recordName, Map<String, Field> fieldMap, List<Schema> unionSchemas) {
@@ -284,8 +309,24 @@ public final class Schema {
     this.valueSchema = valueSchema;
     this.mapSchema = (keySchema == null || valueSchema == null) ? null : Maps.immutableEntry(keySchema, valueSchema);
     this.recordName = recordName;
-    this.fieldMap = populateRecordFields(fieldMap);
-    this.fields = this.fieldMap == null ? null : ImmutableList.copyOf(this.fieldMap.values());
+    this.fields = populateRecordFields(fieldMap);
+    if (this.fields == null) {
+      this.fieldNameTable = null;
+      this.fieldPositionTable = null;
+    } else {
+      int tableSize = getFieldTableSize(this.fields);
+      this.fieldNameTable = new String[tableSize];
+      this.fieldPositionTable = new int[tableSize];
+      for (int i = 0; i < this.fields.size(); i++) {
+        String name = this.fields.get(i).getName();
+        int idx = spread(name.hashCode()) & (tableSize - 1);
+        while (fieldNameTable[idx] != null) {
+          idx = (idx + 1) & (tableSize - 1);
+        }
+        fieldNameTable[idx] = name;
+        fieldPositionTable[idx] = i;
+      }
+    }
     this.unionSchemas = unionSchemas;
   }
 
@@ -369,10 +410,54 @@ public final class Schema {
    *         or this is not a {@link Type#RECORD RECORD} schema.
    */
   public Field getField(String name) {
-    if (fieldMap == null) {
-      return null;
+    int position = getFieldIndex(name);
+    return position < 0 ? null : fields.get(position);
+  }
+
+  /**
+   * Returns the position of the record field of the given name in the {@link #getFields()} list.
+   *
+   * @param name Name of the field
+   * @return The position of the field or {@code -1} if there is no such field in this record
+   *         or this is not a {@link Type#RECORD RECORD} schema.
+   */
+  public int getFieldIndex(String name) {
+    String[] table = fieldNameTable;
+    if (table == null) {
+      return -1;
     }
-    return fieldMap.get(name);
+    int mask = table.length - 1;
+    int idx = spread(name.hashCode()) & mask;
+    String key;
+    while ((key = table[idx]) != null) {
+      if (key.equals(name)) {
+        return fieldPositionTable[idx];
+      }
+      idx = (idx + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the mapping from the positions of fields in this record schema to the positions of the fields
+   * of the same name in the given target record schema. Callers reading or writing many records can compute
+   * the mapping once and access fields by position.
+   *
+   * @param target the target {@link Type#RECORD RECORD} schema
+   * @return A new array of the same size as {@link #getFields()}, with the element at each position being the
+   *         position of the field of the same name in the target schema, or {@code -1} if the target schema
+   *         doesn't have the field.
+   * @throws IllegalStateException if this or the target schema is not a {@link Type#RECORD RECORD} schema
+   *                               with fields.
+   */
+  public int[] getFieldMapping(Schema target) {
+    Preconditions.checkState(fields != null, "Schema is not a record with fields: %s", this);
+    Preconditions.checkState(target.fields != null, "Target schema is not a record with fields: %s", target);
+    int[] mapping = new int[fields.size()];
+    for (int i = 0; i < mapping.length; i++) {
+      mapping[i] = target.getFieldIndex(fields.get(i).getName());
+    }
+    return mapping;
   }
 
   /**
@@ -412,12 +497,29 @@ public final class Schema {
       return false;
     }
 
-    return getSchemaHash().equals(((Schema) other).getSchemaHash());
+    // Compare the fingerprint first, which avoids computing the hash for most unequal schemas
+    Schema otherSchema = (Schema) other;
+    return getFingerprint() == otherSchema.getFingerprint() && getSchemaHash().equals(otherSchema.getSchemaHash());
   }
 
   @Override
   public int hashCode() {
-    return getSchemaHash().hashCode();
+    long fp = getFingerprint();
+    return (int) (fp ^ (fp >>> 32));
+  }
+
+  /**
+   * Returns a 64-bit fingerprint of this schema. Schemas that are equal always have the same fingerprint.
+   * The fingerprint is computed once and is cheaper to compute and compare than the {@link #getSchemaHash() hash}.
+   *
+   * @return A CRC-64 fingerprint of this schema.
+   */
+  public long getFingerprint() {
+    long fp = fingerprint;
+    if (fp == 0L) {
+      fingerprint = fp = SchemaFingerprint.compute(this);
+    }
+    return fp;
   }
 
   /**
@@ -434,7 +536,8 @@ public final class Schema {
 
   /**
    * Checks if the given target schema is compatible with this schema, meaning datum being written with this
-   * schema could be projected correctly into the given target schema.
+   * schema could be projected correctly into the given target schema. The result is cached by the two schemas,
+   * including their record names, since record names are used for matching records.
    *
    * TODO: Add link to document of the target type projection.
    *
@@ -445,8 +548,14 @@ public final class Schema {
     if (equals(target)) {
       return true;
     }
-    Multimap<String, String> recordCompared = HashMultimap.create();
-    return checkCompatible(target, recordCompared);
+    CompatibilityKey key = new CompatibilityKey(this, target);
+    Boolean compatible = COMPATIBILITY_CACHE.getIfPresent(key);
+    if (compatible == null) {
+      Multimap<String, String> recordCompared = HashMultimap.create();
+      compatible = checkCompatible(target, recordCompared);
+      COMPATIBILITY_CACHE.put(key, compatible);
+    }
+    return compatible;
   }
 
   private boolean checkCompatible(Schema target, Multimap<String, String> recordCompared) {
@@ -465,11 +574,7 @@ public final class Schema {
         case STRING:
           return type != Type.NULL && type != Type.BYTES;
         case UNION:
-          for (Schema targetSchema : target.unionSchemas) {
-            if (checkCompatible(targetSchema, recordCompared)) {
-              return true;
-            }
-          }
+          return target.checkUnionCompatible(this, false, recordCompared);
       }
       return false;
     }
@@ -503,29 +608,204 @@ public final class Schema {
         case UNION:
           // Compare each source union to target union
           for (Schema sourceSchema : unionSchemas) {
-            for (Schema targetSchema : target.unionSchemas) {
-              if (sourceSchema.checkCompatible(targetSchema, recordCompared)) {
-                return true;
-              }
+            if (target.checkUnionCompatible(sourceSchema, false, recordCompared)) {
+              return true;
             }
           }
           return false;
       }
     }
 
-    if (type == Type.UNION || target.type == Type.UNION) {
-      List<Schema> unions = type == Type.UNION ? unionSchemas : target.unionSchemas;
-      Schema checkSchema = type == Type.UNION ? target : this;
-      for (Schema schema : unions) {
-        if (schema.checkCompatible(checkSchema, recordCompared)) {
+    if (type == Type.UNION) {
+      for (Schema schema : unionSchemas) {
+        if (schema.checkCompatible(target, recordCompared)) {
           return true;
         }
       }
+    } else if (target.type == Type.UNION) {
+      // A non-simple schema is checked against each union schema in the reverse direction
+      return target.checkUnionCompatible(this, true, recordCompared);
     }
 
     return false;
   }
 
+  /**
+   * Checks if the given source schema is compatible with any of the schemas in this union schema. Only the union
+   * schemas of types that the source type can be projected to are checked, with records of the same name as
+   * the source record checked first.
+   *
+   * @param source the schema to check against the union schemas
+   * @param reverse {@code true} to check if each union schema is compatible with the source schema instead
+   * @param recordCompared the record names already compared
+   */
+  private boolean checkUnionCompatible(Schema source, boolean reverse, Multimap<String, String> recordCompared) {
+    Map<Type, List<Schema>> index = getUnionIndex();
+    for (Type targetType : COMPATIBLE_TYPES.get(source.type)) {
+      List<Schema> schemas = index.get(targetType);
+      if (schemas == null) {
+        continue;
+      }
+      if (targetType == Type.RECORD) {
+        for (Schema schema : schemas) {
+          if (source.recordName.equals(schema.recordName)
+            && checkBranchCompatible(source, schema, reverse, recordCompared)) {
+            return true;
+          }
+        }
+        for (Schema schema : schemas) {
+          if (!source.recordName.equals(schema.recordName)
+            && checkBranchCompatible(source, schema, reverse, recordCompared)) {
+            return true;
+          }
+        }
+      } else {
+        for (Schema schema : schemas) {
+          if (checkBranchCompatible(source, schema, reverse, recordCompared)) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean checkBranchCompatible(Schema source, Schema branch, boolean reverse,
+                                               Multimap<String, String> recordCompared) {
+    return reverse ? branch.checkCompatible(source, recordCompared) : source.checkCompatible(branch, recordCompared);
+  }
+
+  /**
+   * Returns the schemas in this union schema grouped by type, in the order they appear in the union.
+   */
+  private Map<Type, List<Schema>> getUnionIndex() {
+    // Thread safe, as the index is immutable and always has the same content
+    Map<Type, List<Schema>> index = unionIndex;
+    if (index == null) {
+      Map<Type, ImmutableList.Builder<Schema>> builders = Maps.newEnumMap(Type.class);
+      for (Schema schema : unionSchemas) {
+        ImmutableList.Builder<Schema> builder = builders.get(schema.type);
+        if (builder == null) {
+          builder = ImmutableList.builder();
+          builders.put(schema.type, builder);
+        }
+        builder.add(schema);
+      }
+      index = Maps.newEnumMap(Type.class);
+      for (Map.Entry<Type, ImmutableList.Builder<Schema>> entry : builders.entrySet()) {
+        index.put(entry.getKey(), entry.getValue().build());
+      }
+      unionIndex = index = Collections.unmodifiableMap(index);
+    }
+    return index;
+  }
+
+  /**
+   * Returns the canonical instance of the given schema. Schemas created through the factory methods are interned,
+   * so that structurally identical schemas, including record names, are the same instance. This makes most
+   * {@link #equals(Object)} calls a reference comparison, and the hash and string are computed only once.
+   * Schemas created while resolving record references are not interned, as they refer to the record being created.
+   * A schema is also not interned if a different schema with the same fingerprint is already interned, such as a
+   * record that only differs by record names.
+   */
+  private static Schema intern(Schema schema) {
+    Schema existing = INTERNED.putIfAbsent(schema.getFingerprint(), schema);
+    if (existing == null) {
+      return schema;
+    }
+    return existing.equals(schema) && sameRecordNames(existing, schema, Sets.<String>newHashSet()) ? existing : schema;
+  }
+
+  /**
+   * Checks if two equal schemas also have the same record names, which {@link #equals(Object)} ignores.
+   */
+  private static boolean sameRecordNames(Schema schema1, Schema schema2, Set<String> knownRecords) {
+    switch (schema1.type) {
+      case ARRAY:
+        return sameRecordNames(schema1.componentSchema, schema2.componentSchema, knownRecords);
+      case MAP:
+        return sameRecordNames(schema1.keySchema, schema2.keySchema, knownRecords)
+          && sameRecordNames(schema1.valueSchema, schema2.valueSchema, knownRecords);
+      case RECORD:
+        if (!schema1.recordName.equals(schema2.recordName)) {
+          return false;
+        }
+        if (schema1.fields == null || !knownRecords.add(schema1.recordName)) {
+          return true;
+        }
+        for (int i = 0; i < schema1.fields.size(); i++) {
+          if (!sameRecordNames(schema1.fields.get(i).getSchema(), schema2.fields.get(i).getSchema(), knownRecords)) {
+            return false;
+          }
+        }
+        return true;
+      case UNION:
+        for (int i = 0; i < schema1.unionSchemas.size(); i++) {
+          if (!sameRecordNames(schema1.unionSchemas.get(i), schema2.unionSchemas.get(i), knownRecords)) {
+            return false;
+          }
+        }
+        return true;
+    }
+    return true;
+  }
+
+  private static Map<Type, Schema> createSimpleSchemas() {
+    Map<Type, Schema> schemas = Maps.newEnumMap(Type.class);
+    for (Type type : Type.values()) {
+      if (type.isSimpleType()) {
+        schemas.put(type, new Schema(type, null, null, null, null, null, null, null));
+      }
+    }
+    return schemas;
+  }
+
+  /**
+   * Returns the size of the field name table, which is a power of two of at least twice the number of fields.
+   * Larger sizes are tried to find one without collision.
+   */
+  private static int getFieldTableSize(List<Field> fields) {
+    int size = Integer.highestOneBit(Math.max(fields.size(), 1) * 2 - 1) << 1;
+    for (int i = 0; i < 3 && hasCollision(fields, size); i++) {
+      size <<= 1;
+    }
+    return size;
+  }
+
+  private static boolean hasCollision(List<Field> fields, int size) {
+    boolean[] used = new boolean[size];
+    for (Field field : fields) {
+      int idx = spread(field.getName().hashCode()) & (size - 1);
+      if (used[idx]) {
+        return true;
+      }
+      used[idx] = true;
+    }
+    return false;
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static Map<Type, List<Type>> createCompatibleTypes() {
+    Map<Type, List<Type>> types = Maps.newEnumMap(Type.class);
+    types.put(Type.NULL, ImmutableList.of(Type.NULL, Type.UNION));
+    types.put(Type.BOOLEAN, ImmutableList.of(Type.BOOLEAN, Type.STRING, Type.UNION));
+    types.put(Type.INT, ImmutableList.of(Type.INT, Type.LONG, Type.FLOAT, Type.DOUBLE, Type.STRING, Type.UNION));
+    types.put(Type.LONG, ImmutableList.of(Type.LONG, Type.FLOAT, Type.DOUBLE, Type.STRING, Type.UNION));
+    types.put(Type.FLOAT, ImmutableList.of(Type.FLOAT, Type.DOUBLE, Type.STRING, Type.UNION));
+    types.put(Type.DOUBLE, ImmutableList.of(Type.DOUBLE, Type.STRING, Type.UNION));
+    types.put(Type.BYTES, ImmutableList.of(Type.BYTES, Type.UNION));
+    types.put(Type.STRING, ImmutableList.of(Type.STRING, Type.UNION));
+    types.put(Type.ENUM, ImmutableList.of(Type.ENUM, Type.UNION));
+    types.put(Type.ARRAY, ImmutableList.of(Type.ARRAY, Type.UNION));
+    types.put(Type.MAP, ImmutableList.of(Type.MAP, Type.UNION));
+    types.put(Type.RECORD, ImmutableList.of(Type.RECORD, Type.UNION));
+    types.put(Type.UNION, ImmutableList.of(Type.UNION));
+    return Collections.unmodifiableMap(types);
+  }
+
   /**
    * Creates a map of indexes based on the iteration order of the given set.
    *
@@ -549,17 +829,17 @@ public final class Schema {
    * Resolves all field schemas.
    *
    * @param fields All the fields that need to be resolved.
-   * @return A {@link java.util.Map} which has all the field schemas resolved.
+   * @return A {@link java.util.List} of fields in the given order, with all the field schemas resolved.
    * @see #resolveSchema(Schema, java.util.Map)
    */
-  private Map<String, Field> populateRecordFields(Map<String, Field> fields) {
+  private List<Field> populateRecordFields(Map<String, Field> fields) {
     if (fields == null) {
       return null;
     }
 
     Map<String, Schema> knownRecordSchemas = Maps.newHashMap();
     knownRecordSchemas.put(recordName, this);
-    ImmutableMap.Builder<String, Field> builder = ImmutableMap.builder();
+    ImmutableList.Builder<Field> builder = ImmutableList.builder();
 
     for (Map.Entry<String, Field> fieldEntry : fields.entrySet()) {
       String fieldName = fieldEntry.getKey();
@@ -567,9 +847,9 @@ public final class Schema {
       Schema fieldSchema = resolveSchema(field.getSchema(), knownRecordSchemas);
 
       if (fieldSchema == field.getSchema()) {
-        builder.put(fieldName, field);
+        builder.add(field);
       } else {
-        builder.put(fieldName, Field.of(fieldName, fieldSchema));
+        builder.add(Field.of(fieldName, fieldSchema));
       }
     }
 
@@ -590,13 +870,14 @@ public final class Schema {
     switch (schema.getType()) {
       case ARRAY:
         Schema componentSchema = resolveSchema(schema.getComponentSchema(), knownRecordSchemas);
-        return (componentSchema == schema.getComponentSchema()) ? schema : Schema.arrayOf(componentSchema);
+        return (componentSchema == schema.getComponentSchema())
+          ? schema : new Schema(Type.ARRAY, null, componentSchema, null, null, null, null, null);
       case MAP:
         Map.Entry<Schema, Schema> entry = schema.getMapSchema();
         Schema keySchema = resolveSchema(entry.getKey(), knownRecordSchemas);
         Schema valueSchema = resolveSchema(entry.getValue(), knownRecordSchemas);
         return (keySchema == entry.getKey() && valueSchema == entry.getValue()) ?
-                schema : Schema.mapOf(keySchema, valueSchema);
+                schema : new Schema(Type.MAP, null, null, keySchema, valueSchema, null, null, null);
       case UNION:
         ImmutableList.Builder<Schema> schemaBuilder = ImmutableList.builder();
         boolean changed = false;
@@ -607,7 +888,7 @@ public final class Schema {
           }
           schemaBuilder.add(output);
         }
-        return changed ? Schema.unionOf(schemaBuilder.build()) : schema;
+        return changed ? new Schema(Type.UNION, null, null, null, null, null, null, schemaBuilder.build()) : schema;
       case RECORD:
         if (schema.fields == null) {
           // It is a named record that refers to previously defined record
@@ -632,6 +913,10 @@ public final class Schema {
     if (type.isSimpleType()) {
       return '"' + type.name().toLowerCase() + '"';
     }
+    if (type == Type.RECORD && fields == null) {
+      // Name only record
+      return '"' + recordName + '"';
+    }
     StringBuilder builder = new StringBuilder();
     JsonWriter writer = new JsonWriter(CharStreams.asWriter(builder));
     try {
@@ -643,4 +928,43 @@ public final class Schema {
       throw Throwables.propagate(e);
     }
   }
+
+  /**
+   * Key of the compatibility cache, consisting of the source and target schemas. Schemas are matched by
+   * {@link #equals(Object)} and the record names, with the hash code computed from the fingerprints.
+   */
+  private static final class CompatibilityKey {
+    private final Schema source;
+    private final Schema target;
+
+    CompatibilityKey(Schema source, Schema target) {
+      this.source = source;
+      this.target = target;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      CompatibilityKey other = (CompatibilityKey) o;
+      return isIdentical(source, other.source) && isIdentical(target, other.target);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Longs.hashCode(source.getFingerprint()) + Longs.hashCode(target.getFingerprint());
+    }
+
+    /**
+     * Checks if two schemas are equal and have the same record names, which compatibility checks depend on.
+     */
+    private boolean isIdentical(Schema schema1, Schema schema2) {
+      return schema1 == schema2
+        || (schema1.equals(schema2) && sameRecordNames(schema1, schema2, Sets.<String>newHashSet()));
+    }
+  }
 }
@@ -0,0 +1,243 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.cdap.common.io.BinaryEncoder;
+import io.cdap.common.io.ByteArrayDecoder;
+import io.cdap.common.io.Codec;
+import io.cdap.common.io.Decoder;
+import io.cdap.common.io.Encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link Codec} for {@link Schema} with a compact binary format, which is smaller and faster to parse than the
+ * json format of {@link SchemaTypeAdapter}. Each schema is written as a type tag followed by the content of the type:
+ * <ul>
+ *   <li>simple types have no content</li>
+ *   <li>{@code enum} has the number of values, followed by each value as a string</li>
+ *   <li>{@code array} has the component schema</li>
+ *   <li>{@code map} has the key schema followed by the value schema</li>
+ *   <li>{@code record} has the record name, the number of fields, followed by the name and schema of each field.
+ *       A record that was written before is written as a reference tag followed by the index of the record
+ *       in the order they were first written</li>
+ *   <li>{@code union} has the number of schemas, followed by each schema</li>
+ * </ul>
+ * Tags, counts and indexes are written as varint, and names as strings, using the {@link Encoder}.
+ * <p>
+ * Recently encoded and decoded schemas are cached, so that repeatedly encoding the same schema or decoding the same
+ * bytes doesn't need to go through the schema again.
+ * </p>
+ */
+@ThreadSafe
+public final class SchemaCodec implements Codec<Schema> {
+
+  // Tags are the same as SchemaHash. Don't use enum.ordinal() as ordering in enum could change
+  private static final Schema.Type[] TYPES = {
+    Schema.Type.NULL, Schema.Type.BOOLEAN, Schema.Type.INT, Schema.Type.LONG, Schema.Type.FLOAT, Schema.Type.DOUBLE,
+    Schema.Type.BYTES, Schema.Type.STRING, Schema.Type.ENUM, Schema.Type.ARRAY, Schema.Type.MAP, Schema.Type.RECORD,
+    Schema.Type.UNION
+  };
+  private static final Map<Schema.Type, Integer> TAGS = createTags();
+
+  // Tag for a record that is written before, followed by the index of the record
+  private static final int RECORD_REF = TYPES.length;
+  // Tag for a name only record that is not written before, followed by the record name
+  private static final int RECORD_NAME = TYPES.length + 1;
+
+  private final Cache<Schema, byte[]> encoded;
+  private final Cache<ByteBuffer, Schema> decoded;
+
+  public SchemaCodec() {
+    this(1000);
+  }
+
+  /**
+   * Creates a codec that caches the given number of encoded and decoded schemas.
+   */
+  public SchemaCodec(int cacheSize) {
+    // Weak keys for identity comparison, as schemas with different record names are equal
+    this.encoded = CacheBuilder.newBuilder().weakKeys().maximumSize(cacheSize).build();
+    this.decoded = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+  }
+
+  @Override
+  public byte[] encode(Schema schema) throws IOException {
+    byte[] bytes = encoded.getIfPresent(schema);
+    if (bytes == null) {
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      encode(schema, new BinaryEncoder(os));
+      bytes = os.toByteArray();
+      encoded.put(schema, bytes);
+    }
+    return bytes.clone();
+  }
+
+  @Override
+  public Schema decode(byte[] data) throws IOException {
+    ByteBuffer key = ByteBuffer.wrap(data);
+    Schema schema = decoded.getIfPresent(key);
+    if (schema == null) {
+      schema = decode(new ByteArrayDecoder(data));
+      decoded.put(ByteBuffer.wrap(data.clone()), schema);
+    }
+    return schema;
+  }
+
+  /**
+   * Writes the given {@link Schema} to the {@link Encoder}.
+   */
+  public void encode(Schema schema, Encoder encoder) throws IOException {
+    write(schema, encoder, Maps.<String, Integer>newHashMap());
+  }
+
+  /**
+   * Reads a {@link Schema} from the {@link Decoder}.
+   */
+  public Schema decode(Decoder decoder) throws IOException {
+    return read(decoder, Lists.<String>newArrayList());
+  }
+
+  private void write(Schema schema, Encoder encoder, Map<String, Integer> knownRecords) throws IOException {
+    Schema.Type type = schema.getType();
+    if (type == Schema.Type.RECORD) {
+      Integer index = knownRecords.get(schema.getRecordName());
+      if (index != null) {
+        encoder.writeInt(RECORD_REF).writeInt(index);
+        return;
+      }
+      if (schema.getFields() == null) {
+        encoder.writeInt(RECORD_NAME).writeString(schema.getRecordName());
+        return;
+      }
+    }
+
+    encoder.writeInt(TAGS.get(type));
+    switch (type) {
+      case ENUM:
+        encoder.writeInt(schema.getEnumValues().size());
+        for (String value : schema.getEnumValues()) {
+          encoder.writeString(value);
+        }
+        break;
+      case ARRAY:
+        write(schema.getComponentSchema(), encoder, knownRecords);
+        break;
+      case MAP:
+        write(schema.getMapSchema().getKey(), encoder, knownRecords);
+        write(schema.getMapSchema().getValue(), encoder, knownRecords);
+        break;
+      case RECORD:
+        knownRecords.put(schema.getRecordName(), knownRecords.size());
+        encoder.writeString(schema.getRecordName());
+        encoder.writeInt(schema.getFields().size());
+        for (Schema.Field field : schema.getFields()) {
+          encoder.writeString(field.getName());
+          write(field.getSchema(), encoder, knownRecords);
+        }
+        break;
+      case UNION:
+        encoder.writeInt(schema.getUnionSchemas().size());
+        for (Schema unionSchema : schema.getUnionSchemas()) {
+          write(unionSchema, encoder, knownRecords);
+        }
+        break;
+    }
+  }
+
+  private Schema read(Decoder decoder, List<String> knownRecords) throws IOException {
+    int tag = decoder.readInt();
+    if (tag == RECORD_REF) {
+      int index = decoder.readInt();
+      if (index < 0 || index >= knownRecords.size()) {
+        throw new IOException("Invalid record reference " + index);
+      }
+      return Schema.recordOf(knownRecords.get(index));
+    }
+    if (tag == RECORD_NAME) {
+      return Schema.recordOf(decoder.readString());
+    }
+    if (tag < 0 || tag >= TYPES.length) {
+      throw new IOException("Invalid schema type tag " + tag);
+    }
+
+    Schema.Type type = TYPES[tag];
+    switch (type) {
+      case ENUM: {
+        int size = readCount(decoder);
+        ImmutableList.Builder<String> values = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+          values.add(decoder.readString());
+        }
+        return Schema.enumWith(values.build());
+      }
+      case ARRAY:
+        return Schema.arrayOf(read(decoder, knownRecords));
+      case MAP: {
+        Schema keySchema = read(decoder, knownRecords);
+        return Schema.mapOf(keySchema, read(decoder, knownRecords));
+      }
+      case RECORD: {
+        String recordName = decoder.readString();
+        knownRecords.add(recordName);
+        int size = readCount(decoder);
+        ImmutableList.Builder<Schema.Field> fields = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+          String fieldName = decoder.readString();
+          fields.add(Schema.Field.of(fieldName, read(decoder, knownRecords)));
+        }
+        return Schema.recordOf(recordName, fields.build());
+      }
+      case UNION: {
+        int size = readCount(decoder);
+        ImmutableList.Builder<Schema> schemas = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+          schemas.add(read(decoder, knownRecords));
+        }
+        return Schema.unionOf(schemas.build());
+      }
+      default:
+        return Schema.of(type);
+    }
+  }
+
+  private int readCount(Decoder decoder) throws IOException {
+    int count = decoder.readInt();
+    if (count < 0) {
+      throw new IOException("Invalid count " + count);
+    }
+    return count;
+  }
+
+  private static Map<Schema.Type, Integer> createTags() {
+    Map<Schema.Type, Integer> tags = Maps.newEnumMap(Schema.Type.class);
+    for (int i = 0; i < TYPES.length; i++) {
+      tags.put(TYPES[i], i);
+    }
+    return tags;
+  }
+}
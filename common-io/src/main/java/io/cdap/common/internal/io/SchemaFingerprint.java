@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.collect.Sets;
+
+import java.util.Set;
+
+/**
+ * Computes a 64-bit fingerprint of a {@link Schema} with the CRC-64-AVRO (Rabin) algorithm. The same schema
+ * properties as {@link SchemaHash} are included, hence two schemas have the same fingerprint if they have the same
+ * {@link SchemaHash}, except for the negligible chance of collision. The fingerprint is computed without creating
+ * any intermediate objects.
+ */
+final class SchemaFingerprint {
+
+  private static final long EMPTY = 0xc15d213aa4d7a795L;
+  private static final long[] FP_TABLE = new long[256];
+
+  static {
+    for (int i = 0; i < 256; i++) {
+      long fp = i;
+      for (int j = 0; j < 8; j++) {
+        fp = (fp >>> 1) ^ (EMPTY & -(fp & 1L));
+      }
+      FP_TABLE[i] = fp;
+    }
+  }
+
+  /**
+   * Returns the fingerprint of the given schema.
+   */
+  static long compute(Schema schema) {
+    return update(EMPTY, schema, Sets.<String>newHashSet());
+  }
+
+  private static long update(long fp, Schema schema, Set<String> knownRecords) {
+    // Same tags as SchemaHash. Don't use enum.ordinal() as ordering in enum could change
+    switch (schema.getType()) {
+      case NULL:
+        return update(fp, 0);
+      case BOOLEAN:
+        return update(fp, 1);
+      case INT:
+        return update(fp, 2);
+      case LONG:
+        return update(fp, 3);
+      case FLOAT:
+        return update(fp, 4);
+      case DOUBLE:
+        return update(fp, 5);
+      case BYTES:
+        return update(fp, 6);
+      case STRING:
+        return update(fp, 7);
+      case ENUM:
+        fp = update(fp, 8);
+        for (String value : schema.getEnumValues()) {
+          fp = update(fp, value);
+        }
+        return fp;
+      case ARRAY:
+        return update(update(fp, 9), schema.getComponentSchema(), knownRecords);
+      case MAP:
+        fp = update(fp, 10);
+        fp = update(fp, schema.getMapSchema().getKey(), knownRecords);
+        return update(fp, schema.getMapSchema().getValue(), knownRecords);
+      case RECORD:
+        fp = update(fp, 11);
+        if (schema.getFields() == null) {
+          // Unresolved reference to a record by name
+          return update(fp, schema.getRecordName());
+        }
+        boolean notKnown = knownRecords.add(schema.getRecordName());
+        for (Schema.Field field : schema.getFields()) {
+          fp = update(fp, field.getName());
+          if (notKnown) {
+            fp = update(fp, field.getSchema(), knownRecords);
+          }
+        }
+        return fp;
+      case UNION:
+        fp = update(fp, 12);
+        for (Schema unionSchema : schema.getUnionSchemas()) {
+          fp = update(fp, unionSchema, knownRecords);
+        }
+        return fp;
+    }
+    throw new IllegalArgumentException("Unsupported schema type " + schema.getType());
+  }
+
+  /**
+   * Updates the fingerprint with the UTF-8 bytes of the given string. Same as {@link SchemaHash}, the length is not
+   * included and an unpaired surrogate is encoded as {@code '?'}, the same as {@link String#getBytes(String)},
+   * so that schemas with the same hash always have the same fingerprint.
+   */
+  private static long update(long fp, String str) {
+    for (int i = 0; i < str.length(); i++) {
+      char c = str.charAt(i);
+      if (c < 0x80) {
+        fp = update(fp, c);
+      } else if (c < 0x800) {
+        fp = update(fp, 0xc0 | (c >> 6));
+        fp = update(fp, 0x80 | (c & 0x3f));
+      } else if (Character.isHighSurrogate(c) && i + 1 < str.length()
+        && Character.isLowSurrogate(str.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, str.charAt(++i));
+        fp = update(fp, 0xf0 | (codePoint >> 18));
+        fp = update(fp, 0x80 | ((codePoint >> 12) & 0x3f));
+        fp = update(fp, 0x80 | ((codePoint >> 6) & 0x3f));
+        fp = update(fp, 0x80 | (codePoint & 0x3f));
+      } else if (Character.isSurrogate(c)) {
+        fp = update(fp, '?');
+      } else {
+        fp = update(fp, 0xe0 | (c >> 12));
+        fp = update(fp, 0x80 | ((c >> 6) & 0x3f));
+        fp = update(fp, 0x80 | (c & 0x3f));
+      }
+    }
+    return fp;
+  }
+
+  private static long update(long fp, int b) {
+    return (fp >>> 8) ^ FP_TABLE[(int) (fp ^ b) & 0xff];
+  }
+
+  private SchemaFingerprint() {
+  }
+}
@@ -24,7 +24,6 @@ import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.Formatter;
 import java.util.Set;
 
 /**
@@ -32,6 +31,8 @@ import java.util.Set;
  */
 public final class SchemaHash {
 
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
   private final byte[] hash;
   private String hashStr;
 
@@ -78,11 +79,12 @@ public final class SchemaHash {
     String str = hashStr;
     if (str == null) {
       // hex encode the bytes
-      Formatter formatter = new Formatter(new StringBuilder(32));
-      for (byte b : hash) {
-        formatter.format("%02X", b);
+      char[] chars = new char[hash.length * 2];
+      for (int i = 0; i < hash.length; i++) {
+        chars[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0x0f];
+        chars[i * 2 + 1] = HEX_DIGITS[hash[i] & 0x0f];
       }
-      str = hashStr = formatter.toString();
+      str = hashStr = new String(chars);
     }
     return str;
   }
@@ -135,7 +137,7 @@ public final class SchemaHash {
       case ENUM:
         md5.update((byte) 8);
         for (String value : schema.getEnumValues()) {
-          md5.update(Charsets.UTF_8.encode(value));
+          md5.update(value.getBytes(Charsets.UTF_8));
         }
         break;
       case ARRAY:
@@ -149,9 +151,14 @@ public final class SchemaHash {
         break;
       case RECORD:
         md5.update((byte) 11);
+        if (schema.getFields() == null) {
+          // Unresolved reference to a record by name
+          md5.update(schema.getRecordName().getBytes(Charsets.UTF_8));
+          break;
+        }
         boolean notKnown = knownRecords.add(schema.getRecordName());
         for (Schema.Field field : schema.getFields()) {
-          md5.update(Charsets.UTF_8.encode(field.getName()));
+          md5.update(field.getName().getBytes(Charsets.UTF_8));
           if (notKnown) {
             updateHash(md5, field.getSchema(), knownRecords);
           }
@@ -0,0 +1,222 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.google.gson.stream.JsonReader;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A registry for resolving a {@link SchemaHash} back to the {@link Schema}, so that encoded data only needs to carry
+ * the 16 bytes {@link SchemaHash#toByteArray() hash} instead of the full schema. A registry either keeps all schemas
+ * in memory, or persists them in an append-only local file with a bounded memory cache in front of it. Registered
+ * schemas are never forgotten in either case.
+ * <p>
+ * Lookups are lock-free. When a schema is not in memory, it is read from the file with a positional read.
+ * Registration of new schemas is serialized. Since {@link SchemaHash} ignores record names, schemas that are only
+ * different in record names share the same entry, which is the first one registered.
+ * </p>
+ * <p>
+ * The file contains one entry per schema, each consists of the 16 bytes hash, the length of the schema json
+ * as a 4 bytes big endian int and the schema json in UTF-8. An incomplete entry at the end of the file,
+ * for example due to a crash during append, is truncated when the file is opened. Each new entry is forced to the
+ * storage device before {@link #register(Schema)} returns.
+ * </p>
+ */
+@ThreadSafe
+public final class SchemaRegistry implements Closeable {
+
+  private static final int HASH_SIZE = 16;
+  private static final int ENTRY_HEADER_SIZE = HASH_SIZE + 4;
+
+  private final Cache<SchemaHash, Schema> schemas;
+  private final ConcurrentMap<SchemaHash, Long> fileOffsets;
+  private final RandomAccessFile file;
+  private final FileChannel channel;
+
+  /**
+   * Creates a registry that only keeps schemas in memory. All registered schemas are kept until the registry is
+   * no longer used.
+   */
+  public SchemaRegistry() {
+    this.schemas = CacheBuilder.newBuilder().build();
+    this.fileOffsets = null;
+    this.file = null;
+    this.channel = null;
+  }
+
+  /**
+   * Creates a registry that persists schemas to the given file. Existing schemas in the file are available for
+   * lookup. The file is created if it doesn't exist.
+   *
+   * @param file file for persisting schemas
+   * @param maxSchemas maximum number of schemas to keep in memory, other schemas are read from the file on demand
+   * @throws IOException if failed to open or read the file
+   */
+  public SchemaRegistry(File file, int maxSchemas) throws IOException {
+    this.schemas = CacheBuilder.newBuilder().maximumSize(maxSchemas).build();
+    this.fileOffsets = Maps.newConcurrentMap();
+    this.file = new RandomAccessFile(file, "rw");
+    this.channel = this.file.getChannel();
+    try {
+      loadIndex();
+    } catch (IOException e) {
+      this.file.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Registers the given schema.
+   *
+   * @param schema the {@link Schema} to register
+   * @return the {@link SchemaHash} of the schema, which can be used to lookup the schema with {@link #get(SchemaHash)}
+   * @throws IOException if failed to persist the schema
+   */
+  public SchemaHash register(Schema schema) throws IOException {
+    SchemaHash hash = schema.getSchemaHash();
+    if (schemas.getIfPresent(hash) != null || (fileOffsets != null && fileOffsets.containsKey(hash))) {
+      return hash;
+    }
+    if (channel != null) {
+      append(hash, schema);
+    }
+    schemas.put(hash, schema);
+    return hash;
+  }
+
+  /**
+   * Returns the {@link Schema} of the given {@link SchemaHash}.
+   *
+   * @param hash the hash of the schema
+   * @return the {@link Schema} or {@code null} if the hash is not registered
+   * @throws IOException if failed to read the schema from file
+   */
+  @Nullable
+  public Schema get(SchemaHash hash) throws IOException {
+    Schema schema = schemas.getIfPresent(hash);
+    if (schema != null || fileOffsets == null) {
+      return schema;
+    }
+    Long offset = fileOffsets.get(hash);
+    if (offset == null) {
+      return null;
+    }
+    schema = readSchema(offset);
+    schemas.put(hash, schema);
+    return schema;
+  }
+
+  /**
+   * Returns the {@link Schema} of the hash read from the given buffer. The buffer position is moved to the byte
+   * after the hash.
+   *
+   * @see #get(SchemaHash)
+   */
+  @Nullable
+  public Schema get(ByteBuffer buffer) throws IOException {
+    return get(new SchemaHash(buffer));
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (file != null) {
+      file.close();
+    }
+  }
+
+  private synchronized void append(SchemaHash hash, Schema schema) throws IOException {
+    if (fileOffsets.containsKey(hash)) {
+      return;
+    }
+    byte[] json = schema.toString().getBytes(Charsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocate(ENTRY_HEADER_SIZE + json.length);
+    buffer.put(hash.toByteArray()).putInt(json.length).put(json).flip();
+
+    long offset = channel.size();
+    long position = offset;
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+    // Make sure the schema is durable before the hash is handed out to be stored with encoded data
+    channel.force(false);
+    fileOffsets.put(hash, offset);
+  }
+
+  private Schema readSchema(long offset) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(ENTRY_HEADER_SIZE);
+    readFully(header, offset);
+    header.position(HASH_SIZE);
+    ByteBuffer json = ByteBuffer.allocate(header.getInt());
+    readFully(json, offset + ENTRY_HEADER_SIZE);
+    // Lenient, as the json of a simple schema is a top level string
+    JsonReader reader = new JsonReader(new StringReader(new String(json.array(), Charsets.UTF_8)));
+    reader.setLenient(true);
+    return new SchemaTypeAdapter().read(reader);
+  }
+
+  /**
+   * Scans the file to build the index from hash to file offset.
+   */
+  private void loadIndex() throws IOException {
+    long size = channel.size();
+    long offset = 0;
+    ByteBuffer header = ByteBuffer.allocate(ENTRY_HEADER_SIZE);
+    while (offset + ENTRY_HEADER_SIZE <= size) {
+      header.clear();
+      readFully(header, offset);
+      header.flip();
+      SchemaHash hash = new SchemaHash(header);
+      int length = header.getInt();
+      if (length < 0) {
+        throw new IOException("Invalid schema length " + length + " at offset " + offset);
+      }
+      if (offset + ENTRY_HEADER_SIZE + length > size) {
+        break;
+      }
+      fileOffsets.putIfAbsent(hash, offset);
+      offset += ENTRY_HEADER_SIZE + length;
+    }
+    if (offset < size) {
+      channel.truncate(offset);
+    }
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int len = channel.read(buffer, position);
+      if (len < 0) {
+        throw new EOFException("Unexpected end of schema file at " + position);
+      }
+      position += len;
+    }
+  }
+}
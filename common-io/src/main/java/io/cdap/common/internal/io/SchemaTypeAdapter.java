@@ -256,8 +256,9 @@ public final class SchemaTypeAdapter extends TypeAdapter<Schema> {
       return writer.endArray();
     }
 
-    // If it is a record that refers to a previously defined record, just emit the name of it
-    if (schema.getType() == Schema.Type.RECORD && knownRecords.contains(schema.getRecordName())) {
+    // If it is a record that refers to a previously defined record or a name only record, just emit the name of it
+    if (schema.getType() == Schema.Type.RECORD
+      && (knownRecords.contains(schema.getRecordName()) || schema.getFields() == null)) {
       return writer.value(schema.getRecordName());
     }
     // Complex types, represented as an object with "type" property carrying the type name
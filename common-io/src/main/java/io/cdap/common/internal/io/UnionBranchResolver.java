@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.internal.io;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+/**
+ * Selects the branch of a {@link Schema.Type#UNION UNION} schema for writing a value, based on the class of the value.
+ * The branch for each class is computed once and cached, so that selecting a branch for a previously seen class is
+ * a single map lookup.
+ * <p>
+ * A value is matched to the branch that has the same schema type as the one generated for its class by
+ * {@link AbstractSchemaGenerator}. For {@link Schema.Type#RECORD RECORD} branches, the class (or one of its super
+ * classes) name needs to be the same as the record name, unless there is only one record branch in the union.
+ * A {@link Number} value without a branch of its own type is matched to the first numeric branch that it can be
+ * widened to, in the order of {@code INT -> LONG -> FLOAT -> DOUBLE}.
+ * </p>
+ */
+final class UnionBranchResolver {
+
+  /**
+   * Classes that are written with a non-record, non-container schema type.
+   */
+  private static final ListMultimap<Schema.Type, Class<?>> SIMPLE_CLASSES =
+    ImmutableListMultimap.<Schema.Type, Class<?>>builder()
+      .putAll(Schema.Type.BOOLEAN, Boolean.class)
+      .putAll(Schema.Type.INT, Integer.class, Short.class, Byte.class, Character.class)
+      .putAll(Schema.Type.LONG, Long.class)
+      .putAll(Schema.Type.FLOAT, Float.class)
+      .putAll(Schema.Type.DOUBLE, Double.class)
+      .putAll(Schema.Type.STRING, String.class, URI.class, URL.class)
+      .putAll(Schema.Type.BYTES, byte[].class, ByteBuffer.class, UUID.class)
+      .build();
+
+  /**
+   * Numeric types that a value of the key type can be widened to, in the order of preference.
+   */
+  private static final ListMultimap<Schema.Type, Schema.Type> WIDENING_TYPES =
+    ImmutableListMultimap.<Schema.Type, Schema.Type>builder()
+      .putAll(Schema.Type.INT, Schema.Type.LONG, Schema.Type.FLOAT, Schema.Type.DOUBLE)
+      .putAll(Schema.Type.LONG, Schema.Type.FLOAT, Schema.Type.DOUBLE)
+      .putAll(Schema.Type.FLOAT, Schema.Type.DOUBLE)
+      .build();
+
+  private final Schema schema;
+  private final int nullBranch;
+  private final ConcurrentMap<Class<?>, Integer> branches;
+
+  UnionBranchResolver(Schema schema) {
+    this.schema = schema;
+    this.nullBranch = findNullBranch(schema);
+    this.branches = Maps.newConcurrentMap();
+  }
+
+  /**
+   * Returns the index of the union branch for writing the given value.
+   *
+   * @throws IOException if there is no branch in the union that can be used to write the value.
+   */
+  int getBranch(@Nullable Object value) throws IOException {
+    if (value == null) {
+      if (nullBranch < 0) {
+        throw new IOException("Null value is not allowed by union schema " + schema);
+      }
+      return nullBranch;
+    }
+
+    Class<?> cls = value.getClass();
+    Integer branch = branches.get(cls);
+    if (branch == null) {
+      int idx = findBranch(schema, cls);
+      if (idx < 0) {
+        throw new IOException("No branch in union schema " + schema + " for value of type " + cls.getName());
+      }
+      branch = idx;
+      branches.putIfAbsent(cls, branch);
+    }
+    return branch;
+  }
+
+  /**
+   * Returns the index of the {@link Schema.Type#NULL NULL} branch in the given union schema,
+   * or {@code -1} if there is none.
+   */
+  static int findNullBranch(Schema schema) {
+    return findBranch(schema, Schema.Type.NULL);
+  }
+
+  /**
+   * Returns the index of the branch in the given union schema for writing values of the given class,
+   * or {@code -1} if there is none.
+   */
+  static int findBranch(Schema schema, Class<?> cls) {
+    Schema.Type type = getSchemaType(cls);
+    if (type != null) {
+      int idx = findBranch(schema, type);
+      if (idx < 0 && Number.class.isAssignableFrom(cls)) {
+        for (Schema.Type widenType : WIDENING_TYPES.get(type)) {
+          idx = findBranch(schema, widenType);
+          if (idx >= 0) {
+            break;
+          }
+        }
+      }
+      return idx;
+    }
+
+    // Treat it as record. Match by record name, or the only record if there is exactly one.
+    List<Schema> unionSchemas = schema.getUnionSchemas();
+    int recordBranch = -1;
+    int recordCount = 0;
+    for (int i = 0; i < unionSchemas.size(); i++) {
+      Schema unionSchema = unionSchemas.get(i);
+      if (unionSchema.getType() != Schema.Type.RECORD) {
+        continue;
+      }
+      for (Class<?> c = cls; c != null && !Object.class.equals(c); c = c.getSuperclass()) {
+        if (c.getName().equals(unionSchema.getRecordName())) {
+          return i;
+        }
+      }
+      recordBranch = i;
+      recordCount++;
+    }
+    return recordCount == 1 ? recordBranch : -1;
+  }
+
+  /**
+   * Returns the list of classes that are written with the given schema type. The list is empty for
+   * {@link Schema.Type#ENUM ENUM}, {@link Schema.Type#ARRAY ARRAY}, {@link Schema.Type#MAP MAP} and
+   * {@link Schema.Type#RECORD RECORD}, since they are not represented by a fixed set of classes.
+   */
+  static List<Class<?>> getSimpleClasses(Schema.Type type) {
+    return SIMPLE_CLASSES.get(type);
+  }
+
+  /**
+   * Returns the list of {@link Number} classes that are written with a narrower schema type than the given one,
+   * hence can be widened to the given type if there is no union branch of their own type.
+   */
+  static List<Class<?>> getWideningClasses(Schema.Type type) {
+    List<Class<?>> classes = Lists.newArrayList();
+    for (Map.Entry<Schema.Type, Schema.Type> entry : WIDENING_TYPES.entries()) {
+      if (entry.getValue() != type) {
+        continue;
+      }
+      for (Class<?> cls : SIMPLE_CLASSES.get(entry.getKey())) {
+        if (Number.class.isAssignableFrom(cls)) {
+          classes.add(cls);
+        }
+      }
+    }
+    return classes;
+  }
+
+  private static int findBranch(Schema schema, Schema.Type type) {
+    List<Schema> unionSchemas = schema.getUnionSchemas();
+    for (int i = 0; i < unionSchemas.size(); i++) {
+      if (unionSchemas.get(i).getType() == type) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the non-record schema type for the given class or {@code null} if the class is treated as a record.
+   */
+  @Nullable
+  private static Schema.Type getSchemaType(Class<?> cls) {
+    for (Map.Entry<Schema.Type, Class<?>> entry : SIMPLE_CLASSES.entries()) {
+      if (entry.getValue().isAssignableFrom(cls)) {
+        return entry.getKey();
+      }
+    }
+    if (Enum.class.isAssignableFrom(cls)) {
+      return Schema.Type.ENUM;
+    }
+    if (cls.isArray() || Collection.class.isAssignableFrom(cls)) {
+      return Schema.Type.ARRAY;
+    }
+    if (Map.class.isAssignableFrom(cls)) {
+      return Schema.Type.MAP;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A {@link Decoder} that decodes the same binary format as {@link BinaryDecoder}, but reads directly from
+ * a byte array. The current read position is exposed, which allows callers to work on the raw encoded
+ * bytes (e.g. comparing or copying a value) without decoding it.
+ */
+@NotThreadSafe
+public final class ByteArrayDecoder implements Decoder {
+
+  private byte[] buffer;
+  private int position;
+  private int limit;
+
+  public ByteArrayDecoder(byte[] buffer) {
+    this(buffer, 0, buffer.length);
+  }
+
+  public ByteArrayDecoder(byte[] buffer, int offset, int length) {
+    reset(buffer, offset, length);
+  }
+
+  /**
+   * Resets this decoder to read from the given range of a byte array.
+   *
+   * @param buffer the bytes to decode from
+   * @param offset offset in the array to start decoding
+   * @param length number of bytes available for decoding starting from the offset
+   * @return this decoder
+   */
+  public ByteArrayDecoder reset(byte[] buffer, int offset, int length) {
+    Preconditions.checkPositionIndexes(offset, offset + length, buffer.length);
+    this.buffer = buffer;
+    this.position = offset;
+    this.limit = offset + length;
+    return this;
+  }
+
+  /**
+   * @return the byte array this decoder is reading from.
+   */
+  public byte[] getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * @return the index in the byte array of the next byte to be decoded.
+   */
+  public int getPosition() {
+    return position;
+  }
+
+  /**
+   * Sets the index in the byte array of the next byte to be decoded.
+   *
+   * @param position the new position, which must not be greater than the limit.
+   * @return this decoder
+   */
+  public ByteArrayDecoder setPosition(int position) {
+    Preconditions.checkPositionIndex(position, limit);
+    this.position = position;
+    return this;
+  }
+
+  /**
+   * @return the index in the byte array that decoding stops at.
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  @Override
+  public Object readNull() throws IOException {
+    // No-op
+    return null;
+  }
+
+  @Override
+  public boolean readBool() throws IOException {
+    return readByte() == 1;
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    int val = 0;
+    int shift = 0;
+    int b = readByte();
+    while (b > 0x7f) {
+      val ^= (b & 0x7f) << shift;
+      shift += 7;
+      b = readByte();
+    }
+    val ^= b << shift;
+    return (val >>> 1) ^ -(val & 1);
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    long val = 0;
+    int shift = 0;
+    int b = readByte();
+    while (b > 0x7f) {
+      val ^= (long) (b & 0x7f) << shift;
+      shift += 7;
+      b = readByte();
+    }
+    val ^= (long) b << shift;
+    return (val >>> 1) ^ -(val & 1);
+  }
+
+  @Override
+  public float readFloat() throws IOException {
+    ensureAvailable(4);
+    return Float.intBitsToFloat(readRawInt());
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    ensureAvailable(8);
+    int low = readRawInt();
+    int high = readRawInt();
+    return Double.longBitsToDouble(((long) high << 32) | (low & 0xffffffffL));
+  }
+
+  @Override
+  public String readString() throws IOException {
+    int len = readLength();
+    String str = new String(buffer, position, len, Charsets.UTF_8);
+    position += len;
+    return str;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The returned {@link ByteBuffer} is a view on the underlying byte array without copying.
+   */
+  @Override
+  public ByteBuffer readBytes() throws IOException {
+    int len = readLength();
+    ByteBuffer bytes = ByteBuffer.wrap(buffer, position, len).slice();
+    position += len;
+    return bytes;
+  }
+
+  @Override
+  public void skipFloat() throws IOException {
+    skipRaw(4);
+  }
+
+  @Override
+  public void skipDouble() throws IOException {
+    skipRaw(8);
+  }
+
+  @Override
+  public void skipString() throws IOException {
+    skipBytes();
+  }
+
+  @Override
+  public void skipBytes() throws IOException {
+    skipRaw(readLength());
+  }
+
+  /**
+   * Reads the length prefix of a bytes or string value and verifies that the content is fully available.
+   * The position is left at the first content byte.
+   *
+   * @return number of content bytes that follow the current position.
+   * @throws IOException if the length is invalid or there are not enough bytes.
+   */
+  public int readLength() throws IOException {
+    int len = readInt();
+    if (len < 0) {
+      throw new IOException("Invalid length " + len);
+    }
+    ensureAvailable(len);
+    return len;
+  }
+
+  /**
+   * Skips the given number of raw bytes without decoding.
+   *
+   * @param len number of bytes to skip
+   * @throws EOFException if there are fewer bytes than requested.
+   */
+  public void skipRaw(int len) throws IOException {
+    ensureAvailable(len);
+    position += len;
+  }
+
+  private int readRawInt() {
+    int pos = position;
+    position += 4;
+    return (buffer[pos] & 0xff) ^ ((buffer[pos + 1] & 0xff) << 8)
+      ^ ((buffer[pos + 2] & 0xff) << 16) ^ ((buffer[pos + 3] & 0xff) << 24);
+  }
+
+  private void ensureAvailable(int len) throws EOFException {
+    if (limit - position < len) {
+      throw new EOFException();
+    }
+  }
+
+  /**
+   * Reads a byte value.
+   *
+   * @return The byte value read.
+   * @throws java.io.EOFException If end of buffer reached.
+   */
+  private int readByte() throws EOFException {
+    if (position >= limit) {
+      throw new EOFException();
+    }
+    return buffer[position++] & 0xff;
+  }
+}
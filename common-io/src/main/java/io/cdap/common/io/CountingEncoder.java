@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * An {@link Encoder} that doesn't write anything, but counts the number of bytes that {@link BinaryEncoder}
+ * would produce for the same sequence of writes. It can be used to compute the exact encoded size of a datum
+ * before encoding it, so that the output buffer can be allocated once with the right size.
+ */
+@NotThreadSafe
+public final class CountingEncoder implements Encoder {
+
+  private long count;
+
+  /**
+   * @return number of bytes counted so far.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Resets the count to zero.
+   *
+   * @return this encoder
+   */
+  public CountingEncoder reset() {
+    count = 0;
+    return this;
+  }
+
+  @Override
+  public Encoder writeNull() throws IOException {
+    return this;
+  }
+
+  @Override
+  public Encoder writeBool(boolean b) throws IOException {
+    count++;
+    return this;
+  }
+
+  @Override
+  public Encoder writeInt(int i) throws IOException {
+    count += varIntSize((i << 1) ^ (i >> 31));
+    return this;
+  }
+
+  @Override
+  public Encoder writeLong(long l) throws IOException {
+    long val = (l << 1) ^ (l >> 63);
+    int size = 1;
+    while ((val & ~0x7fL) != 0) {
+      val >>>= 7;
+      size++;
+    }
+    count += size;
+    return this;
+  }
+
+  @Override
+  public Encoder writeFloat(float f) throws IOException {
+    count += 4;
+    return this;
+  }
+
+  @Override
+  public Encoder writeDouble(double d) throws IOException {
+    count += 8;
+    return this;
+  }
+
+  @Override
+  public Encoder writeString(String s) throws IOException {
+    return writeLength(utf8Length(s));
+  }
+
+  @Override
+  public Encoder writeBytes(byte[] bytes) throws IOException {
+    return writeLength(bytes.length);
+  }
+
+  @Override
+  public Encoder writeBytes(byte[] bytes, int off, int len) throws IOException {
+    return writeLength(len);
+  }
+
+  @Override
+  public Encoder writeBytes(ByteBuffer bytes) throws IOException {
+    return writeLength(bytes.remaining());
+  }
+
+  private Encoder writeLength(int len) {
+    count += varIntSize(len << 1) + len;
+    return this;
+  }
+
+  /**
+   * Returns the number of bytes for the variable length encoding of the given zig-zag value.
+   */
+  private static int varIntSize(int val) {
+    if ((val & (~0 << 7)) == 0) {
+      return 1;
+    }
+    if ((val & (~0 << 14)) == 0) {
+      return 2;
+    }
+    if ((val & (~0 << 21)) == 0) {
+      return 3;
+    }
+    if ((val & (~0 << 28)) == 0) {
+      return 4;
+    }
+    return 5;
+  }
+
+  /**
+   * Computes the number of bytes of the given string when encoded with UTF-8, without encoding it.
+   * Unpaired surrogates are counted as one byte, since they are replaced by {@code '?'} by the UTF-8 encoder.
+   */
+  private static int utf8Length(String s) {
+    int len = s.length();
+    int result = len;
+    for (int i = 0; i < len; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        continue;
+      }
+      if (c < 0x800) {
+        result++;
+      } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+        // A surrogate pair is two chars encoded as four bytes
+        result += 2;
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        // Unpaired surrogate, which is replaced by a single byte
+        continue;
+      } else {
+        result += 2;
+      }
+    }
+    return result;
+  }
+}
@@ -33,6 +33,7 @@ import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PipedInputStream;
@@ -162,6 +163,59 @@ public class ASMDatumCodecTest {
     Assert.assertEquals(TestEnum.VALUE3, value);
   }
 
+  @Test
+  public void testEnumMapping() throws UnsupportedTypeException, IOException {
+    // Schema with values in different order and with one value missing
+    TypeToken<TestEnum> type = new TypeToken<TestEnum>() { };
+    Schema schema = Schema.enumWith("VALUE3", "VALUE2", "VALUE1", "VALUE5");
+    DatumWriter<TestEnum> asmWriter = DATUM_WRITER_FACTORY.create(type, schema);
+    DatumWriter<TestEnum> reflectionWriter = new ReflectionDatumWriter<TestEnum>(schema);
+    ReflectionDatumReader<TestEnum> reader = new ReflectionDatumReader<TestEnum>(getSchema(type), type);
+
+    for (TestEnum value : ImmutableList.of(TestEnum.VALUE1, TestEnum.VALUE2, TestEnum.VALUE3)) {
+      ByteArrayOutputStream asmOutput = new ByteArrayOutputStream();
+      asmWriter.encode(value, new BinaryEncoder(asmOutput));
+      ByteArrayOutputStream reflectionOutput = new ByteArrayOutputStream();
+      reflectionWriter.encode(value, new BinaryEncoder(reflectionOutput));
+      Assert.assertArrayEquals(reflectionOutput.toByteArray(), asmOutput.toByteArray());
+      Assert.assertEquals(schema.getEnumIndex(value.name()),
+                          new BinaryDecoder(new ByteArrayInputStream(asmOutput.toByteArray())).readInt());
+
+      Assert.assertEquals(value, reader.read(new BinaryDecoder(new ByteArrayInputStream(asmOutput.toByteArray())),
+                                             schema));
+    }
+
+    // VALUE4 is not in the schema
+    for (DatumWriter<TestEnum> writer : ImmutableList.of(asmWriter, reflectionWriter)) {
+      try {
+        writer.encode(TestEnum.VALUE4, new BinaryEncoder(new ByteArrayOutputStream()));
+        Assert.fail("Expected IOException");
+      } catch (IOException e) {
+        // Expected
+      }
+    }
+
+    // VALUE5 is not in the enum class
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    new BinaryEncoder(output).writeInt(schema.getEnumIndex("VALUE5"));
+    try {
+      reader.read(new BinaryDecoder(new ByteArrayInputStream(output.toByteArray())), schema);
+      Assert.fail("Expected IOException");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("'VALUE5'"));
+    }
+
+    // Index outside of the source enum
+    output.reset();
+    new BinaryEncoder(output).writeInt(10);
+    try {
+      reader.read(new BinaryDecoder(new ByteArrayInputStream(output.toByteArray())), schema);
+      Assert.fail("Expected IOException");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("index 10"));
+    }
+  }
+
   @Test
   public void testPrimitiveArray() throws IOException, UnsupportedTypeException {
     TypeToken<int[]> type = new TypeToken<int[]>() { };
@@ -376,6 +430,69 @@ public class ASMDatumCodecTest {
     Assert.assertEquals(root, value);
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testUnion() throws IOException, UnsupportedTypeException {
+    Schema recordSchema = getSchema(TypeToken.of(Record.class));
+    Schema nodeSchema = getSchema(TypeToken.of(Node.class));
+    Schema schema = Schema.unionOf(Schema.of(Schema.Type.LONG), Schema.of(Schema.Type.STRING), recordSchema,
+                                   Schema.of(Schema.Type.NULL), nodeSchema);
+    TypeToken<Object> type = TypeToken.of(Object.class);
+    DatumWriter<Object> asmWriter = DATUM_WRITER_FACTORY.create(type, schema);
+    DatumWriter<Object> reflectionWriter = new ReflectionDatumWriter<Object>(schema);
+
+    Record record = new Record(10, "testing", ImmutableList.of("a", "b"), TestEnum.VALUE3);
+    Node node = new Node(1, null, new Node(2, null, null));
+    Object[] values = { 10L, "string", record, null, node };
+    Schema[] schemas = { Schema.of(Schema.Type.LONG), Schema.of(Schema.Type.STRING), recordSchema, null, nodeSchema };
+    TypeToken<?>[] types = { TypeToken.of(Long.class), TypeToken.of(String.class),
+                             TypeToken.of(Record.class), null, TypeToken.of(Node.class) };
+
+    for (int i = 0; i < values.length; i++) {
+      ByteArrayOutputStream asmOutput = new ByteArrayOutputStream();
+      asmWriter.encode(values[i], new BinaryEncoder(asmOutput));
+      ByteArrayOutputStream reflectionOutput = new ByteArrayOutputStream();
+      reflectionWriter.encode(values[i], new BinaryEncoder(reflectionOutput));
+      Assert.assertArrayEquals(reflectionOutput.toByteArray(), asmOutput.toByteArray());
+
+      BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(asmOutput.toByteArray()));
+      Assert.assertEquals(i, decoder.readInt());
+      if (values[i] != null) {
+        Assert.assertEquals(values[i], new ReflectionDatumReader<Object>(schemas[i], (TypeToken<Object>) types[i])
+          .read(decoder, schemas[i]));
+      }
+    }
+
+    // Value of type not in the union should fail
+    for (DatumWriter<Object> writer : ImmutableList.of(asmWriter, reflectionWriter)) {
+      try {
+        writer.encode(1.0d, new BinaryEncoder(new ByteArrayOutputStream()));
+        Assert.fail("Expected IOException");
+      } catch (IOException e) {
+        // Expected
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testUnionWidening() throws IOException, UnsupportedTypeException {
+    Schema schema = Schema.unionOf(Schema.of(Schema.Type.LONG), Schema.of(Schema.Type.NULL));
+    List<DatumWriter<?>> writers = ImmutableList.<DatumWriter<?>>of(
+      DATUM_WRITER_FACTORY.create(TypeToken.of(Integer.class), schema),
+      DATUM_WRITER_FACTORY.create(TypeToken.of(Object.class), schema),
+      new ReflectionDatumWriter<Integer>(schema));
+
+    for (DatumWriter<?> writer : writers) {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      ((DatumWriter<Object>) writer).encode(10, new BinaryEncoder(output));
+
+      BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(output.toByteArray()));
+      Assert.assertEquals(10L, (long) new ReflectionDatumReader<Long>(schema, TypeToken.of(Long.class))
+        .read(decoder, schema));
+    }
+  }
+
   @Ignore
   @Test
   public void testSpeed() throws UnsupportedTypeException, IOException {
@@ -0,0 +1,115 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.reflect.TypeToken;
+import io.cdap.common.internal.io.BinaryDatumComparator;
+import io.cdap.common.internal.io.ReflectionDatumWriter;
+import io.cdap.common.internal.io.ReflectionSchemaGenerator;
+import io.cdap.common.internal.io.Schema;
+import io.cdap.common.internal.io.UnsupportedTypeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link BinaryDatumComparator}.
+ */
+public class BinaryDatumComparatorTest {
+
+  /**
+   * Record for testing comparison.
+   */
+  public static final class Record {
+    private final String name;
+    private final int age;
+    private final List<Long> scores;
+    private final Map<String, String> properties;
+
+    public Record(String name, int age, List<Long> scores) {
+      this.name = name;
+      this.age = age;
+      this.scores = scores;
+      this.properties = ImmutableMap.of("name", name);
+    }
+  }
+
+  @Test
+  public void testSimple() throws IOException, UnsupportedTypeException {
+    assertOrder(new TypeToken<Integer>() { }, -10, -1, 0, 1, 300, Integer.MAX_VALUE);
+    assertOrder(new TypeToken<Long>() { }, Long.MIN_VALUE, -1L, 0L, 64L, Long.MAX_VALUE);
+    assertOrder(new TypeToken<Double>() { }, -1.5d, 0d, 0.25d, 1e10d);
+    assertOrder(new TypeToken<String>() { }, "", "a", "ab", "b", "é", "中");
+    assertOrder(new TypeToken<int[]>() { }, new int[0], new int[] {1}, new int[] {1, 2}, new int[] {2});
+  }
+
+  @Test
+  public void testRecordFieldOrder() throws IOException, UnsupportedTypeException {
+    Schema schema = new ReflectionSchemaGenerator().generate(Record.class);
+
+    // Fields are sorted by name in the generated schema: age, name, properties, scores
+    byte[] r1 = encode(schema, new Record("alice", 30, ImmutableList.of(1L, 2L)));
+    byte[] r2 = encode(schema, new Record("bob", 30, ImmutableList.of(1L)));
+    byte[] r3 = encode(schema, new Record("alice", 30, ImmutableList.of(1L, 2L)));
+
+    Map<String, BinaryDatumComparator.Order> ignoreMap =
+      ImmutableMap.of("properties", BinaryDatumComparator.Order.IGNORE);
+    BinaryDatumComparator comparator = new BinaryDatumComparator(schema, ignoreMap);
+    Assert.assertTrue(comparator.compare(r1, r2) < 0);
+    Assert.assertTrue(comparator.compare(r2, r1) > 0);
+    Assert.assertEquals(0, comparator.compare(r1, r3));
+
+    comparator = new BinaryDatumComparator(schema, ImmutableMap.of(
+      "name", BinaryDatumComparator.Order.DESCENDING, "properties", BinaryDatumComparator.Order.IGNORE));
+    Assert.assertTrue(comparator.compare(r1, r2) > 0);
+
+    comparator = new BinaryDatumComparator(schema, ImmutableMap.of(
+      "name", BinaryDatumComparator.Order.IGNORE, "properties", BinaryDatumComparator.Order.IGNORE));
+    Assert.assertTrue(comparator.compare(r1, r2) > 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMapNotComparable() throws UnsupportedTypeException {
+    new BinaryDatumComparator(new ReflectionSchemaGenerator().generate(Record.class));
+  }
+
+  @SafeVarargs
+  private final <T> void assertOrder(TypeToken<T> type, T... values) throws IOException, UnsupportedTypeException {
+    Schema schema = new ReflectionSchemaGenerator().generate(type.getType());
+    BinaryDatumComparator comparator = new BinaryDatumComparator(schema);
+
+    for (int i = 0; i < values.length; i++) {
+      byte[] left = encode(schema, values[i]);
+      for (int j = 0; j < values.length; j++) {
+        byte[] right = encode(schema, values[j]);
+        Assert.assertEquals(Integer.signum(Integer.compare(i, j)), Integer.signum(comparator.compare(left, right)));
+      }
+    }
+  }
+
+  private <T> byte[] encode(Schema schema, T value) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new ReflectionDatumWriter<T>(schema).encode(value, new BinaryEncoder(os));
+    return os.toByteArray();
+  }
+}
@@ -16,6 +16,7 @@
 
 package io.cdap.common.io;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -23,7 +24,10 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.io.Files;
 import com.google.common.reflect.TypeToken;
+import io.cdap.common.internal.io.DatumConstructor;
+import io.cdap.common.internal.io.DatumSizer;
 import io.cdap.common.internal.io.DatumWriter;
 import io.cdap.common.internal.io.ReflectionDatumReader;
 import io.cdap.common.internal.io.ReflectionDatumWriter;
@@ -32,25 +36,35 @@ import io.cdap.common.internal.io.Schema;
 import io.cdap.common.internal.io.TypeRepresentation;
 import io.cdap.common.internal.io.UnsupportedTypeException;
 import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.net.URI;
 import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
 
 /**
  *
  */
 public class DatumCodecTest {
 
+  @Rule
+  public final TemporaryFolder tmpFolder = new TemporaryFolder();
+
   /**
    *
    */
@@ -275,6 +289,41 @@ public class DatumCodecTest {
     Assert.assertEquals(moreFields.inner.b, lessFields.inner.b);
   }
 
+  @Test
+  public void testProjectionMultipleRecords() throws IOException, UnsupportedTypeException {
+    Schema sourceSchema = new ReflectionSchemaGenerator().generate(MoreFields.class);
+    Schema targetSchema = new ReflectionSchemaGenerator().generate(LessFields.class);
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    BinaryEncoder encoder = new BinaryEncoder(os);
+    ReflectionDatumWriter<MoreFields> writer = new ReflectionDatumWriter<MoreFields>(sourceSchema);
+    for (int i = 0; i < 10; i++) {
+      writer.encode(new MoreFields(i, i * 1.5d, "k" + i, ImmutableList.of("l" + i)), encoder);
+    }
+
+    // The same reader reuses the projection for all records, with skipped fields in between
+    ReflectionDatumReader<LessFields> reader = new ReflectionDatumReader<LessFields>(targetSchema,
+                                                                                     TypeToken.of(LessFields.class));
+    ByteArrayDecoder decoder = new ByteArrayDecoder(os.toByteArray());
+    for (int i = 0; i < 10; i++) {
+      LessFields lessFields = reader.read(decoder, sourceSchema);
+      Assert.assertEquals("k" + i, lessFields.k);
+      Assert.assertEquals("inner", lessFields.inner.b);
+    }
+    Assert.assertEquals(decoder.getLimit(), decoder.getPosition());
+
+    // Read everything back with the full schema
+    ReflectionDatumReader<MoreFields> fullReader = new ReflectionDatumReader<MoreFields>(sourceSchema,
+                                                                                       TypeToken.of(MoreFields.class));
+    decoder = new ByteArrayDecoder(os.toByteArray());
+    for (int i = 0; i < 10; i++) {
+      MoreFields moreFields = fullReader.read(decoder, sourceSchema);
+      Assert.assertEquals(i, moreFields.i);
+      Assert.assertEquals(i * 1.5d, moreFields.d, 0.0000001d);
+      Assert.assertEquals(ImmutableList.of("l" + i), moreFields.list);
+    }
+  }
+
   /**
    *
    */
@@ -328,6 +377,387 @@ public class DatumCodecTest {
     Assert.assertEquals(record.getA(), rec.getA());
     Assert.assertEquals(record.getTheString(), rec.getTheString());
   }
+
+  /**
+   *
+   */
+  public static class ReuseRecord {
+    private int id;
+    private double score;
+    private List<String> names;
+    private Map<String, Integer> counts;
+    private Value value;
+    private String[] tags;
+
+    public ReuseRecord(int id, double score, List<String> names, Map<String, Integer> counts,
+                       Value value, String[] tags) {
+      this.id = id;
+      this.score = score;
+      this.names = names;
+      this.counts = counts;
+      this.value = value;
+      this.tags = tags;
+    }
+  }
+
+  @Test
+  public void testReuse() throws IOException, UnsupportedTypeException {
+    TypeToken<ReuseRecord> type = TypeToken.of(ReuseRecord.class);
+    Schema schema = new ReflectionSchemaGenerator().generate(type.getType());
+    ReflectionDatumWriter<ReuseRecord> writer = new ReflectionDatumWriter<ReuseRecord>(schema);
+    ReflectionDatumReader<ReuseRecord> reader = new ReflectionDatumReader<ReuseRecord>(schema, type);
+
+    ReuseRecord record = new ReuseRecord(1, 1.5d, Lists.newArrayList("a", "b"), ImmutableMap.of("x", 1),
+                                         new Value(1, "one"), new String[] { "t1", "t2" });
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    writer.encode(record, new BinaryEncoder(os));
+    ReuseRecord reuse = reader.read(new BinaryDecoder(new ByteArrayInputStream(os.toByteArray())), schema, null);
+
+    List<String> names = reuse.names;
+    Map<String, Integer> counts = reuse.counts;
+    Value value = reuse.value;
+    String[] tags = reuse.tags;
+
+    record = new ReuseRecord(2, 2.5d, ImmutableList.of("c"), ImmutableMap.of("y", 2, "z", 3),
+                             new Value(2, "two"), new String[] { "t3", "t4" });
+    os.reset();
+    writer.encode(record, new BinaryEncoder(os));
+    ReuseRecord result = reader.read(new BinaryDecoder(new ByteArrayInputStream(os.toByteArray())), schema, reuse);
+
+    // The same instances should be filled in place
+    Assert.assertSame(reuse, result);
+    Assert.assertSame(names, result.names);
+    Assert.assertSame(counts, result.counts);
+    Assert.assertSame(value, result.value);
+    Assert.assertSame(tags, result.tags);
+
+    Assert.assertEquals(2, result.id);
+    Assert.assertEquals(2.5d, result.score, 0.0000001d);
+    Assert.assertEquals(ImmutableList.of("c"), result.names);
+    Assert.assertEquals(ImmutableMap.of("y", 2, "z", 3), result.counts);
+    Assert.assertEquals(new Value(2, "two"), result.value);
+    Assert.assertArrayEquals(new String[] { "t3", "t4" }, result.tags);
+
+    // Array of different size needs a new instance
+    record = new ReuseRecord(3, 3.5d, ImmutableList.<String>of(), ImmutableMap.<String, Integer>of(),
+                             new Value(3, "three"), new String[] { "t5" });
+    os.reset();
+    writer.encode(record, new BinaryEncoder(os));
+    result = reader.read(new BinaryDecoder(new ByteArrayInputStream(os.toByteArray())), schema, reuse);
+    Assert.assertTrue(result.names.isEmpty());
+    Assert.assertTrue(result.counts.isEmpty());
+    Assert.assertArrayEquals(new String[] { "t5" }, result.tags);
+  }
+
+  /**
+   *
+   */
+  public static class EvolvedRecord {
+    private int id;
+    private String name;
+    private int version;
+    private List<String> tags;
+    private String marker;
+
+    public EvolvedRecord() {
+      this.version = 1;
+      this.marker = "default";
+    }
+  }
+
+  @Test
+  public void testReuseMissingFields() throws IOException, UnsupportedTypeException {
+    TypeToken<EvolvedRecord> type = TypeToken.of(EvolvedRecord.class);
+    Schema targetSchema = new ReflectionSchemaGenerator().generate(type.getType());
+    Schema sourceSchema = Schema.recordOf("EvolvedRecord", Schema.Field.of("id", Schema.of(Schema.Type.INT)));
+    ReflectionDatumReader<EvolvedRecord> reader = new ReflectionDatumReader<EvolvedRecord>(targetSchema, type);
+
+    EvolvedRecord reuse = new EvolvedRecord();
+    reuse.id = 1;
+    reuse.name = "name";
+    reuse.version = 5;
+    reuse.tags = Lists.newArrayList("a");
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new BinaryEncoder(os).writeInt(2);
+    byte[] bytes = os.toByteArray();
+
+    // Target fields missing in the source have the same values with and without reuse
+    EvolvedRecord expected = reader.read(new BinaryDecoder(new ByteArrayInputStream(bytes)), sourceSchema);
+    EvolvedRecord result = reader.read(new BinaryDecoder(new ByteArrayInputStream(bytes)), sourceSchema, reuse);
+    Assert.assertSame(reuse, result);
+    Assert.assertEquals(2, result.id);
+    Assert.assertEquals(expected.name, result.name);
+    Assert.assertNull(result.name);
+    Assert.assertEquals(expected.version, result.version);
+    Assert.assertEquals(1, result.version);
+    Assert.assertEquals(expected.tags, result.tags);
+    Assert.assertNull(result.tags);
+  }
+
+  @Test
+  public void testReuseUnionBranch() throws IOException {
+    // The first union schema fails after reading the null field, hence the value should only be reused for
+    // the second one, which is compatible
+    Schema sourceSchema = Schema.recordOf("Source",
+                                          Schema.Field.of("marker", Schema.of(Schema.Type.NULL)),
+                                          Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+                                          Schema.Field.of("id", Schema.of(Schema.Type.INT)));
+    Schema targetSchema = Schema.unionOf(
+      Schema.recordOf("Target1",
+                      Schema.Field.of("marker", Schema.of(Schema.Type.NULL)),
+                      Schema.Field.of("name", Schema.of(Schema.Type.INT)),
+                      Schema.Field.of("id", Schema.of(Schema.Type.INT))),
+      Schema.recordOf("Target2",
+                      Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+                      Schema.Field.of("id", Schema.of(Schema.Type.INT))));
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new BinaryEncoder(os).writeNull().writeString("new").writeInt(2);
+    byte[] bytes = os.toByteArray();
+
+    ReflectionDatumReader<EvolvedRecord> reader =
+      new ReflectionDatumReader<EvolvedRecord>(targetSchema, TypeToken.of(EvolvedRecord.class));
+    EvolvedRecord reuse = new EvolvedRecord();
+    reuse.marker = "old";
+    EvolvedRecord result = reader.read(new BinaryDecoder(new ByteArrayInputStream(bytes)), sourceSchema, reuse);
+
+    Assert.assertSame(reuse, result);
+    Assert.assertEquals("new", result.name);
+    Assert.assertEquals(2, result.id);
+    // Not in the matching union schema, hence not modified
+    Assert.assertEquals("old", result.marker);
+  }
+
+  /**
+   *
+   */
+  public static final class ImmutableValue {
+    private final int id;
+    private final String name;
+    private final List<Long> values;
+
+    @DatumConstructor({ "id", "name", "values" })
+    public ImmutableValue(int id, String name, List<Long> values) {
+      this.id = id;
+      this.name = name;
+      this.values = values == null ? null : ImmutableList.copyOf(values);
+    }
+  }
+
+  @Test
+  public void testConstructor() throws IOException, UnsupportedTypeException {
+    TypeToken<ImmutableValue> type = TypeToken.of(ImmutableValue.class);
+    Schema schema = new ReflectionSchemaGenerator().generate(type.getType());
+    ReflectionDatumReader<ImmutableValue> reader = new ReflectionDatumReader<ImmutableValue>(schema, type);
+
+    ImmutableValue value = new ImmutableValue(10, "ten", ImmutableList.of(1L, 2L));
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new ReflectionDatumWriter<ImmutableValue>(schema).encode(value, new BinaryEncoder(os));
+    ImmutableValue result = reader.read(new BinaryDecoder(new ByteArrayInputStream(os.toByteArray())), schema);
+    Assert.assertEquals(10, result.id);
+    Assert.assertEquals("ten", result.name);
+    Assert.assertEquals(ImmutableList.of(1L, 2L), result.values);
+
+    // Read from a different schema, which doesn't have the values field
+    Schema valueSchema = new ReflectionSchemaGenerator().generate(Value.class);
+    os.reset();
+    new ReflectionDatumWriter<Value>(valueSchema).encode(new Value(20, "twenty"), new BinaryEncoder(os));
+    result = reader.read(new BinaryDecoder(new ByteArrayInputStream(os.toByteArray())), valueSchema);
+    Assert.assertEquals(20, result.id);
+    Assert.assertEquals("twenty", result.name);
+    Assert.assertNull(result.values);
+  }
+
+  @Test
+  public void testConstructorNullPrimitive() throws IOException {
+    // A nullable field with null value for a primitive parameter gets the default value
+    Schema schema = Schema.recordOf("ImmutableValue",
+                                    Schema.Field.of("id", Schema.unionOf(Schema.of(Schema.Type.NULL),
+                                                                         Schema.of(Schema.Type.INT))),
+                                    Schema.Field.of("name", Schema.of(Schema.Type.STRING)));
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new BinaryEncoder(os).writeInt(0).writeNull().writeString("none");
+
+    ImmutableValue result = new ReflectionDatumReader<ImmutableValue>(schema, TypeToken.of(ImmutableValue.class))
+      .read(new BinaryDecoder(new ByteArrayInputStream(os.toByteArray())), schema);
+    Assert.assertEquals(0, result.id);
+    Assert.assertEquals("none", result.name);
+    Assert.assertNull(result.values);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testJavaRecord() throws Exception {
+    // Java record is compiled at runtime, as the code is compiled for a Java version without record support
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    Assume.assumeTrue(compiler != null && hasRecordSupport());
+
+    File dir = tmpFolder.newFolder();
+    File source = new File(dir, "Point.java");
+    Files.write("public record Point(int x, String name, long count) { }", source, Charsets.UTF_8);
+    Assert.assertEquals(0, compiler.run(null, null, null, "-d", dir.getAbsolutePath(), source.getAbsolutePath()));
+
+    URLClassLoader classLoader = new URLClassLoader(new URL[] { dir.toURI().toURL() },
+                                                    getClass().getClassLoader());
+    try {
+      Class<?> pointClass = classLoader.loadClass("Point");
+      TypeToken<?> pointType = TypeToken.of(pointClass);
+      TypeToken<Object> type = (TypeToken<Object>) pointType;
+      Schema schema = new ReflectionSchemaGenerator().generate(pointClass);
+      Object point = pointClass.getConstructor(int.class, String.class, long.class).newInstance(1, "one", 10L);
+
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      new ReflectionDatumWriter<Object>(schema).encode(point, new BinaryEncoder(os));
+      ReflectionDatumReader<Object> reader = new ReflectionDatumReader<Object>(schema, type);
+      Object result = reader.read(new BinaryDecoder(new ByteArrayInputStream(os.toByteArray())), schema);
+      Assert.assertEquals(point, result);
+
+      // Source without the count field and with null value for the x field
+      Schema sourceSchema = Schema.recordOf("Point",
+                                            Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+                                            Schema.Field.of("x", Schema.unionOf(Schema.of(Schema.Type.INT),
+                                                                                Schema.of(Schema.Type.NULL))));
+      Schema targetSchema = Schema.recordOf("Point",
+                                            Schema.Field.of("x", Schema.unionOf(Schema.of(Schema.Type.INT),
+                                                                                Schema.of(Schema.Type.NULL))),
+                                            Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+                                            Schema.Field.of("count", Schema.of(Schema.Type.LONG)));
+      os.reset();
+      new BinaryEncoder(os).writeString("two").writeInt(1).writeNull();
+      result = new ReflectionDatumReader<Object>(targetSchema, type)
+        .read(new BinaryDecoder(new ByteArrayInputStream(os.toByteArray())), sourceSchema);
+      Assert.assertEquals(pointClass.getConstructor(int.class, String.class, long.class).newInstance(0, "two", 0L),
+                          result);
+    } finally {
+      classLoader.close();
+    }
+  }
+
+  private boolean hasRecordSupport() {
+    try {
+      Class.class.getMethod("isRecord");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  @Test
+  public void testSizer() throws IOException, UnsupportedTypeException {
+    Schema schema = new ReflectionSchemaGenerator().generate(Record2.class);
+    DatumWriter<Record2> writer = new ReflectionDatumWriter<Record2>(schema);
+    DatumSizer<Record2> sizer = new DatumSizer<Record2>(writer);
+
+    // Strings with multi-bytes characters, surrogate pair and unpaired surrogate
+    String[] names = { "", "name", "\u00e9\u4e2d", "\ud83d\ude00", "\ud83d", "x\ude00y" };
+    for (long i : new long[] { 0L, -1L, 300L, Long.MIN_VALUE, Long.MAX_VALUE }) {
+      for (String name : names) {
+        Record2 record = new Record2(i, ImmutableMap.of(name, new Value((int) i, name)), name);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        writer.encode(record, new BinaryEncoder(os));
+        Assert.assertEquals(os.size(), sizer.sizeOf(record));
+      }
+    }
+  }
+
+  @Test
+  public void testArrayBlocks() throws IOException, UnsupportedTypeException {
+    Schema schema = Schema.arrayOf(Schema.of(Schema.Type.INT));
+
+    // Encode an array with two blocks
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    Encoder encoder = new BinaryEncoder(os);
+    encoder.writeInt(2).writeInt(1).writeInt(2);
+    encoder.writeInt(3).writeInt(3).writeInt(4).writeInt(5);
+    encoder.writeInt(0);
+    byte[] bytes = os.toByteArray();
+
+    int[] ints = new ReflectionDatumReader<int[]>(schema, TypeToken.of(int[].class))
+      .read(new BinaryDecoder(new ByteArrayInputStream(bytes)), schema);
+    Assert.assertArrayEquals(new int[] { 1, 2, 3, 4, 5 }, ints);
+
+    // Reading into an array that needs conversion
+    long[] longs = new ReflectionDatumReader<long[]>(Schema.arrayOf(Schema.of(Schema.Type.LONG)),
+                                                     TypeToken.of(long[].class))
+      .read(new BinaryDecoder(new ByteArrayInputStream(bytes)), schema);
+    Assert.assertArrayEquals(new long[] { 1L, 2L, 3L, 4L, 5L }, longs);
+
+    // Reading into an array of a wider type with the same schema type
+    longs = new ReflectionDatumReader<long[]>(schema, TypeToken.of(long[].class))
+      .read(new BinaryDecoder(new ByteArrayInputStream(bytes)), schema);
+    Assert.assertArrayEquals(new long[] { 1L, 2L, 3L, 4L, 5L }, longs);
+    double[] doubles = new ReflectionDatumReader<double[]>(schema, TypeToken.of(double[].class))
+      .read(new BinaryDecoder(new ByteArrayInputStream(bytes)), schema);
+    Assert.assertArrayEquals(new double[] { 1d, 2d, 3d, 4d, 5d }, doubles, 0d);
+
+    Integer[] integers = new ReflectionDatumReader<Integer[]>(schema, TypeToken.of(Integer[].class))
+      .read(new BinaryDecoder(new ByteArrayInputStream(bytes)), schema);
+    Assert.assertArrayEquals(new Integer[] { 1, 2, 3, 4, 5 }, integers);
+
+    // Reuse a larger array
+    ReflectionDatumReader<int[]> reader = new ReflectionDatumReader<int[]>(schema, TypeToken.of(int[].class));
+    int[] result = reader.read(new BinaryDecoder(new ByteArrayInputStream(bytes)), schema, new int[10]);
+    Assert.assertArrayEquals(new int[] { 1, 2, 3, 4, 5 }, result);
+
+    List<Integer> list = new ReflectionDatumReader<List<Integer>>(schema, new TypeToken<List<Integer>>() { })
+      .read(new BinaryDecoder(new ByteArrayInputStream(bytes)), schema);
+    Assert.assertEquals(ImmutableList.of(1, 2, 3, 4, 5), list);
+  }
+
+  @Test
+  public void testLargeArrayBlock() throws IOException, UnsupportedTypeException {
+    Schema schema = Schema.arrayOf(Schema.of(Schema.Type.INT));
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    Encoder encoder = new BinaryEncoder(os);
+    encoder.writeInt(5000);
+    for (int i = 0; i < 5000; i++) {
+      encoder.writeInt(i);
+    }
+    encoder.writeInt(0);
+
+    int[] ints = new ReflectionDatumReader<int[]>(schema, TypeToken.of(int[].class))
+      .read(new BinaryDecoder(new ByteArrayInputStream(os.toByteArray())), schema);
+    Assert.assertEquals(5000, ints.length);
+    for (int i = 0; i < ints.length; i++) {
+      Assert.assertEquals(i, ints[i]);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testInvalidBlockCount() throws IOException {
+    Schema arraySchema = Schema.arrayOf(Schema.of(Schema.Type.INT));
+    Schema mapSchema = Schema.mapOf(Schema.of(Schema.Type.INT), Schema.of(Schema.Type.INT));
+    List<TypeToken<?>> arrayTypes = ImmutableList.<TypeToken<?>>of(TypeToken.of(int[].class),
+                                                                   TypeToken.of(Integer[].class),
+                                                                   new TypeToken<List<Integer>>() { },
+                                                                   new TypeToken<Set<Integer>>() { });
+
+    for (int count : new int[] { Integer.MAX_VALUE - 1, -1 }) {
+      // A block count much larger than the data or negative
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      new BinaryEncoder(os).writeInt(count).writeInt(1).writeInt(2);
+      byte[] bytes = os.toByteArray();
+
+      for (TypeToken<?> type : arrayTypes) {
+        try {
+          new ReflectionDatumReader<Object>(arraySchema, (TypeToken<Object>) type)
+            .read(new BinaryDecoder(new ByteArrayInputStream(bytes)), arraySchema);
+          Assert.fail("Expected IOException for " + type + " with count " + count);
+        } catch (IOException e) {
+          // Expected
+        }
+      }
+      try {
+        new ReflectionDatumReader<Map<Integer, Integer>>(mapSchema, new TypeToken<Map<Integer, Integer>>() { })
+          .read(new BinaryDecoder(new ByteArrayInputStream(bytes)), mapSchema);
+        Assert.fail("Expected IOException for map with count " + count);
+      } catch (IOException e) {
+        // Expected
+      }
+    }
+  }
 }
 
 // dummy class for testEmptyValue()
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ranges;
+import com.google.common.reflect.TypeToken;
+import io.cdap.common.internal.io.DatumFilter;
+import io.cdap.common.internal.io.ReflectionDatumReader;
+import io.cdap.common.internal.io.ReflectionDatumWriter;
+import io.cdap.common.internal.io.ReflectionSchemaGenerator;
+import io.cdap.common.internal.io.Schema;
+import io.cdap.common.internal.io.UnsupportedTypeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Tests for {@link DatumFilter}.
+ */
+public class DatumFilterTest {
+
+  /**
+   * Enum for testing.
+   */
+  public enum Level {
+    LOW, MEDIUM, HIGH
+  }
+
+  /**
+   * Nested record for testing.
+   */
+  public static final class Address {
+    private final String city;
+    private final int zip;
+
+    public Address(String city, int zip) {
+      this.city = city;
+      this.zip = zip;
+    }
+  }
+
+  /**
+   * Record for testing.
+   */
+  public static final class Event {
+    private final long id;
+    private final String name;
+    private final float score;
+    private final double amount;
+    private final Level level;
+    private final List<String> tags;
+    private final Address address;
+
+    public Event(long id, String name, float score, double amount, Level level, Address address) {
+      this.id = id;
+      this.name = name;
+      this.score = score;
+      this.amount = amount;
+      this.level = level;
+      this.tags = ImmutableList.of("tag" + id);
+      this.address = address;
+    }
+  }
+
+  @Test
+  public void testFilter() throws IOException, UnsupportedTypeException {
+    Schema schema = new ReflectionSchemaGenerator().generate(Event.class);
+    List<Event> events = ImmutableList.of(
+      new Event(1L, "a", 0.1f, 10d, Level.LOW, new Address("sf", 94105)),
+      new Event(2L, "b", 0.5f, 20d, Level.MEDIUM, null),
+      new Event(3L, null, 0.9f, 30d, Level.HIGH, new Address("ny", 10001)),
+      new Event(4L, "中", 1.5f, 40d, Level.HIGH, new Address(null, 10002))
+    );
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    BinaryEncoder encoder = new BinaryEncoder(os);
+    ReflectionDatumWriter<Event> writer = new ReflectionDatumWriter<Event>(schema);
+    for (Event event : events) {
+      writer.encode(event, encoder);
+    }
+    byte[] bytes = os.toByteArray();
+
+    assertMatches(bytes, DatumFilter.builder(schema).equalTo("id", 2).build(), 2L);
+    assertMatches(bytes, DatumFilter.builder(schema).equalTo("name", "中").build(), 4L);
+    assertMatches(bytes, DatumFilter.builder(schema).equalTo("score", 0.1f).build(), 1L);
+    assertMatches(bytes, DatumFilter.builder(schema).in("level", ImmutableList.of(Level.LOW, "MEDIUM")).build(),
+                  1L, 2L);
+    assertMatches(bytes, DatumFilter.builder(schema).range("amount", Ranges.closedOpen(20d, 40d)).build(), 2L, 3L);
+    assertMatches(bytes, DatumFilter.builder(schema).range("id", Ranges.greaterThan(2L)).build(), 3L, 4L);
+    assertMatches(bytes, DatumFilter.builder(schema).range("name", Ranges.atLeast("b")).build(), 2L, 4L);
+    assertMatches(bytes, DatumFilter.builder(schema).range("level", Ranges.atMost(Level.MEDIUM)).build(), 1L, 2L);
+
+    // Null checks, on nested field with null parent as well
+    assertMatches(bytes, DatumFilter.builder(schema).isNull("name").build(), 3L);
+    assertMatches(bytes, DatumFilter.builder(schema).isNotNull("address.zip").build(), 1L, 3L, 4L);
+    assertMatches(bytes, DatumFilter.builder(schema).isNull("address.city").build(), 2L, 4L);
+    assertMatches(bytes, DatumFilter.builder(schema).equalTo("address.city", "ny").build(), 3L);
+
+    // Multiple predicates
+    assertMatches(bytes, DatumFilter.builder(schema)
+      .equalTo("level", Level.HIGH)
+      .range("address.zip", Ranges.lessThan(10002))
+      .build(), 3L);
+    assertMatches(bytes, DatumFilter.builder(schema).equalTo("id", 1L).equalTo("id", 2L).build());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPath() throws UnsupportedTypeException {
+    DatumFilter.builder(new ReflectionSchemaGenerator().generate(Event.class)).isNull("address.country");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedType() throws UnsupportedTypeException {
+    DatumFilter.builder(new ReflectionSchemaGenerator().generate(Event.class)).isNull("tags");
+  }
+
+  private void assertMatches(byte[] bytes, DatumFilter filter, Long... expectedIds) throws IOException {
+    ReflectionDatumReader<Event> reader = new ReflectionDatumReader<Event>(filter.getSchema(),
+                                                                           TypeToken.of(Event.class));
+    ByteArrayDecoder decoder = new ByteArrayDecoder(bytes);
+    ImmutableList.Builder<Long> builder = ImmutableList.builder();
+    while (decoder.getPosition() < decoder.getLimit()) {
+      Event event = filter.read(decoder, reader);
+      if (event != null) {
+        builder.add(event.id);
+      }
+    }
+    Assert.assertEquals(ImmutableList.copyOf(expectedIds), builder.build());
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.reflect.TypeToken;
+import io.cdap.common.ContentProvider;
+import io.cdap.common.internal.io.DatumPublisher;
+import io.cdap.common.internal.io.ReflectionDatumReader;
+import io.cdap.common.internal.io.ReflectionDatumWriter;
+import io.cdap.common.internal.io.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link DatumPublisher}.
+ */
+public class DatumPublisherTest {
+
+  private static final Schema SCHEMA = Schema.of(Schema.Type.STRING);
+
+  /**
+   * A {@link DatumPublisher.Subscriber} that requests a fixed number of datums at a time.
+   */
+  private static final class BatchSubscriber implements DatumPublisher.Subscriber<String> {
+
+    private final int batchSize;
+    private final int cancelAfter;
+    private final List<String> items = Lists.newCopyOnWriteArrayList();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private DatumPublisher.Subscription subscription;
+    private volatile boolean completed;
+    private volatile Throwable error;
+    private int outstanding;
+
+    private BatchSubscriber(int batchSize, int cancelAfter) {
+      this.batchSize = batchSize;
+      this.cancelAfter = cancelAfter;
+    }
+
+    @Override
+    public void onSubscribe(DatumPublisher.Subscription subscription) {
+      this.subscription = subscription;
+      outstanding = batchSize;
+      subscription.request(batchSize);
+    }
+
+    @Override
+    public synchronized void onNext(String item) {
+      Assert.assertTrue("Received more than requested", outstanding > 0);
+      items.add(item);
+      if (items.size() == cancelAfter) {
+        subscription.cancel();
+        terminated.countDown();
+        return;
+      }
+      if (--outstanding == 0) {
+        outstanding = batchSize;
+        subscription.request(batchSize);
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+      terminated.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+      terminated.countDown();
+    }
+  }
+
+  @Test
+  public void testPublish() throws Exception {
+    final byte[] bytes = encode(100);
+    List<String> expected = Lists.newArrayList();
+    for (int i = 0; i < 100; i++) {
+      expected.add("datum" + i);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      ContentProvider<InputStream> provider = new ContentProvider<InputStream>() {
+        @Override
+        public InputStream getInput() {
+          return new ByteArrayInputStream(bytes);
+        }
+      };
+
+      // Decode in the reading or requesting thread
+      DatumPublisher<String> publisher = createBuilder().setReadAhead(4).build(provider);
+      BatchSubscriber subscriber = subscribe(publisher, 3, -1);
+      Assert.assertTrue(subscriber.completed);
+      Assert.assertEquals(expected, subscriber.items);
+
+      // Decode in a separate executor
+      publisher = createBuilder().setExecutor(executor).setDecodeExecutor(executor).build(provider);
+      subscriber = subscribe(publisher, 7, -1);
+      Assert.assertTrue(subscriber.completed);
+      Assert.assertEquals(expected, subscriber.items);
+
+      // Cancel in the middle
+      subscriber = subscribe(publisher, 5, 12);
+      Assert.assertFalse(subscriber.completed);
+      Assert.assertNull(subscriber.error);
+      Assert.assertEquals(expected.subList(0, 12), subscriber.items);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testSingleUseInput() throws Exception {
+    byte[] bytes = encode(10);
+    DatumPublisher<String> publisher = createBuilder()
+      .build(Channels.newChannel(new ByteArrayInputStream(bytes)));
+
+    BatchSubscriber subscriber = subscribe(publisher, Integer.MAX_VALUE, -1);
+    Assert.assertTrue(subscriber.completed);
+    Assert.assertEquals(10, subscriber.items.size());
+
+    subscriber = subscribe(publisher, 1, -1);
+    Assert.assertTrue(subscriber.error instanceof IOException);
+  }
+
+  @Test
+  public void testTruncatedInput() throws Exception {
+    byte[] bytes = encode(3);
+    DatumPublisher<String> publisher = createBuilder()
+      .build(new ByteArrayInputStream(bytes, 0, bytes.length - 1));
+    BatchSubscriber subscriber = subscribe(publisher, 10, -1);
+    Assert.assertEquals(ImmutableList.of("datum0", "datum1"), subscriber.items);
+    Assert.assertTrue(subscriber.error instanceof IOException);
+  }
+
+  @Test
+  public void testInvalidRequest() throws Exception {
+    DatumPublisher<String> publisher = createBuilder().build(new ByteArrayInputStream(encode(3)));
+    BatchSubscriber subscriber = subscribe(publisher, 0, -1);
+    Assert.assertTrue(subscriber.error instanceof IllegalArgumentException);
+  }
+
+  @Test
+  public void testMaxDatumSize() throws Exception {
+    DatumPublisher<String> publisher = createBuilder().setMaxDatumSize(4).build(new ByteArrayInputStream(encode(3)));
+    BatchSubscriber subscriber = subscribe(publisher, 10, -1);
+    Assert.assertTrue(subscriber.items.isEmpty());
+    Assert.assertTrue(subscriber.error instanceof IOException);
+  }
+
+  @Test
+  public void testSubscriberFailure() throws Exception {
+    final RuntimeException exception = new RuntimeException("Failure");
+    final List<String> items = Lists.newCopyOnWriteArrayList();
+    final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+    final CountDownLatch terminated = new CountDownLatch(1);
+
+    createBuilder().build(new ByteArrayInputStream(encode(10))).subscribe(new DatumPublisher.Subscriber<String>() {
+      @Override
+      public void onSubscribe(DatumPublisher.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(String item) {
+        items.add(item);
+        if (items.size() == 2) {
+          throw exception;
+        }
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        error.set(throwable);
+        terminated.countDown();
+      }
+
+      @Override
+      public void onComplete() {
+        terminated.countDown();
+      }
+    });
+
+    // The failure from the subscriber is delivered to onError and no more datum is delivered
+    Assert.assertTrue(terminated.await(10, TimeUnit.SECONDS));
+    Assert.assertSame(exception, error.get());
+    Assert.assertEquals(ImmutableList.of("datum0", "datum1"), items);
+  }
+
+  private DatumPublisher.Builder<String> createBuilder() {
+    return DatumPublisher.builder(SCHEMA, new ReflectionDatumReader<String>(SCHEMA, TypeToken.of(String.class)));
+  }
+
+  private BatchSubscriber subscribe(DatumPublisher<String> publisher,
+                                    int batchSize, int cancelAfter) throws InterruptedException {
+    BatchSubscriber subscriber = new BatchSubscriber(batchSize, cancelAfter);
+    publisher.subscribe(subscriber);
+    Assert.assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+    return subscriber;
+  }
+
+  /**
+   * Encodes the given number of length-delimited strings.
+   */
+  private byte[] encode(int count) throws IOException {
+    ReflectionDatumWriter<String> writer = new ReflectionDatumWriter<String>(SCHEMA);
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    BinaryEncoder encoder = new BinaryEncoder(os);
+    ByteArrayOutputStream datum = new ByteArrayOutputStream();
+    for (int i = 0; i < count; i++) {
+      datum.reset();
+      writer.encode("datum" + i, new BinaryEncoder(datum));
+      encoder.writeBytes(datum.toByteArray());
+    }
+    return os.toByteArray();
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.cdap.common.internal.io.DatumTranscoder;
+import io.cdap.common.internal.io.GenericDatumReader;
+import io.cdap.common.internal.io.GenericDatumWriter;
+import io.cdap.common.internal.io.GenericRecord;
+import io.cdap.common.internal.io.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Tests for {@link DatumTranscoder}.
+ */
+public class DatumTranscoderTest {
+
+  private static final Schema SOURCE_CHILD = Schema.recordOf(
+    "Child",
+    Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("value", Schema.of(Schema.Type.INT)));
+
+  private static final Schema SOURCE = Schema.recordOf(
+    "Item",
+    Schema.Field.of("id", Schema.of(Schema.Type.INT)),
+    Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("data", Schema.of(Schema.Type.BYTES)),
+    Schema.Field.of("color", Schema.enumWith("RED", "GREEN", "BLUE")),
+    Schema.Field.of("scores", Schema.arrayOf(Schema.of(Schema.Type.INT))),
+    Schema.Field.of("props", Schema.mapOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.FLOAT))),
+    Schema.Field.of("child", SOURCE_CHILD),
+    Schema.Field.of("note", Schema.unionOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.NULL))),
+    Schema.Field.of("count", Schema.of(Schema.Type.INT)),
+    Schema.Field.of("removed", Schema.of(Schema.Type.STRING)));
+
+  @Test
+  public void testSameOrder() throws IOException {
+    Schema target = Schema.recordOf(
+      "Item",
+      Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("added", Schema.unionOf(Schema.of(Schema.Type.NULL), Schema.of(Schema.Type.INT))),
+      Schema.Field.of("data", Schema.of(Schema.Type.BYTES)),
+      Schema.Field.of("color", Schema.enumWith("BLUE", "GREEN", "RED", "YELLOW")),
+      Schema.Field.of("scores", Schema.arrayOf(Schema.of(Schema.Type.DOUBLE))),
+      Schema.Field.of("props", Schema.mapOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.DOUBLE))),
+      Schema.Field.of("child", SOURCE_CHILD),
+      Schema.Field.of("note", Schema.unionOf(Schema.of(Schema.Type.NULL), Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("count", Schema.of(Schema.Type.STRING)));
+
+    assertTranscode(SOURCE, target, createItem("note"));
+    assertTranscode(SOURCE, target, createItem(null));
+  }
+
+  @Test
+  public void testReorder() throws IOException {
+    Schema targetChild = Schema.recordOf(
+      "Child",
+      Schema.Field.of("value", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("name", Schema.of(Schema.Type.STRING)));
+
+    Schema target = Schema.recordOf(
+      "Item",
+      Schema.Field.of("count", Schema.unionOf(Schema.of(Schema.Type.NULL), Schema.of(Schema.Type.LONG))),
+      Schema.Field.of("note", Schema.unionOf(Schema.of(Schema.Type.NULL), Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("child", targetChild),
+      Schema.Field.of("props", Schema.mapOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.DOUBLE))),
+      Schema.Field.of("scores", Schema.arrayOf(Schema.of(Schema.Type.LONG))),
+      Schema.Field.of("added", Schema.unionOf(Schema.of(Schema.Type.NULL), Schema.of(Schema.Type.INT))),
+      Schema.Field.of("color", Schema.enumWith("BLUE", "GREEN", "RED")),
+      Schema.Field.of("data", Schema.of(Schema.Type.BYTES)),
+      Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("id", Schema.of(Schema.Type.LONG)));
+
+    assertTranscode(SOURCE, target, createItem("note"));
+    assertTranscode(SOURCE, target, createItem(null));
+  }
+
+  @Test
+  public void testRecursive() throws IOException {
+    Schema source = Schema.recordOf(
+      "Node",
+      Schema.Field.of("value", Schema.of(Schema.Type.INT)),
+      Schema.Field.of("next", Schema.unionOf(Schema.recordOf("Node"), Schema.of(Schema.Type.NULL))));
+    Schema target = Schema.recordOf(
+      "Node",
+      Schema.Field.of("next", Schema.unionOf(Schema.of(Schema.Type.NULL), Schema.recordOf("Node"))),
+      Schema.Field.of("value", Schema.of(Schema.Type.LONG)));
+
+    GenericRecord node = null;
+    for (int i = 0; i < 5; i++) {
+      node = new GenericRecord(source).set("value", i).set("next", node);
+    }
+    assertTranscode(source, target, node);
+  }
+
+  @Test
+  public void testIdentity() throws IOException {
+    byte[] bytes = encode(SOURCE, createItem("note"));
+    Assert.assertArrayEquals(bytes, transcode(new DatumTranscoder(SOURCE, SOURCE), bytes));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingNotNullable() {
+    Schema target = Schema.recordOf(
+      "Item",
+      Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("added", Schema.of(Schema.Type.INT)));
+    new DatumTranscoder(SOURCE, target);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotCompatible() {
+    Schema target = Schema.recordOf(
+      "Item",
+      Schema.Field.of("color", Schema.enumWith("RED", "GREEN")));
+    new DatumTranscoder(SOURCE, target);
+  }
+
+  @Test
+  public void testInvalidEnumIndex() throws IOException {
+    Schema schema = Schema.recordOf("Item", Schema.Field.of("color", Schema.enumWith("RED", "GREEN")));
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new BinaryEncoder(os).writeInt(5);
+    try {
+      new DatumTranscoder(schema, schema).transcode(new ByteArrayDecoder(os.toByteArray()),
+                                                    new BinaryEncoder(new ByteArrayOutputStream()));
+      Assert.fail("Expected IOException");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("index 5"));
+    }
+  }
+
+  private GenericRecord createItem(String note) {
+    return new GenericRecord(SOURCE)
+      .set("id", 1)
+      .set("name", "item")
+      .set("data", ByteBuffer.wrap("data".getBytes(Charsets.UTF_8)))
+      .set("color", "GREEN")
+      .set("scores", ImmutableList.of(1, -2, 300))
+      .set("props", ImmutableMap.of("a", 1.5f, "b", -0.25f))
+      .set("child", new GenericRecord(SOURCE_CHILD).set("name", "child").set("value", 10))
+      .set("note", note)
+      .set("count", 20)
+      .set("removed", "removed");
+  }
+
+  /**
+   * Asserts that the transcoded datum read with the target schema is the same as reading the original datum
+   * with resolution from the source schema.
+   */
+  private void assertTranscode(Schema source, Schema target, GenericRecord record) throws IOException {
+    byte[] bytes = encode(source, record);
+    byte[] transcoded = transcode(new DatumTranscoder(source, target), bytes);
+
+    GenericDatumReader reader = new GenericDatumReader(target);
+    GenericRecord expected = reader.read(new ByteArrayDecoder(bytes), source);
+    Assert.assertEquals(expected, reader.read(new ByteArrayDecoder(transcoded), target));
+  }
+
+  private byte[] transcode(DatumTranscoder transcoder, byte[] bytes) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    ByteArrayDecoder decoder = new ByteArrayDecoder(bytes);
+    transcoder.transcode(decoder, new BinaryEncoder(os));
+    Assert.assertEquals(bytes.length, decoder.getPosition());
+    return os.toByteArray();
+  }
+
+  private byte[] encode(Schema schema, GenericRecord record) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new GenericDatumWriter(schema).encode(record, new BinaryEncoder(os));
+    return os.toByteArray();
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.cdap.common.internal.io.DatumVisitor;
+import io.cdap.common.internal.io.DatumWalker;
+import io.cdap.common.internal.io.ReflectionDatumWriter;
+import io.cdap.common.internal.io.ReflectionSchemaGenerator;
+import io.cdap.common.internal.io.Schema;
+import io.cdap.common.internal.io.UnsupportedTypeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link DatumWalker}.
+ */
+public class DatumWalkerTest {
+
+  /**
+   * Record for testing.
+   */
+  public static final class Item {
+    private final int id;
+    private final String name;
+    private final List<Double> values;
+    private final Map<String, Long> counts;
+    private final Item child;
+
+    public Item(int id, String name, List<Double> values, Map<String, Long> counts, Item child) {
+      this.id = id;
+      this.name = name;
+      this.values = values;
+      this.counts = counts;
+      this.child = child;
+    }
+  }
+
+  /**
+   * A visitor that writes out the visited values in JSON like format, skipping fields with the given name.
+   */
+  private static final class JsonVisitor implements DatumVisitor {
+
+    private final StringBuilder builder = new StringBuilder();
+    private final String skipField;
+
+    private JsonVisitor(String skipField) {
+      this.skipField = skipField;
+    }
+
+    @Override
+    public boolean startRecord(Schema schema) {
+      builder.append('{');
+      return true;
+    }
+
+    @Override
+    public boolean visitField(Schema.Field field, int position) {
+      if (field.getName().equals(skipField)) {
+        return false;
+      }
+      builder.append(field.getName()).append(':');
+      return true;
+    }
+
+    @Override
+    public void endRecord(Schema schema) {
+      builder.append('}');
+    }
+
+    @Override
+    public boolean startArray(Schema schema) {
+      builder.append('[');
+      return true;
+    }
+
+    @Override
+    public void endArray(Schema schema) {
+      builder.append(']');
+    }
+
+    @Override
+    public boolean startMap(Schema schema) {
+      // Skip all maps
+      builder.append("map");
+      return false;
+    }
+
+    @Override
+    public void visitNull() {
+      builder.append("null,");
+    }
+
+    @Override
+    public void visitInt(int value) {
+      builder.append(value).append(',');
+    }
+
+    @Override
+    public void visitDouble(double value) {
+      builder.append(value).append(',');
+    }
+
+    @Override
+    public void visitString(ByteBuffer utf8) {
+      builder.append('"').append(Charsets.UTF_8.decode(utf8)).append("\",");
+    }
+  }
+
+  @Test
+  public void testWalk() throws IOException, UnsupportedTypeException {
+    Schema schema = new ReflectionSchemaGenerator().generate(Item.class);
+    Item item = new Item(1, "parent", ImmutableList.of(1.5d, 2.5d), ImmutableMap.of("a", 1L),
+                         new Item(2, "child", ImmutableList.<Double>of(), ImmutableMap.<String, Long>of(), null));
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new ReflectionDatumWriter<Item>(schema).encode(item, new BinaryEncoder(os));
+    byte[] bytes = os.toByteArray();
+
+    // Fields are sorted by name: child, counts, id, name, values
+    JsonVisitor visitor = new JsonVisitor("name");
+    ByteArrayDecoder decoder = new ByteArrayDecoder(bytes);
+    DatumWalker.walk(decoder, schema, visitor);
+    Assert.assertEquals(bytes.length, decoder.getPosition());
+    Assert.assertEquals("{child:{child:null,counts:mapid:2,values:[]}counts:mapid:1,values:[1.5,2.5,]}",
+                        visitor.builder.toString());
+
+    visitor = new JsonVisitor("child");
+    DatumWalker.walk(new BinaryDecoder(new ByteArrayInputStream(bytes)), schema, visitor);
+    Assert.assertEquals("{counts:mapid:1,name:\"parent\",values:[1.5,2.5,]}", visitor.builder.toString());
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.reflect.TypeToken;
+import io.cdap.common.internal.io.DatumWriter;
+import io.cdap.common.internal.io.GenericDatumReader;
+import io.cdap.common.internal.io.GenericDatumWriter;
+import io.cdap.common.internal.io.GenericRecord;
+import io.cdap.common.internal.io.ReflectionDatumReader;
+import io.cdap.common.internal.io.ReflectionDatumWriter;
+import io.cdap.common.internal.io.ReflectionSchemaGenerator;
+import io.cdap.common.internal.io.Schema;
+import io.cdap.common.internal.io.UnsupportedTypeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link GenericRecord}, {@link GenericDatumReader} and {@link GenericDatumWriter}.
+ */
+public class GenericRecordTest {
+
+  /**
+   * Enum for testing.
+   */
+  public enum Color {
+    RED, GREEN, BLUE
+  }
+
+  /**
+   * Nested record for testing.
+   */
+  public static final class Child {
+    private String name;
+    private int value;
+
+    public Child() {
+    }
+
+    public Child(String name, int value) {
+      this.name = name;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Record for testing.
+   */
+  public static final class Parent {
+    private int id;
+    private String text;
+    private byte[] data;
+    private Color color;
+    private List<Child> children;
+    private Map<String, Integer> counts;
+    private Child child;
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException, UnsupportedTypeException {
+    Schema schema = new ReflectionSchemaGenerator().generate(Parent.class);
+    Schema childSchema = new ReflectionSchemaGenerator().generate(Child.class);
+
+    Parent parent = new Parent();
+    parent.id = 10;
+    parent.text = "text";
+    parent.data = "data".getBytes(Charsets.UTF_8);
+    parent.color = Color.GREEN;
+    parent.children = ImmutableList.of(new Child("c1", 1), new Child("c2", 2));
+    parent.counts = ImmutableMap.of("a", 1, "b", 2);
+    byte[] encoded = encode(new ReflectionDatumWriter<Parent>(schema), parent);
+
+    GenericRecord record = new GenericDatumReader(schema).read(new ByteArrayDecoder(encoded), schema);
+    Assert.assertEquals(10, record.get("id"));
+    Assert.assertEquals("text", record.get("text"));
+    Assert.assertEquals(ByteBuffer.wrap(parent.data), record.get("data"));
+    Assert.assertEquals("GREEN", record.get("color"));
+    Assert.assertEquals(ImmutableMap.of("a", 1, "b", 2), record.get("counts"));
+    Assert.assertNull(record.get("child"));
+    List<?> children = (List<?>) record.get("children");
+    Assert.assertEquals(2, children.size());
+    Assert.assertEquals(new GenericRecord(childSchema).set("name", "c2").set("value", 2), children.get(1));
+
+    // Write the generic record and read it back with reflection
+    record.set("child", new GenericRecord(childSchema).set("name", "c3").set("value", 3));
+    byte[] reencoded = encode(new GenericDatumWriter(schema), record);
+    Parent decoded = new ReflectionDatumReader<Parent>(schema, TypeToken.of(Parent.class))
+      .read(new ByteArrayDecoder(reencoded), schema);
+    Assert.assertEquals(10, decoded.id);
+    Assert.assertArrayEquals(parent.data, decoded.data);
+    Assert.assertEquals(Color.GREEN, decoded.color);
+    Assert.assertEquals("c2", decoded.children.get(1).name);
+    Assert.assertEquals("c3", decoded.child.name);
+    Assert.assertEquals(3, decoded.child.value);
+    Assert.assertEquals(record, new GenericDatumReader(schema).read(new ByteArrayDecoder(reencoded), schema));
+  }
+
+  @Test
+  public void testProjection() throws IOException, UnsupportedTypeException {
+    Schema sourceSchema = new ReflectionSchemaGenerator().generate(Child.class);
+    Schema targetSchema = Schema.recordOf("target",
+                                          Schema.Field.of("extra", Schema.of(Schema.Type.STRING)),
+                                          Schema.Field.of("value", Schema.unionOf(Schema.of(Schema.Type.NULL),
+                                                                                  Schema.of(Schema.Type.LONG))));
+    GenericDatumReader reader = new GenericDatumReader(targetSchema);
+
+    GenericRecord reuse = new GenericRecord(targetSchema).set("extra", "x");
+    GenericRecord record = reader.read(new ByteArrayDecoder(encode(new ReflectionDatumWriter<Child>(sourceSchema),
+                                                                   new Child("c", 5))), sourceSchema, reuse);
+    Assert.assertSame(reuse, record);
+    Assert.assertNull(record.get("extra"));
+    Assert.assertEquals(5L, record.get("value"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidValue() throws IOException, UnsupportedTypeException {
+    Schema schema = new ReflectionSchemaGenerator().generate(Child.class);
+    encode(new GenericDatumWriter(schema), new GenericRecord(schema).set("name", "n"));
+  }
+
+  @Test
+  public void testInvalidEnumIndex() throws IOException {
+    Schema schema = Schema.recordOf("record", Schema.Field.of("color", Schema.enumWith("RED", "GREEN")));
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new BinaryEncoder(os).writeInt(5);
+    try {
+      new GenericDatumReader(schema).read(new ByteArrayDecoder(os.toByteArray()), schema);
+      Assert.fail("Expected IOException");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("index 5"));
+    }
+  }
+
+  private <T> byte[] encode(DatumWriter<T> writer, T value) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    writer.encode(value, new BinaryEncoder(os));
+    return os.toByteArray();
+  }
+}
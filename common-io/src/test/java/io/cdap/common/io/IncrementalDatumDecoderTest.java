@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.reflect.TypeToken;
+import io.cdap.common.internal.io.IncrementalDatumDecoder;
+import io.cdap.common.internal.io.ReflectionDatumReader;
+import io.cdap.common.internal.io.ReflectionDatumWriter;
+import io.cdap.common.internal.io.ReflectionSchemaGenerator;
+import io.cdap.common.internal.io.Schema;
+import io.cdap.common.internal.io.UnsupportedTypeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link IncrementalDatumDecoder}.
+ */
+public class IncrementalDatumDecoderTest {
+
+  /**
+   * Record for testing.
+   */
+  public static final class Message {
+    private final long id;
+    private final String text;
+    private final double value;
+    private final boolean flag;
+    private final List<Integer> numbers;
+    private final Map<String, Float> properties;
+
+    public Message(long id, String text, double value, boolean flag,
+                   List<Integer> numbers, Map<String, Float> properties) {
+      this.id = id;
+      this.text = text;
+      this.value = value;
+      this.flag = flag;
+      this.numbers = numbers;
+      this.properties = properties;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Message other = (Message) o;
+      return id == other.id && Objects.equal(text, other.text) && value == other.value && flag == other.flag
+        && Objects.equal(numbers, other.numbers) && Objects.equal(properties, other.properties);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(id, text, value, flag, numbers, properties);
+    }
+  }
+
+  @Test
+  public void testChunks() throws IOException, UnsupportedTypeException {
+    Schema schema = new ReflectionSchemaGenerator().generate(Message.class);
+    List<Message> messages = ImmutableList.of(
+      new Message(1L, "first", 1.5d, true, ImmutableList.of(1, 2, 3), ImmutableMap.of("a", 1.0f)),
+      new Message(-1000000000000L, null, 0d, false, ImmutableList.<Integer>of(), ImmutableMap.<String, Float>of()),
+      new Message(300L, "中文", -2.5d, true, Arrays.asList(1, null, 70000), ImmutableMap.of("b", 2.0f)),
+      new Message(Long.MAX_VALUE, "last", Double.MAX_VALUE, false, null, null)
+    );
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    BinaryEncoder encoder = new BinaryEncoder(os);
+    ReflectionDatumWriter<Message> writer = new ReflectionDatumWriter<Message>(schema);
+    for (Message message : messages) {
+      writer.encode(message, encoder);
+    }
+    byte[] bytes = os.toByteArray();
+
+    // Feed with chunks of every size, using both heap and direct buffers
+    for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+      for (boolean direct : new boolean[] { false, true }) {
+        IncrementalDatumDecoder<Message> decoder = new IncrementalDatumDecoder<Message>(
+          schema, new ReflectionDatumReader<Message>(schema, TypeToken.of(Message.class)));
+        List<Message> result = Lists.newArrayList();
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+          int len = Math.min(chunkSize, bytes.length - i);
+          ByteBuffer chunk = direct ? ByteBuffer.allocateDirect(len) : ByteBuffer.allocate(len + 2);
+          if (!direct) {
+            // Make the chunk a slice to test with array offset
+            chunk.position(2);
+            chunk = chunk.slice();
+          }
+          chunk.put(bytes, i, len).flip();
+          result.addAll(decoder.feed(chunk));
+          Assert.assertFalse(chunk.hasRemaining());
+        }
+        Assert.assertEquals(messages, result);
+        Assert.assertFalse(decoder.hasPartialDatum());
+      }
+    }
+  }
+
+  @Test
+  public void testPartial() throws IOException {
+    Schema schema = Schema.of(Schema.Type.STRING);
+    IncrementalDatumDecoder<String> decoder = new IncrementalDatumDecoder<String>(
+      schema, new ReflectionDatumReader<String>(schema, TypeToken.of(String.class)));
+
+    // Length prefix of 5 with only 2 bytes of content
+    Assert.assertTrue(decoder.feed(ByteBuffer.wrap(new byte[] { 10, 'a', 'b' })).isEmpty());
+    Assert.assertTrue(decoder.hasPartialDatum());
+    Assert.assertEquals(ImmutableList.of("abcde", "x"), decoder.feed(ByteBuffer.wrap(new byte[] {
+      'c', 'd', 'e', 2, 'x', 4 })));
+    Assert.assertTrue(decoder.hasPartialDatum());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptySchema() {
+    Schema schema = Schema.of(Schema.Type.NULL);
+    new IncrementalDatumDecoder<Object>(schema, new ReflectionDatumReader<Object>(schema, TypeToken.of(Object.class)));
+  }
+}
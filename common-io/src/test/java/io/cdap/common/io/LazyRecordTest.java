@@ -0,0 +1,161 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.cdap.common.internal.io.LazyRecord;
+import io.cdap.common.internal.io.LazyRecordDatumReader;
+import io.cdap.common.internal.io.ReflectionDatumWriter;
+import io.cdap.common.internal.io.ReflectionSchemaGenerator;
+import io.cdap.common.internal.io.Schema;
+import io.cdap.common.internal.io.UnsupportedTypeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link LazyRecord}.
+ */
+public class LazyRecordTest {
+
+  /**
+   * Enum for testing.
+   */
+  public enum Color {
+    RED, GREEN, BLUE
+  }
+
+  /**
+   * Nested record for testing.
+   */
+  public static final class Child {
+    private final String name;
+    private final long value;
+
+    public Child(String name, long value) {
+      this.name = name;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Record for testing.
+   */
+  public static final class Parent {
+    private final int id;
+    private final String text;
+    private final byte[] data;
+    private final Color color;
+    private final List<Child> children;
+    private final Map<String, Integer> counts;
+    private final Child child;
+    private final double score;
+
+    public Parent(int id, String text, byte[] data, Color color, List<Child> children,
+                  Map<String, Integer> counts, Child child, double score) {
+      this.id = id;
+      this.text = text;
+      this.data = data;
+      this.color = color;
+      this.children = children;
+      this.counts = counts;
+      this.child = child;
+      this.score = score;
+    }
+  }
+
+  @Test
+  public void testFieldAccess() throws IOException, UnsupportedTypeException {
+    Schema schema = new ReflectionSchemaGenerator().generate(Parent.class);
+    Parent parent = new Parent(1, "text", new byte[] { 1, 2, 3 }, Color.GREEN,
+                               ImmutableList.of(new Child("c1", 10L), new Child("c2", 20L)),
+                               ImmutableMap.of("a", 1, "b", 2), new Child("child", 30L), 1.5d);
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new ReflectionDatumWriter<Parent>(schema).encode(parent, new BinaryEncoder(os));
+    byte[] bytes = os.toByteArray();
+
+    // Prefix some bytes before the record to make sure offsets are handled
+    byte[] buffer = new byte[bytes.length + 3];
+    System.arraycopy(bytes, 0, buffer, 3, bytes.length);
+    ByteArrayDecoder arrayDecoder = new ByteArrayDecoder(buffer, 3, bytes.length);
+    LazyRecord record = new LazyRecordDatumReader().read(arrayDecoder, schema);
+    Assert.assertEquals(buffer.length, arrayDecoder.getPosition());
+
+    // Access out of order, with nullable fields being union
+    Assert.assertEquals(1.5d, (Double) record.get("score"), 0.0000001d);
+    Assert.assertEquals("text", record.get("text"));
+    Assert.assertEquals(1, record.get("id"));
+    Assert.assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), record.get("data"));
+    Assert.assertTrue(((ByteBuffer) record.get("data")).isReadOnly());
+    Assert.assertEquals("GREEN", record.get("color"));
+    Assert.assertEquals(ImmutableMap.of("a", 1, "b", 2), record.get("counts"));
+
+    LazyRecord child = (LazyRecord) record.get("child");
+    Assert.assertEquals("child", child.get("name"));
+    Assert.assertEquals(30L, child.get("value"));
+
+    List<?> children = (List<?>) record.get("children");
+    Assert.assertEquals(2, children.size());
+    Assert.assertEquals("c2", ((LazyRecord) children.get(1)).get("name"));
+
+    // Access by position gives the same result
+    List<Schema.Field> fields = schema.getFields();
+    for (int i = 0; i < fields.size(); i++) {
+      Object value = record.get(i);
+      if (!(value instanceof LazyRecord) && !(value instanceof List)) {
+        Assert.assertEquals(record.get(fields.get(i).getName()), value);
+      }
+    }
+
+    // Encoded field bytes, which is a union of string and null
+    ByteArrayDecoder fieldDecoder = new ByteArrayDecoder(toBytes(record.getEncoded("text")));
+    Assert.assertEquals(0, fieldDecoder.readInt());
+    Assert.assertEquals("text", fieldDecoder.readString());
+    Assert.assertEquals(fieldDecoder.getLimit(), fieldDecoder.getPosition());
+
+    // Read from a stream decoder, which copies the record
+    record = new LazyRecordDatumReader().read(new BinaryDecoder(new ByteArrayInputStream(bytes)), schema);
+    Assert.assertEquals("text", record.get("text"));
+    Assert.assertEquals("c1", ((LazyRecord) ((List<?>) record.get("children")).get(0)).get("name"));
+
+    // Construct from a direct buffer
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+    direct.put(bytes).flip();
+    record = new LazyRecord(schema, direct);
+    Assert.assertEquals("text", record.get("text"));
+    Assert.assertEquals(1, record.get("id"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownField() throws UnsupportedTypeException {
+    Schema schema = new ReflectionSchemaGenerator().generate(Child.class);
+    new LazyRecord(schema, ByteBuffer.allocate(0)).get("unknown");
+  }
+
+  private byte[] toBytes(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+}
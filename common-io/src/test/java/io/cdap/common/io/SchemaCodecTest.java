@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io;
+
+import com.google.common.base.Charsets;
+import com.google.common.reflect.TypeToken;
+import io.cdap.common.internal.io.ReflectionSchemaGenerator;
+import io.cdap.common.internal.io.Schema;
+import io.cdap.common.internal.io.SchemaCodec;
+import io.cdap.common.internal.io.UnsupportedTypeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link SchemaCodec}.
+ */
+public class SchemaCodecTest {
+
+  /**
+   * Recursive record for testing.
+   */
+  public static final class Node {
+    private String name;
+    private TimeUnit unit;
+    private Map<String, List<Node>> children;
+    private Node parent;
+    private Leaf leaf;
+  }
+
+  /**
+   * Same as {@link Node}, but with a different name.
+   */
+  public static final class Node2 {
+    private String name;
+    private TimeUnit unit;
+    private Map<String, List<Node2>> children;
+    private Node2 parent;
+    private Leaf leaf;
+  }
+
+  /**
+   * Record for testing.
+   */
+  public static final class Leaf {
+    private int[] values;
+    private double value;
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException, UnsupportedTypeException {
+    SchemaCodec codec = new SchemaCodec();
+    Schema schema = new ReflectionSchemaGenerator().generate(Node.class);
+    byte[] bytes = codec.encode(schema);
+    Assert.assertTrue(bytes.length < schema.toString().getBytes(Charsets.UTF_8).length / 2);
+
+    Schema decoded = codec.decode(bytes);
+    Assert.assertEquals(schema, decoded);
+    Assert.assertEquals(schema.toString(), decoded.toString());
+    Assert.assertSame(decoded, codec.decode(bytes.clone()));
+
+    // Uses a new codec so that the cache is not used
+    Assert.assertSame(schema, new SchemaCodec().decode(bytes));
+
+    for (Schema s : new Schema[] {
+      Schema.of(Schema.Type.NULL), Schema.of(Schema.Type.STRING), Schema.recordOf("Name"),
+      Schema.unionOf(Schema.of(Schema.Type.LONG), Schema.enumWith("a", "b")),
+      new ReflectionSchemaGenerator().generate(new TypeToken<Map<String, int[]>>() { }.getType()),
+    }) {
+      Assert.assertEquals(s.toString(), new SchemaCodec().decode(codec.encode(s)).toString());
+    }
+  }
+
+  @Test
+  public void testRecordName() throws IOException, UnsupportedTypeException {
+    // Schemas that are equal but with different record names are encoded differently
+    SchemaCodec codec = new SchemaCodec();
+    Schema schema = new ReflectionSchemaGenerator().generate(Node.class);
+    Schema schema2 = new ReflectionSchemaGenerator().generate(Node2.class);
+    Assert.assertEquals(schema, schema2);
+    Assert.assertEquals(schema.toString(), codec.decode(codec.encode(schema)).toString());
+    Assert.assertEquals(schema2.toString(), codec.decode(codec.encode(schema2)).toString());
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidTag() throws IOException {
+    new SchemaCodec().decode(new byte[] {100});
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.common.io;
+
+import io.cdap.common.internal.io.ReflectionSchemaGenerator;
+import io.cdap.common.internal.io.Schema;
+import io.cdap.common.internal.io.SchemaHash;
+import io.cdap.common.internal.io.SchemaRegistry;
+import io.cdap.common.internal.io.UnsupportedTypeException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link SchemaRegistry}.
+ */
+public class SchemaRegistryTest {
+
+  @Rule
+  public final TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  /**
+   * Record for testing.
+   */
+  public static final class Record {
+    private String name;
+    private List<Record> children;
+    private Map<String, Long> counts;
+  }
+
+  @Test
+  public void testMemory() throws IOException, UnsupportedTypeException {
+    SchemaRegistry registry = new SchemaRegistry();
+    Schema schema = new ReflectionSchemaGenerator().generate(Record.class);
+    SchemaHash hash = registry.register(schema);
+    Assert.assertSame(schema, registry.get(hash));
+    Assert.assertSame(schema, registry.get(ByteBuffer.wrap(hash.toByteArray())));
+
+    // Registered schemas are never evicted
+    for (Schema.Type type : Schema.Type.values()) {
+      if (type.isSimpleType()) {
+        registry.register(Schema.of(type));
+      }
+    }
+    Assert.assertSame(schema, registry.get(hash));
+    Assert.assertNull(registry.get(Schema.arrayOf(Schema.of(Schema.Type.INT)).getSchemaHash()));
+  }
+
+  @Test
+  public void testFile() throws IOException, UnsupportedTypeException {
+    File file = new File(tmpFolder.newFolder(), "schemas");
+    Schema schema = new ReflectionSchemaGenerator().generate(Record.class);
+    Schema intSchema = Schema.of(Schema.Type.INT);
+
+    SchemaRegistry registry = new SchemaRegistry(file, 1);
+    try {
+      SchemaHash hash = registry.register(schema);
+      registry.register(intSchema);
+      registry.register(schema);
+
+      // Evicted from memory, but read from file
+      Assert.assertEquals(schema, registry.get(hash));
+      Assert.assertEquals(intSchema, registry.get(intSchema.getSchemaHash()));
+      Assert.assertNull(registry.get(Schema.of(Schema.Type.LONG).getSchemaHash()));
+    } finally {
+      registry.close();
+    }
+    long size = file.length();
+
+    // Simulate an incomplete append
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      raf.seek(size);
+      raf.write(new byte[10]);
+    } finally {
+      raf.close();
+    }
+
+    registry = new SchemaRegistry(file, 10);
+    try {
+      Assert.assertEquals(size, file.length());
+      Assert.assertEquals(schema, registry.get(schema.getSchemaHash()));
+      Assert.assertEquals(intSchema, registry.get(intSchema.getSchemaHash()));
+
+      Schema longSchema = Schema.of(Schema.Type.LONG);
+      registry.register(longSchema);
+      Assert.assertTrue(file.length() > size);
+    } finally {
+      registry.close();
+    }
+
+    registry = new SchemaRegistry(file, 10);
+    try {
+      Assert.assertEquals(Schema.of(Schema.Type.LONG), registry.get(Schema.of(Schema.Type.LONG).getSchemaHash()));
+    } finally {
+      registry.close();
+    }
+  }
+}
@@ -16,6 +16,7 @@
 
 package io.cdap.common.io;
 
+import com.google.common.collect.Lists;
 import com.google.common.reflect.TypeToken;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -130,9 +131,184 @@ public class SchemaTest {
     Assert.assertTrue(s2.isCompatible(s3));
   }
 
+  @Test
+  public void testCompatibleUnion() throws UnsupportedTypeException {
+    Schema node = new ReflectionSchemaGenerator().generate(Node.class);
+    Schema node3 = new ReflectionSchemaGenerator().generate(Node3.class);
+    Schema union = Schema.unionOf(Schema.of(Schema.Type.NULL), Schema.of(Schema.Type.DOUBLE),
+                                  Schema.arrayOf(Schema.of(Schema.Type.BYTES)), node3);
+
+    Assert.assertTrue(Schema.of(Schema.Type.INT).isCompatible(union));
+    Assert.assertTrue(Schema.of(Schema.Type.NULL).isCompatible(union));
+    Assert.assertFalse(Schema.of(Schema.Type.STRING).isCompatible(union));
+    Assert.assertTrue(Schema.arrayOf(Schema.of(Schema.Type.BYTES)).isCompatible(union));
+    Assert.assertFalse(Schema.arrayOf(Schema.of(Schema.Type.STRING)).isCompatible(union));
+    // A record is checked against the union records in the reverse direction
+    Assert.assertFalse(node.isCompatible(union));
+    Assert.assertTrue(node3.isCompatible(Schema.unionOf(Schema.of(Schema.Type.NULL), node)));
+
+    // Union to union is compatible if any of the source schemas is compatible
+    Assert.assertTrue(Schema.unionOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.LONG)).isCompatible(union));
+    Assert.assertFalse(Schema.unionOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.BOOLEAN))
+                         .isCompatible(union));
+
+    // Cached results are the same
+    Assert.assertFalse(node.isCompatible(union));
+    Assert.assertFalse(Schema.of(Schema.Type.STRING).isCompatible(union));
+  }
+
+  @Test
+  public void testUnionBranchDirection() {
+    // A non-simple source is checked against a union by checking each union schema against the source,
+    // which is the reverse of a non-union target. Cached results must be the same as the first check.
+    Schema intRecord = Schema.recordOf("R", Schema.Field.of("a", Schema.of(Schema.Type.INT)));
+    Schema longRecord = Schema.recordOf("R", Schema.Field.of("a", Schema.of(Schema.Type.LONG)));
+    Schema intArray = Schema.arrayOf(Schema.of(Schema.Type.INT));
+    Schema longArray = Schema.arrayOf(Schema.of(Schema.Type.LONG));
+
+    for (int i = 0; i < 2; i++) {
+      Assert.assertTrue(intRecord.isCompatible(longRecord));
+      Assert.assertFalse(longRecord.isCompatible(intRecord));
+      Assert.assertFalse(intRecord.isCompatible(Schema.unionOf(longRecord, Schema.of(Schema.Type.NULL))));
+      Assert.assertTrue(longRecord.isCompatible(Schema.unionOf(intRecord, Schema.of(Schema.Type.NULL))));
+
+      Assert.assertFalse(intArray.isCompatible(Schema.unionOf(longArray, Schema.of(Schema.Type.NULL))));
+      Assert.assertTrue(longArray.isCompatible(Schema.unionOf(intArray, Schema.of(Schema.Type.NULL))));
+
+      // Simple and union sources are checked from the source to the union schemas
+      Assert.assertTrue(Schema.of(Schema.Type.INT).isCompatible(Schema.unionOf(Schema.of(Schema.Type.LONG),
+                                                                               Schema.of(Schema.Type.NULL))));
+      Assert.assertTrue(Schema.unionOf(intRecord, Schema.of(Schema.Type.NULL))
+                          .isCompatible(Schema.unionOf(longRecord, Schema.of(Schema.Type.NULL))));
+    }
+  }
+
+  @Test
+  public void testGenerateCached() throws UnsupportedTypeException {
+    Schema schema = new ReflectionSchemaGenerator().generate(Node.class);
+    Assert.assertSame(schema, new ReflectionSchemaGenerator().generate(Node.class));
+    Assert.assertSame(schema, new ReflectionSchemaGenerator().generate(Node.class, true));
+
+    // The cached schema of a recursive type is not used when recursive types are not accepted
+    try {
+      new ReflectionSchemaGenerator().generate(Node.class, false);
+      Assert.fail("Expected UnsupportedTypeException");
+    } catch (UnsupportedTypeException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Record with nested records.
+   */
+  public final class Holder {
+    private Node4 leaf;
+    private Node node;
+  }
+
+  @Test
+  public void testGenerateNestedCached() throws UnsupportedTypeException {
+    // Nested records use the cached top level schemas
+    Schema leaf = new ReflectionSchemaGenerator().generate(Node4.class);
+    Schema node = new ReflectionSchemaGenerator().generate(Node.class);
+    Schema holder = new ReflectionSchemaGenerator().generate(Holder.class);
+    Assert.assertSame(leaf, holder.getField("leaf").getSchema().getUnionSchema(0));
+    Assert.assertSame(node, holder.getField("node").getSchema().getUnionSchema(0));
+
+    // The cached schema of a nested recursive type is not used when recursive types are not accepted
+    try {
+      new ReflectionSchemaGenerator().generate(Holder.class, false);
+      Assert.fail("Expected UnsupportedTypeException");
+    } catch (UnsupportedTypeException e) {
+      // Expected
+    }
+    Assert.assertSame(leaf, new ReflectionSchemaGenerator().generate(Node4.class, false));
+  }
+
+  @Test
+  public void testFieldIndex() {
+    List<Schema.Field> fields = Lists.newArrayList();
+    for (int i = 0; i < 300; i++) {
+      fields.add(Schema.Field.of("field" + i, Schema.of(Schema.Type.INT)));
+    }
+    Schema schema = Schema.recordOf("wide", fields);
+    for (int i = 0; i < schema.getFields().size(); i++) {
+      Schema.Field field = schema.getFields().get(i);
+      Assert.assertEquals(i, schema.getFieldIndex(field.getName()));
+      Assert.assertSame(field, schema.getField(field.getName()));
+    }
+    Assert.assertEquals(-1, schema.getFieldIndex("field300"));
+    Assert.assertNull(schema.getField("field300"));
+    Assert.assertEquals(-1, Schema.of(Schema.Type.INT).getFieldIndex("field0"));
+
+    Schema target = Schema.recordOf("target",
+                                    Schema.Field.of("field2", Schema.of(Schema.Type.LONG)),
+                                    Schema.Field.of("x", Schema.of(Schema.Type.STRING)),
+                                    Schema.Field.of("field0", Schema.of(Schema.Type.LONG)));
+    int[] mapping = schema.getFieldMapping(target);
+    Assert.assertEquals(300, mapping.length);
+    Assert.assertEquals(2, mapping[schema.getFieldIndex("field0")]);
+    Assert.assertEquals(-1, mapping[schema.getFieldIndex("field1")]);
+    Assert.assertEquals(0, mapping[schema.getFieldIndex("field2")]);
+    Assert.assertArrayEquals(new int[] {2, -1, 0}, target.getFieldMapping(schema));
+  }
+
   @Test
   public void testPrimitiveArray() throws UnsupportedTypeException {
     Schema schema = new ReflectionSchemaGenerator().generate(int[].class);
     Assert.assertEquals(Schema.arrayOf(Schema.of(Schema.Type.INT)), schema);
   }
+
+  @Test
+  public void testIntern() throws UnsupportedTypeException {
+    Assert.assertSame(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.STRING));
+    Assert.assertSame(Schema.arrayOf(Schema.of(Schema.Type.INT)),
+                      new ReflectionSchemaGenerator().generate(int[].class));
+
+    // Recursive schemas generated separately are the same instance, also when parsed from json
+    Schema schema = new ReflectionSchemaGenerator().generate(Node.class);
+    Assert.assertSame(schema, new ReflectionSchemaGenerator().generate(Node.class));
+    Gson gson = new GsonBuilder().registerTypeAdapter(Schema.class, new SchemaTypeAdapter()).create();
+    Assert.assertSame(schema, gson.fromJson(gson.toJson(schema), Schema.class));
+
+    // Schemas that are only different in record name are equal but are not the same instance
+    Schema schema2 = new ReflectionSchemaGenerator().generate(Node2.class);
+    Assert.assertEquals(schema, schema2);
+    Assert.assertNotSame(schema, schema2);
+
+    // Name only record
+    Assert.assertSame(Schema.recordOf("Node"), Schema.recordOf("Node"));
+    Assert.assertEquals("\"Node\"", Schema.recordOf("Node").toString());
+  }
+
+  @Test
+  public void testFingerprint() throws UnsupportedTypeException {
+    // Equal schemas have the same fingerprint, even with different record names
+    Schema schema = new ReflectionSchemaGenerator().generate(Node.class);
+    Assert.assertEquals(schema.getFingerprint(), new ReflectionSchemaGenerator().generate(Node2.class).getFingerprint());
+    Assert.assertEquals(schema.hashCode(), new ReflectionSchemaGenerator().generate(Node2.class).hashCode());
+
+    // Different field names, enum values or types give different fingerprints
+    Assert.assertNotEquals(Schema.recordOf("r", Schema.Field.of("a", Schema.of(Schema.Type.INT))).getFingerprint(),
+                           Schema.recordOf("r", Schema.Field.of("b", Schema.of(Schema.Type.INT))).getFingerprint());
+    Assert.assertNotEquals(Schema.enumWith("é").getFingerprint(), Schema.enumWith("e").getFingerprint());
+    Assert.assertNotEquals(Schema.arrayOf(Schema.of(Schema.Type.INT)).getFingerprint(),
+                           Schema.arrayOf(Schema.of(Schema.Type.LONG)).getFingerprint());
+    Assert.assertNotEquals(Schema.of(Schema.Type.INT), Schema.of(Schema.Type.LONG));
+
+    // Schemas with the same SchemaHash have the same fingerprint, hence equals is consistent with SchemaHash
+    Schema enum1 = Schema.enumWith("ab", "c");
+    Schema enum2 = Schema.enumWith("a", "bc");
+    Assert.assertEquals(enum1.getSchemaHash(), enum2.getSchemaHash());
+    Assert.assertEquals(enum1.getFingerprint(), enum2.getFingerprint());
+    Assert.assertEquals(enum1, enum2);
+
+    // Unpaired surrogates are hashed as '?', the same as String.getBytes, while surrogate pairs are not
+    Schema surrogate = Schema.enumWith("a\ud800b");
+    Schema question = Schema.enumWith("a?b");
+    Assert.assertEquals(surrogate.getSchemaHash(), question.getSchemaHash());
+    Assert.assertEquals(surrogate.getFingerprint(), question.getFingerprint());
+    Assert.assertEquals(surrogate, question);
+    Assert.assertNotEquals(Schema.enumWith("a\ud83d\ude00b").getFingerprint(), question.getFingerprint());
+  }
 }
@@ -24,11 +24,16 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
-import io.cdap.common.internal.lang.Reflections;
 import sun.misc.Unsafe;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Queue;
@@ -86,6 +91,8 @@ public final class InstantiatorFactory {
 
   /**
    * Returns an {@link Instantiator} that uses default constructor to instantiate an object of the given type.
+   * If the constructor is accessible, the {@link Instantiator} is generated with {@link LambdaMetafactory}, which
+   * calls the constructor directly. Otherwise the constructor is called through a {@link MethodHandle}.
    *
    * @param type
    * @param <T>
@@ -93,23 +100,78 @@ public final class InstantiatorFactory {
    */
   private <T> Instantiator<T> getByDefaultConstructor(TypeToken<T> type) {
     try {
-      final Constructor<? super T> defaultCons = type.getRawType().getDeclaredConstructor();
+      Class<? super T> rawType = type.getRawType();
+      Constructor<? super T> defaultCons = rawType.getDeclaredConstructor();
+      if (Modifier.isAbstract(rawType.getModifiers())) {
+        return null;
+      }
+
+      if (isAccessible(defaultCons)) {
+        Instantiator<T> instantiator = getByLambda(defaultCons);
+        if (instantiator != null) {
+          return instantiator;
+        }
+      }
+
       defaultCons.setAccessible(true);
+      final MethodHandle handle = MethodHandles.lookup().unreflectConstructor(defaultCons)
+        .asType(MethodType.methodType(Object.class));
 
       return new Instantiator<T>() {
         @Override
         public T create() {
           try {
-            return (T) defaultCons.newInstance();
-          } catch (Exception e) {
-            throw Throwables.propagate(e);
+            return (T) handle.invokeExact();
+          } catch (Throwable t) {
+            throw Throwables.propagate(t);
           }
         }
       };
 
     } catch (NoSuchMethodException e) {
       return null;
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns an {@link Instantiator} that is generated by {@link LambdaMetafactory} to call the given constructor,
+   * or {@code null} if the class of the constructor is not visible to this class ClassLoader.
+   */
+  private <T> Instantiator<T> getByLambda(Constructor<? super T> constructor) {
+    Class<?> rawType = constructor.getDeclaringClass();
+    try {
+      // The generated class is defined with this class as the host, hence it needs to be able to load the type
+      if (Class.forName(rawType.getName(), false, InstantiatorFactory.class.getClassLoader()) != rawType) {
+        return null;
+      }
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      CallSite callSite = LambdaMetafactory.metafactory(lookup, "create",
+                                                       MethodType.methodType(Instantiator.class),
+                                                       MethodType.methodType(Object.class),
+                                                       lookup.unreflectConstructor(constructor),
+                                                       MethodType.methodType(rawType));
+      return (Instantiator<T>) callSite.getTarget().invoke();
+    } catch (Throwable t) {
+      // Fallback to other method
+      return null;
+    }
+  }
+
+  /**
+   * Returns {@code true} if the given constructor, the declaring class and all the enclosing classes are public.
+   */
+  private boolean isAccessible(Constructor<?> constructor) {
+    if (!Modifier.isPublic(constructor.getModifiers())) {
+      return false;
+    }
+    for (Class<?> cls = constructor.getDeclaringClass(); cls != null; cls = cls.getEnclosingClass()) {
+      if (!Modifier.isPublic(cls.getModifiers())) {
+        return false;
+      }
     }
+    return true;
   }
 
   private <T> Instantiator<T> getByKnownType(TypeToken<T> type) {
@@ -118,7 +180,7 @@ public final class InstantiatorFactory {
       return new Instantiator<T>() {
         @Override
         public T create() {
-          return (T) Lists.newLinkedList();
+          return (T) Lists.newArrayList();
         }
       };
     }
@@ -174,14 +236,18 @@ public final class InstantiatorFactory {
     return null;
   }
 
+  /**
+   * Returns an {@link Instantiator} that allocates instances with {@link Unsafe#allocateInstance(Class)}, without
+   * calling any constructor. No field initialization is needed, since the allocated instance already has all
+   * fields set to the default values (zero, {@code false} or {@code null}).
+   */
   private <T> Instantiator<T> getByUnsafe(final TypeToken<T> type) {
+    final Class<? super T> rawType = type.getRawType();
     return new Instantiator<T>() {
       @Override
       public T create() {
         try {
-          Object instance = UNSAFE.allocateInstance(type.getRawType());
-          Reflections.visit(instance, type, new FieldInitializer());
-          return (T) instance;
+          return (T) UNSAFE.allocateInstance(rawType);
         } catch (InstantiationException e) {
           throw Throwables.propagate(e);
         }
@@ -47,6 +47,36 @@ public class InstantiatorTest {
     });
   }
 
+  @Test
+  public void testDefaultConstructor() {
+    InstantiatorFactory factory = new InstantiatorFactory(false);
+
+    // Public class, created by generated Instantiator
+    PublicBean publicBean = factory.get(TypeToken.of(PublicBean.class)).create();
+    Assert.assertEquals("public", publicBean.value);
+    Assert.assertNotSame(publicBean, factory.get(TypeToken.of(PublicBean.class)).create());
+
+    // Private class, created through MethodHandle
+    PrivateBean privateBean = factory.get(TypeToken.of(PrivateBean.class)).create();
+    Assert.assertEquals("private", privateBean.value);
+  }
+
+  public static final class PublicBean {
+    private final String value;
+
+    public PublicBean() {
+      this.value = "public";
+    }
+  }
+
+  private static final class PrivateBean {
+    private final String value;
+
+    private PrivateBean() {
+      this.value = "private";
+    }
+  }
+
   public static final class Record {
     private static final Logger LOG = LoggerFactory.getLogger(Record.class);
 